@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("maven-publish")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 // Toolchains:
@@ -26,6 +27,19 @@ dependencies {
     // Annotations
     compileOnly("org.jetbrains:annotations:26.0.2")
     annotationImplementation("org.projectlombok:lombok:1.18.36")
+
+    // Tests
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// Benchmarks:
+jmh {
+    // i.e. ./gradlew jmh -Pjmh.profilers=gc
+    (project.findProperty("jmh.profilers") as String?)?.let { profilers.addAll(it.split(",")) }
+    // i.e. ./gradlew jmh -Pjmh.includes=ChainBenchmark
+    (project.findProperty("jmh.includes") as String?)?.let { includes.addAll(it.split(",")) }
 }
 
 // Tasks:
@@ -33,6 +47,10 @@ tasks.compileJava {
     options.encoding = "UTF-8"
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
 tasks.javadoc {
     options.encoding = "UTF-8"
     (options as StandardJavadocDocletOptions).addStringOption("Xdoclint:none", "-quiet")
@@ -0,0 +1,109 @@
+package me.darragh.msauth.benchmark;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import me.darragh.msauth.client.AuthenticationPipeline;
+import me.darragh.msauth.client.ExecutionPlan;
+import me.darragh.msauth.cookie.CookieAuthenticator;
+import me.darragh.msauth.cookie.CookieJar;
+import me.darragh.msauth.cookie.CookieParser;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.oauth2.OAuthAuthenticator;
+import me.darragh.msauth.oauth2.OAuthOptions;
+import me.darragh.msauth.stub.StubOptions;
+import me.darragh.msauth.stub.StubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks whole logins end-to-end against a {@link StubServer}, measuring the library's own overhead (i.e. request building,
+ * decoding and hand-offs between hops) over loopback HTTP/1.1, and then how it overlaps the services' latency.
+ * <p>
+ * Sample time reports the tail latency of each login, and may be run concurrently with JMH's {@code -t} option to measure throughput under load.
+ * The fork disables Nagle's algorithm for the stub's HTTP server, as delayed ACKs would otherwise dominate the measurements.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ChainBenchmark {
+    private static final String COOKIES = ".live.com\tTRUE\t/\tTRUE\t0\t__Host-MSAAUTHP\t" + "a".repeat(1200) + "\n"
+            + ".login.live.com\tTRUE\t/\tTRUE\t0\tMSPAuth\t" + "b".repeat(400) + "\n"
+            + ".xboxlive.com\tTRUE\t/\tTRUE\t0\tXBXXtkhttp://xboxlive.com\t" + "c".repeat(600) + "\n";
+
+    @Param({ "SEQUENTIAL", "PARALLEL", "FAST_PATH" })
+    public ExecutionPlan executionPlan;
+
+    @Param({ "0", "20" })
+    public int latencyMillis;
+
+    private StubServer server;
+    private AuthenticationPipeline pipeline;
+    private OAuthAuthenticator oAuthAuthenticator;
+    private CookieJar cookieJar;
+    private AuthenticationRecord record;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.server = StubServer.start(StubOptions.DEFAULT.withLatency(Duration.ofMillis(this.latencyMillis), Duration.ofMillis(this.latencyMillis / 2)));
+        HttpTransport transport = HttpTransport.builder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.pipeline = new AuthenticationPipeline(transport, this.executionPlan, this.server.getEndpoints());
+        this.oAuthAuthenticator = new OAuthAuthenticator(OAuthOptions.DEFAULT, this.pipeline);
+        this.cookieJar = CookieParser.DEFAULT.parse(COOKIES);
+        this.record = new SimpleAuthenticationRecord("Notch", UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5"), "", "M.C507_BAY.0.U.-refresh");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.server.close();
+    }
+
+    /**
+     * Refreshes a record: refresh token -> Xbox Live -> XSTS -> Minecraft (and the profile checkout, per the execution plan).
+     */
+    @Benchmark
+    public AuthenticationResult<AuthenticationRecord> oAuthRefresh() {
+        return this.oAuthAuthenticator.performAuthenticationAsync(this.record).join();
+    }
+
+    /**
+     * Logs in from cookies: three redirects, then the SISU payload is decoded and exchanged with Minecraft.
+     */
+    @Benchmark
+    public AuthenticationResult<AuthenticationRecord> cookieLogin() {
+        return new CookieAuthenticator(this.cookieJar, this.pipeline).performAuthenticationAsync().join();
+    }
+
+    /**
+     * Only the Minecraft half of the chain, from an XSTS token.
+     */
+    @Benchmark
+    public AuthenticationResult<AuthenticationRecord> pipeline() {
+        return this.pipeline.authenticateAsync("XBL3.0 x=1234567890123456789;token", "M.C507_BAY.0.U.-refresh").join();
+    }
+}
@@ -0,0 +1,74 @@
+package me.darragh.msauth.benchmark;
+
+import me.darragh.msauth.cookie.CookieJar;
+import me.darragh.msauth.cookie.CookieParser;
+import me.darragh.msauth.util.CookieUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing a browser's cookie file, of which only a handful of cookies are used to log in.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CookieParsingBenchmark {
+    private static final String[] DOMAINS = { ".google.com", ".youtube.com", ".github.com", ".reddit.com", ".amazon.co.uk", ".wikipedia.org" };
+    private static final URI LOGIN_URI = URI.create("https://login.live.com/oauth20_authorize.srf");
+
+    @Param({ "1000", "5000" })
+    public int cookies;
+
+    private String file;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        long expiresAt = System.currentTimeMillis() / 1000 + 86400 * 365;
+        StringBuilder builder = new StringBuilder("# Netscape HTTP Cookie File\n\n");
+        for (int i = 0; i < this.cookies; i++) {
+            String domain = i % 50 == 0 ? ".live.com" : DOMAINS[i % DOMAINS.length];
+            builder.append(domain).append("\tTRUE\t/\tTRUE\t").append(expiresAt).append("\tcookie").append(i)
+                    .append('\t').append("v".repeat(40 + i % 80)).append('\n');
+        }
+        this.file = builder.toString();
+        this.buffer = ByteBuffer.wrap(this.file.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String cookieUtilReformat() {
+        return CookieUtil.reformatCookies(this.file);
+    }
+
+    @Benchmark
+    public String cookieParserString() {
+        CookieJar cookieJar = CookieParser.DEFAULT.parse(this.file);
+        return cookieJar.headerFor(LOGIN_URI);
+    }
+
+    @Benchmark
+    public String cookieParserByteBuffer() {
+        CookieJar cookieJar = CookieParser.DEFAULT.parse(this.buffer);
+        return cookieJar.headerFor(LOGIN_URI);
+    }
+}
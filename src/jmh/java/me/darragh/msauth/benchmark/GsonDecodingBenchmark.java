@@ -0,0 +1,140 @@
+package me.darragh.msauth.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import me.darragh.msauth.client.MinecraftClient;
+import me.darragh.msauth.client.XboxToken;
+import me.darragh.msauth.device.DeviceCodeMicrosoftClient;
+import me.darragh.msauth.gson.JsonBodies;
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import me.darragh.msauth.oauth2.OAuthMicrosoftClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding each response with the hand-written adapters, straight from its bytes, against the previous reflective decoding
+ * of the body as a string.
+ * <p>
+ * Run with the GC profiler to compare allocation: {@code ./gradlew jmh -Pjmh.profilers=gc}, and compare {@code gc.alloc.rate.norm}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GsonDecodingBenchmark {
+    private static final Gson REFLECTIVE_GSON = new Gson();
+
+    static final byte[] OAUTH_TOKENS = ("{\"token_type\":\"bearer\",\"expires_in\":86400,\"scope\":\"XboxLive.signin XboxLive.offline_access\"," +
+            "\"access_token\":\"" + "E".repeat(1400) + "\",\"refresh_token\":\"" + "M".repeat(600) + "\",\"user_id\":\"0123456789abcdef\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] XSTS_RESPONSE = ("{\"IssueInstant\":\"2024-01-01T00:00:00.1234567Z\",\"NotAfter\":\"2024-01-01T16:00:00.1234567Z\"," +
+            "\"Token\":\"" + "e".repeat(1800) + "\",\"DisplayClaims\":{\"xui\":[{\"uhs\":\"1234567890123456789\"}]}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] MINECRAFT_AUTHENTICATION = ("{\"username\":\"01234567-89ab-cdef-0123-456789abcdef\",\"roles\":[]," +
+            "\"metadata\":{\"entitlements\":{\"game_minecraft\":true,\"product_minecraft\":true}},\"access_token\":\"" + "e".repeat(600) + "\"," +
+            "\"expires_in\":86400,\"token_type\":\"Bearer\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] MINECRAFT_PROFILE = ("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"skins\":[" +
+            "{\"id\":\"6a6e65e5-76dd-4c3c-a625-162924514568\",\"state\":\"ACTIVE\",\"url\":\"http://textures.minecraft.net/texture/292009a4925b58f02c77dadc3ecef07ea4c7472f64e0fdc32ce5522489362680\"," +
+            "\"textureKey\":\"292009a4925b58f02c77dadc3ecef07ea4c7472f64e0fdc32ce5522489362680\",\"variant\":\"CLASSIC\"}],\"capes\":[" +
+            "{\"id\":\"8c94945b-d7a6-4fb2-8e36-b4d7d47dc5f8\",\"state\":\"ACTIVE\",\"url\":\"http://textures.minecraft.net/texture/2340c0e03dd24a11b15a8b33c2a7e9e32abb2051b2481d0ba7defd635ca7a933\",\"alias\":\"Migrator\"}]," +
+            "\"profileActions\":{}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] DEVICE_CODE = ("{\"user_code\":\"FGHJ7K2L\",\"device_code\":\"" + "D".repeat(180) + "\"," +
+            "\"verification_uri\":\"https://www.microsoft.com/link\",\"expires_in\":900,\"interval\":5," +
+            "\"message\":\"To sign in, use a web browser to open the page https://www.microsoft.com/link and enter the code FGHJ7K2L to authenticate.\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    static final byte[] DEVICE_TOKEN_PENDING = ("{\"error\":\"authorization_pending\",\"error_description\":\"AADSTS70016: OAuth 2.0 device flow error. " +
+            "Authorization is pending. Continue polling.\",\"error_codes\":[70016],\"timestamp\":\"2024-01-01 00:00:00Z\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Benchmark
+    public OAuthMicrosoftClient.OAuthTokens oAuthTokens() {
+        return JsonBodies.decode(OAUTH_TOKENS, OAuthMicrosoftClient.OAuthTokens.class);
+    }
+
+    @Benchmark
+    public OAuthMicrosoftClient.OAuthTokens oAuthTokensReflective() {
+        return REFLECTIVE_GSON.fromJson(new String(OAUTH_TOKENS, StandardCharsets.UTF_8), OAuthMicrosoftClient.OAuthTokens.class);
+    }
+
+    @Benchmark
+    public XboxToken xstsToken() {
+        return JsonBodies.decode(XSTS_RESPONSE, XboxToken.class);
+    }
+
+    @Benchmark
+    public XboxAuthentication xstsTokenReflective() {
+        return REFLECTIVE_GSON.fromJson(new String(XSTS_RESPONSE, StandardCharsets.UTF_8), XboxAuthentication.class);
+    }
+
+    @Benchmark
+    public MinecraftClient.MinecraftAuthentication minecraftAuthentication() {
+        return JsonBodies.decode(MINECRAFT_AUTHENTICATION, MinecraftClient.MinecraftAuthentication.class);
+    }
+
+    @Benchmark
+    public MinecraftClient.MinecraftAuthentication minecraftAuthenticationReflective() {
+        return REFLECTIVE_GSON.fromJson(new String(MINECRAFT_AUTHENTICATION, StandardCharsets.UTF_8), MinecraftClient.MinecraftAuthentication.class);
+    }
+
+    @Benchmark
+    public MinecraftProfile minecraftProfile() {
+        return JsonBodies.decode(MINECRAFT_PROFILE, MinecraftProfile.class);
+    }
+
+    @Benchmark
+    public MinecraftProfile minecraftProfileReflective() {
+        return REFLECTIVE_GSON.fromJson(new String(MINECRAFT_PROFILE, StandardCharsets.UTF_8), MinecraftProfile.class);
+    }
+
+    @Benchmark
+    public DeviceCodeMicrosoftClient.DeviceCode deviceCode() {
+        return JsonBodies.decode(DEVICE_CODE, DeviceCodeMicrosoftClient.DeviceCode.class);
+    }
+
+    @Benchmark
+    public DeviceCodeMicrosoftClient.DeviceCode deviceCodeReflective() {
+        return REFLECTIVE_GSON.fromJson(new String(DEVICE_CODE, StandardCharsets.UTF_8), DeviceCodeMicrosoftClient.DeviceCode.class);
+    }
+
+    @Benchmark
+    public DeviceCodeMicrosoftClient.DeviceTokenResponse deviceTokenPending() { // decoded on every poll whilst the user is signing in
+        return JsonBodies.decode(DEVICE_TOKEN_PENDING, DeviceCodeMicrosoftClient.DeviceTokenResponse.class);
+    }
+
+    //region Records
+    // The shape previously decoded by reflection, as a baseline for XboxToken
+    public record XboxAuthentication(@SerializedName("IssueInstant") String issueInstant,
+                                     @SerializedName("NotAfter") String notAfter,
+                                     @SerializedName("Token") String token,
+                                     @SerializedName("DisplayClaims") DisplayClaims displayClaims) {
+    }
+
+    public record DisplayClaims(@SerializedName("xui") Xui[] xuis) {
+    }
+
+    public record Xui(@SerializedName("uhs") String uhs) {
+    }
+    //endregion
+}
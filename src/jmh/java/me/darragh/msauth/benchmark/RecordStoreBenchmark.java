@@ -0,0 +1,80 @@
+package me.darragh.msauth.benchmark;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import me.darragh.msauth.store.FileAuthenticationRecordStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks opening a {@link FileAuthenticationRecordStore}, i.e. replaying its log into memory at startup.
+ * <p>
+ * Records carry tokens of a realistic size, so 100,000 records make a log of roughly 127 MB.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordStoreBenchmark {
+    @Param({ "10000", "100000" })
+    public int records;
+
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.path = Files.createTempFile("msauth-records", ".log");
+        Files.delete(this.path);
+
+        Instant issuedAt = Instant.now();
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(this.path)) {
+            List<AuthenticationRecord> batch = new ArrayList<>(1000);
+            for (int i = 0; i < this.records; i++) {
+                batch.add(new SimpleAuthenticationRecord("Player" + i, new UUID(i, i), "a".repeat(800), "M.C507_BAY." + "r".repeat(400),
+                        issuedAt, issuedAt.plusSeconds(86400)));
+                if (batch.size() == 1000) {
+                    store.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            store.saveAll(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.path);
+    }
+
+    @Benchmark
+    public int open() {
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(this.path)) {
+            return store.size();
+        }
+    }
+}
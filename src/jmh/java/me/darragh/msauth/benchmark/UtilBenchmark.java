@@ -0,0 +1,70 @@
+package me.darragh.msauth.benchmark;
+
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import me.darragh.msauth.minecraft.MinecraftCape;
+import me.darragh.msauth.minecraft.MinecraftSkin;
+import me.darragh.msauth.util.FormBuilder;
+import me.darragh.msauth.util.QueryUtil;
+import me.darragh.msauth.util.UUIDUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the small helpers used on every login: query parsing, form building and UUID decoding.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilBenchmark {
+    private static final String REDIRECT_URL = "https://www.minecraft.net/en-us/login?state=login&cobrandId=8058f65d-ce06-4c30-9559-473c9275a65d"
+            + "&tid=896928775&aid=1142970254&accessToken=" + "eyJhbGciOiJIUzI1NiJ9".repeat(200);
+    private static final String PROFILE_ID = "069a79f444e94726a5befca90e38aaf5";
+    private static final MinecraftProfile PROFILE = new MinecraftProfile(PROFILE_ID, "Notch", new MinecraftSkin[0], new MinecraftCape[0]);
+
+    @Benchmark
+    public String queryUtilGetQuery() {
+        return QueryUtil.getQuery(REDIRECT_URL, "accessToken");
+    }
+
+    @Benchmark
+    public String formBuilderBuild() {
+        return new FormBuilder()
+                .add("client_id", "54fd49e4-2103-4044-9603-2b028c814ec3")
+                .add("refresh_token", "M.C507_BAY.0.U.-" + "Ab9".repeat(150))
+                .add("grant_type", "refresh_token")
+                .add("redirect_uri", "http://localhost:59125")
+                .add("scope", "XboxLive.signin XboxLive.offline_access")
+                .build();
+    }
+
+    @Benchmark
+    public UUID profileGetUUID() {
+        return PROFILE.getUUID();
+    }
+
+    @Benchmark
+    public UUID uuidFromUndashed() {
+        return UUIDUtil.fromUndashed(PROFILE_ID);
+    }
+
+    @Benchmark
+    public UUID uuidFromRegex() { // the previous implementation of MinecraftProfile#getUUID, as a baseline
+        return UUID.fromString(PROFILE_ID.replaceFirst("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})", "$1-$2-$3-$4-$5"));
+    }
+}
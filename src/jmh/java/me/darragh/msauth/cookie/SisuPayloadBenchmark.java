@@ -0,0 +1,53 @@
+package me.darragh.msauth.cookie;
+
+import me.darragh.msauth.client.XboxToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks decoding the SISU payload returned by {@link CookieMicrosoftClient#authenticateXSTS(CookieJar)}'s final redirect.
+ * <p>
+ * Lives in the cookie package, as the parser is package-private.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SisuPayloadBenchmark {
+    private static final String PAYLOAD = Base64.getEncoder().encodeToString(("[" +
+            "{\"Item1\":\"http://xboxlive.com\",\"Item2\":{\"DisplayClaims\":{\"xui\":[{\"uhs\":\"1234567890123456789\",\"gtg\":\"Gamertag\"}]}," +
+            "\"IssueInstant\":\"2024-01-01T00:00:00.1234567Z\",\"NotAfter\":\"2024-01-01T16:00:00.1234567Z\",\"Token\":\"" + "x".repeat(1800) + "\"}}," +
+            "{\"Item1\":\"rp://api.minecraftservices.com/\",\"Item2\":{\"DisplayClaims\":{\"xui\":[{\"uhs\":\"1234567890123456789\"}]}," +
+            "\"IssueInstant\":\"2024-01-01T00:00:00.1234567Z\",\"NotAfter\":\"2024-01-01T16:00:00.1234567Z\",\"Token\":\"" + "m".repeat(1800) + "\"}}" +
+            "]").getBytes(StandardCharsets.UTF_8));
+
+    @Benchmark
+    public XboxToken parser() {
+        return SisuPayloadParser.parse(PAYLOAD);
+    }
+
+    @Benchmark
+    public String split() { // the previous implementation, as a baseline
+        String decodedResponse = new String(Base64.getDecoder().decode(PAYLOAD), StandardCharsets.UTF_8)
+                .split("\"rp://api.minecraftservices.com/\",")[1];
+        String uhs = decodedResponse.split("\\{\"DisplayClaims\":\\{\"xui\":\\[\\{\"uhs\":\"")[1].split("\"")[0];
+        String token = decodedResponse.split("\"Token\":\"")[1].split("\"")[0];
+        return "XBL3.0 x=" + uhs + ";" + token;
+    }
+}
@@ -0,0 +1,59 @@
+package me.darragh.msauth;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The stages of the login chains, each of which is a request to a single service.
+ * <p>
+ * A stage is idempotent if repeating its request has no effect beyond the first, so it may be retried after a server error or an I/O error.
+ * Stages redeeming single-use codes or rotating refresh tokens are not, so are only retried when throttled, i.e. when the request was rejected outright.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @see AuthenticationException
+ * @see me.darragh.msauth.metrics.AuthMetrics
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AuthStage {
+    /**
+     * Redeems an OAuth2 code (or device code), or a refresh token, for Microsoft tokens.
+     */
+    MICROSOFT_TOKEN(false),
+    /**
+     * Requests a device code, to be entered by the user.
+     */
+    DEVICE_CODE(true),
+    /**
+     * Polls whether the user has entered the device code. Each pending poll is answered with a 400.
+     */
+    DEVICE_TOKEN(false),
+    /**
+     * Follows one of the redirects of a cookie login, the last of which carries the XSTS token.
+     */
+    COOKIE_REDIRECT(true),
+    /**
+     * Authenticates with Xbox Live.
+     */
+    XBOX_LIVE(true),
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS).
+     */
+    XSTS(true),
+    /**
+     * Checks out the Xbox profile, validating the XSTS token.
+     */
+    XBOX_PROFILE(true),
+    /**
+     * Logs in to Minecraft with the XSTS token.
+     */
+    MINECRAFT_LOGIN(true),
+    /**
+     * Fetches the Minecraft profile.
+     */
+    MINECRAFT_PROFILE(true);
+
+    private final boolean idempotent;
+}
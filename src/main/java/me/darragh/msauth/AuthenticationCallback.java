@@ -19,4 +19,15 @@ public interface AuthenticationCallback<T extends AuthenticationRecord> {
      * @param record The authentication record.
      */
     void onAuthentication(@NotNull T record, @NotNull MinecraftProfile profile);
+
+    /**
+     * Called when authentication fails after the authentication process has been started.
+     * <p>
+     * Failures that occur before this (i.e. invalid arguments) are thrown directly by the authenticator.
+     *
+     * @param throwable The cause of the failure.
+     */
+    default void onFailure(@NotNull Throwable throwable) {
+        // no-op
+    }
 }
@@ -0,0 +1,78 @@
+package me.darragh.msauth;
+
+import lombok.Getter;
+import me.darragh.msauth.http.RetryPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Thrown when a stage of a login chain fails, identifying the stage and the status code the service responded with.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@Getter
+public class AuthenticationException extends RuntimeException {
+    /**
+     * The status code used when no response was received, i.e. due to an I/O error.
+     */
+    public static final int NO_RESPONSE = -1;
+
+    private final @NotNull AuthStage stage;
+    private final int statusCode;
+    private final @Nullable Duration retryAfter;
+
+    /**
+     * Creates an exception for a stage whose service responded unsuccessfully.
+     *
+     * @param stage The stage.
+     * @param statusCode The status code of the response.
+     * @param message The message.
+     */
+    public AuthenticationException(@NotNull AuthStage stage, int statusCode, @NotNull String message) {
+        super(message);
+        this.stage = stage;
+        this.statusCode = statusCode;
+        this.retryAfter = null;
+    }
+
+    /**
+     * Creates an exception for a stage whose service responded unsuccessfully, retaining the response's Retry-After delay.
+     *
+     * @param stage The stage.
+     * @param response The response.
+     * @param message The message.
+     */
+    public AuthenticationException(@NotNull AuthStage stage, @NotNull HttpResponse<?> response, @NotNull String message) {
+        super(message);
+        this.stage = stage;
+        this.statusCode = response.statusCode();
+        this.retryAfter = RetryPolicy.parseRetryAfter(response);
+    }
+
+    /**
+     * Creates an exception for a stage which failed without a response, i.e. due to an I/O error.
+     *
+     * @param stage The stage.
+     * @param message The message.
+     * @param cause The cause.
+     */
+    public AuthenticationException(@NotNull AuthStage stage, @NotNull String message, @Nullable Throwable cause) {
+        super(message, cause);
+        this.stage = stage;
+        this.statusCode = NO_RESPONSE;
+        this.retryAfter = null;
+    }
+
+    /**
+     * Checks whether the service responded.
+     *
+     * @return True if a response was received, false otherwise.
+     */
+    public boolean hasResponse() {
+        return this.statusCode != NO_RESPONSE;
+    }
+}
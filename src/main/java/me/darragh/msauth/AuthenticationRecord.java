@@ -3,6 +3,8 @@ package me.darragh.msauth;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -39,4 +41,38 @@ public interface AuthenticationRecord {
      * @return The refresh token.
      */
     @Nullable String refreshToken();
+
+    /**
+     * The time at which the access token was issued.
+     *
+     * @return The time at which the access token was issued, or {@code null} if unknown.
+     * @since 1.2.0
+     */
+    default @Nullable Instant issuedAt() {
+        return null;
+    }
+
+    /**
+     * The time at which the access token expires.
+     *
+     * @return The time at which the access token expires, or {@code null} if unknown.
+     * @since 1.2.0
+     */
+    default @Nullable Instant expiresAt() {
+        return null;
+    }
+
+    /**
+     * Returns whether the access token has expired, or will expire within the given window.
+     * <p>
+     * Records with an unknown expiry are always considered to be expiring.
+     *
+     * @param window The safety window before the actual expiry.
+     * @return Whether the access token is expiring.
+     * @since 1.2.0
+     */
+    default boolean isExpiring(@NotNull Duration window) {
+        Instant expiresAt = this.expiresAt();
+        return expiresAt == null || !Instant.now().plus(window).isBefore(expiresAt);
+    }
 }
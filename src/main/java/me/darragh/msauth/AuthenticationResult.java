@@ -0,0 +1,17 @@
+package me.darragh.msauth;
+
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The result of a completed authentication.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ * @param record The authentication record.
+ * @param profile The Minecraft profile of the authenticated user.
+ */
+public record AuthenticationResult<T extends AuthenticationRecord>(@NotNull T record, @NotNull MinecraftProfile profile) {
+}
@@ -1,9 +1,17 @@
 package me.darragh.msauth;
 
 import lombok.SneakyThrows;
+import me.darragh.msauth.minecraft.MinecraftProfile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * The standard authenticator interface.
@@ -30,6 +38,32 @@ public interface Authenticator<T extends AuthenticationRecord> {
      */
     void performAuthentication(@NotNull AuthenticationCallback<T> callback);
 
+    /**
+     * Intended to re-authenticate the user using previously stored data.
+     * <p>
+     * The returned future completes exceptionally if authentication fails. Cancelling it stops the authentication.
+     *
+     * @param record The record to use for authentication.
+     *               Depending on the implementation, this may be ignored/partially used.
+     * @return A future completed with the authentication result.
+     * @since 1.2.0
+     */
+    default @NotNull CompletableFuture<AuthenticationResult<T>> performAuthenticationAsync(@NotNull T record) {
+        return this.adaptCallback(callback -> this.performAuthentication(record, callback));
+    }
+
+    /**
+     * Perform the initial authentication of the user.
+     * <p>
+     * The returned future completes exceptionally if authentication fails. Cancelling it stops the authentication.
+     *
+     * @return A future completed with the authentication result.
+     * @since 1.2.0
+     */
+    default @NotNull CompletableFuture<AuthenticationResult<T>> performAuthenticationAsync() {
+        return this.adaptCallback(this::performAuthentication);
+    }
+
     /**
      * Intended to re-authenticate the user using previously stored data.
      *
@@ -41,13 +75,24 @@ public interface Authenticator<T extends AuthenticationRecord> {
      */
     @SneakyThrows
     default @NotNull T performAuthentication(@NotNull T record) {
-        AtomicReference<T> ref = new AtomicReference<>(null);
-        performAuthentication(record, (record1, profile) -> ref.set(record1));
-        while (ref.get() == null) {
-            //noinspection BusyWait
-            Thread.sleep(100L);
-        }
-        return ref.get();
+        return await(this.performAuthenticationAsync(record), null).record();
+    }
+
+    /**
+     * Intended to re-authenticate the user using previously stored data, giving up after the given timeout.
+     *
+     * @implNote This method is blocking and should not be called on the main thread.
+     *
+     * @param record The record to use for authentication.
+     *               Depending on the implementation, this may be ignored/partially used.
+     * @param timeout The maximum time to wait for.
+     * @return The authentication record.
+     * @throws TimeoutException If the timeout elapses, in which case the authentication is stopped.
+     * @throws InterruptedException If the current thread is interrupted whilst waiting, in which case the authentication is stopped.
+     * @since 1.2.0
+     */
+    default @NotNull T performAuthentication(@NotNull T record, @NotNull Duration timeout) throws TimeoutException, InterruptedException {
+        return await(this.performAuthenticationAsync(record), timeout).record();
     }
 
     /**
@@ -59,13 +104,22 @@ public interface Authenticator<T extends AuthenticationRecord> {
      */
     @SneakyThrows
     default @NotNull T performAuthentication() {
-        AtomicReference<T> ref = new AtomicReference<>(null);
-        performAuthentication((record, profile) -> ref.set(record));
-        while (ref.get() == null) {
-            //noinspection BusyWait
-            Thread.sleep(100L);
-        }
-        return ref.get();
+        return await(this.performAuthenticationAsync(), null).record();
+    }
+
+    /**
+     * Perform the initial authentication of the user, giving up after the given timeout.
+     *
+     * @implNote This method is blocking and should not be called on the main thread.
+     *
+     * @param timeout The maximum time to wait for.
+     * @return The authentication record.
+     * @throws TimeoutException If the timeout elapses, in which case the authentication is stopped.
+     * @throws InterruptedException If the current thread is interrupted whilst waiting, in which case the authentication is stopped.
+     * @since 1.2.0
+     */
+    default @NotNull T performAuthentication(@NotNull Duration timeout) throws TimeoutException, InterruptedException {
+        return await(this.performAuthenticationAsync(), timeout).record();
     }
 
     /**
@@ -79,4 +133,64 @@ public interface Authenticator<T extends AuthenticationRecord> {
      * @return Whether the authenticator is currently authenticating.
      */
     boolean isAuthenticating();
+
+    /**
+     * Adapts a callback-based operation into a future.
+     *
+     * @param operation The operation, supplied with the callback to complete.
+     * @return The future.
+     */
+    private @NotNull CompletableFuture<AuthenticationResult<T>> adaptCallback(@NotNull Consumer<AuthenticationCallback<T>> operation) {
+        CompletableFuture<AuthenticationResult<T>> future = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> {
+            if (throwable instanceof CancellationException && this.isAuthenticating()) {
+                this.stopAuthentication();
+            }
+        });
+
+        try {
+            operation.accept(new AuthenticationCallback<>() {
+                @Override
+                public void onAuthentication(@NotNull T record, @NotNull MinecraftProfile profile) {
+                    future.complete(new AuthenticationResult<>(record, profile));
+                }
+
+                @Override
+                public void onFailure(@NotNull Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+        return future;
+    }
+
+    /**
+     * Waits for a future to complete, rethrowing the cause of its failure.
+     * <p>
+     * The future is cancelled if the timeout elapses or the current thread is interrupted, and the interrupt is re-asserted before it is
+     * rethrown.
+     *
+     * @param future The future to wait for.
+     * @param timeout The maximum time to wait for, or {@code null} to wait indefinitely.
+     * @return The result of the future.
+     * @throws TimeoutException If the timeout elapses.
+     * @throws InterruptedException If the current thread is interrupted whilst waiting.
+     */
+    @SneakyThrows
+    private static <R> R await(@NotNull CompletableFuture<R> future, @Nullable Duration timeout) throws TimeoutException, InterruptedException {
+        try {
+            return timeout == null ? future.get() : future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package me.darragh.msauth;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
@@ -14,5 +15,16 @@ import java.util.UUID;
 public record SimpleAuthenticationRecord(@NotNull String username,
                                          @NotNull UUID uuid,
                                          @NotNull String accessToken,
-                                         @Nullable String refreshToken) implements AuthenticationRecord {
+                                         @Nullable String refreshToken,
+                                         @Nullable Instant issuedAt,
+                                         @Nullable Instant expiresAt) implements AuthenticationRecord {
+    /**
+     * Creates a record with an unknown expiry.
+     */
+    public SimpleAuthenticationRecord(@NotNull String username,
+                                      @NotNull UUID uuid,
+                                      @NotNull String accessToken,
+                                      @Nullable String refreshToken) {
+        this(username, uuid, accessToken, refreshToken, null, null);
+    }
 }
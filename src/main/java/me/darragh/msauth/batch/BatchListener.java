@@ -0,0 +1,33 @@
+package me.darragh.msauth.batch;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the outcome of each record refreshed by a {@link BatchRefresher}, as soon as it completes.
+ *
+ * @apiNote Implementations must be thread-safe, as outcomes are delivered from the threads completing the refreshes.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ */
+public interface BatchListener<T extends AuthenticationRecord> {
+    /**
+     * Called when a record has been refreshed.
+     *
+     * @param record The original record.
+     * @param result The refreshed authentication result.
+     */
+    void onSuccess(@NotNull T record, @NotNull AuthenticationResult<T> result);
+
+    /**
+     * Called when a record could not be refreshed.
+     *
+     * @param record The original record.
+     * @param throwable The cause of the failure.
+     */
+    void onFailure(@NotNull T record, @NotNull Throwable throwable);
+}
@@ -0,0 +1,87 @@
+package me.darragh.msauth.batch;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.Authenticator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Refreshes large numbers of records concurrently, with bounded parallelism.
+ * <p>
+ * Records are pulled lazily from their source as refreshes complete, so at most {@code parallelism} records are held at any time,
+ * regardless of the size of the source (see {@link BoundedDrain}). Outcomes are streamed to a {@link BatchListener} as they complete.
+ * <p>
+ * Per-host rate limits are applied by the transport used by the authenticator, see {@link me.darragh.msauth.http.HttpTransport.Builder#rateLimit(String, double)}.
+ *
+ * @apiNote This class is thread-safe. The authenticator must support concurrent refreshes, such as {@link me.darragh.msauth.oauth2.OAuthAuthenticator}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ */
+public class BatchRefresher<T extends AuthenticationRecord> {
+    private final @NotNull Authenticator<T> authenticator;
+    private final int parallelism;
+
+    /**
+     * Creates a batch refresher.
+     *
+     * @param authenticator The authenticator used to refresh records.
+     * @param parallelism The maximum number of refreshes in flight at once.
+     */
+    public BatchRefresher(@NotNull Authenticator<T> authenticator, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.authenticator = authenticator;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Refreshes every record in the collection.
+     *
+     * @param records The records to refresh.
+     * @param listener The listener receiving the outcome of each refresh.
+     * @return A future completed with the summary once every record has been processed. Cancelling it stops further records from being started.
+     */
+    public @NotNull CompletableFuture<BatchSummary> refresh(@NotNull Collection<? extends T> records, @NotNull BatchListener<T> listener) {
+        return this.refresh(records.iterator(), listener);
+    }
+
+    /**
+     * Refreshes every record in the stream, consuming it lazily.
+     *
+     * @param records The records to refresh. The stream is closed once every record has been processed.
+     * @param listener The listener receiving the outcome of each refresh.
+     * @return A future completed with the summary once every record has been processed. Cancelling it stops further records from being started.
+     */
+    public @NotNull CompletableFuture<BatchSummary> refresh(@NotNull Stream<? extends T> records, @NotNull BatchListener<T> listener) {
+        CompletableFuture<BatchSummary> future = this.refresh(records.iterator(), listener);
+        future.whenComplete((summary, throwable) -> records.close());
+        return future;
+    }
+
+    /**
+     * Refreshes every record returned by the iterator, consuming it lazily.
+     *
+     * @param records The records to refresh.
+     * @param listener The listener receiving the outcome of each refresh.
+     * @return A future completed with the summary once every record has been processed. Cancelling it stops further records from being started.
+     */
+    public @NotNull CompletableFuture<BatchSummary> refresh(@NotNull Iterator<? extends T> records, @NotNull BatchListener<T> listener) {
+        return BoundedDrain.<T, AuthenticationResult<T>>drain(records, this.parallelism, this.authenticator::performAuthenticationAsync,
+                (record, result, throwable, progress) -> {
+                    if (throwable != null) {
+                        listener.onFailure(record, throwable);
+                    } else {
+                        listener.onSuccess(record, result);
+                    }
+                });
+    }
+}
@@ -0,0 +1,21 @@
+package me.darragh.msauth.batch;
+
+/**
+ * A summary of a completed batch refresh.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param succeeded The number of records refreshed.
+ * @param failed The number of records which could not be refreshed.
+ */
+public record BatchSummary(long succeeded, long failed) {
+    /**
+     * The total number of records processed.
+     *
+     * @return The total number of records processed.
+     */
+    public long total() {
+        return this.succeeded + this.failed;
+    }
+}
@@ -0,0 +1,145 @@
+package me.darragh.msauth.batch;
+
+import me.darragh.msauth.util.FutureUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs an asynchronous task for every item of a source, with bounded parallelism.
+ * <p>
+ * Items are pulled lazily from the source as tasks complete, so at most {@code parallelism} items are held at any time, regardless of the
+ * size of the source. The source is only ever accessed by the thread currently draining it.
+ *
+ * @apiNote This class backs {@link BatchRefresher} and {@link me.darragh.msauth.cookie.CookieImporter}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <I> The type of the items.
+ * @param <R> The type of the results of the task.
+ */
+public final class BoundedDrain<I, R> {
+    private static final Logger LOGGER = Logger.getLogger(BoundedDrain.class.getName());
+
+    private final @NotNull Iterator<? extends I> source;
+    private final int parallelism;
+    private final @NotNull Function<? super I, ? extends CompletableFuture<? extends R>> task;
+    private final @NotNull OutcomeHandler<? super I, ? super R> handler;
+    private final CompletableFuture<BatchSummary> future = new CompletableFuture<>();
+
+    private final AtomicInteger work = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private BoundedDrain(@NotNull Iterator<? extends I> source, int parallelism, @NotNull Function<? super I, ? extends CompletableFuture<? extends R>> task,
+                         @NotNull OutcomeHandler<? super I, ? super R> handler) {
+        this.source = source;
+        this.parallelism = parallelism;
+        this.task = task;
+        this.handler = handler;
+    }
+
+    /**
+     * Runs the task for every item returned by the iterator, consuming it lazily.
+     *
+     * @param source The items.
+     * @param parallelism The maximum number of tasks in flight at once.
+     * @param task The task, started once per item.
+     * @param handler The handler receiving the outcome of each task.
+     * @return A future completed with the summary once every item has been processed. Cancelling it stops further items from being started.
+     * @param <I> The type of the items.
+     * @param <R> The type of the results of the task.
+     */
+    public static <I, R> @NotNull CompletableFuture<BatchSummary> drain(@NotNull Iterator<? extends I> source, int parallelism,
+                                                                        @NotNull Function<? super I, ? extends CompletableFuture<? extends R>> task,
+                                                                        @NotNull OutcomeHandler<? super I, ? super R> handler) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        BoundedDrain<I, R> drain = new BoundedDrain<>(source, parallelism, task, handler);
+        drain.drain();
+        return drain.future;
+    }
+
+    /**
+     * Starts as many tasks as permitted, completing the future once the source is exhausted.
+     * <p>
+     * Re-entrant calls (i.e. from a task completing synchronously) are deferred to the draining thread, rather than recursing.
+     */
+    private void drain() {
+        if (this.work.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            try {
+                while (!this.future.isDone() && this.inFlight.get() < this.parallelism && this.source.hasNext()) {
+                    this.inFlight.incrementAndGet();
+                    this.start(this.source.next());
+                }
+                if (this.inFlight.get() == 0 && !this.source.hasNext()) {
+                    this.future.complete(this.progress());
+                }
+            } catch (RuntimeException e) { // the source itself failed
+                this.future.completeExceptionally(e);
+            }
+        } while (this.work.decrementAndGet() != 0);
+    }
+
+    private void start(I item) {
+        CompletableFuture<? extends R> task;
+        try {
+            task = this.task.apply(item);
+        } catch (RuntimeException e) { // i.e. an executor has been shut down
+            task = CompletableFuture.failedFuture(e);
+        }
+
+        task.whenComplete((result, throwable) -> {
+            try {
+                if (throwable != null) {
+                    this.failed.incrementAndGet();
+                } else {
+                    this.succeeded.incrementAndGet();
+                }
+                this.handler.onOutcome(item, result, throwable == null ? null : FutureUtil.unwrap(throwable), this.progress());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "An error occurred whilst notifying the listener.", e);
+            } finally {
+                this.inFlight.decrementAndGet();
+                this.drain();
+            }
+        });
+    }
+
+    private @NotNull BatchSummary progress() {
+        return new BatchSummary(this.succeeded.get(), this.failed.get());
+    }
+
+    /**
+     * Receives the outcome of each task, as soon as it completes.
+     *
+     * @param <I> The type of the items.
+     * @param <R> The type of the results of the task.
+     */
+    @FunctionalInterface
+    public interface OutcomeHandler<I, R> {
+        /**
+         * Called when the task for an item has completed.
+         *
+         * @param item The item.
+         * @param result The result, or {@code null} if the task failed.
+         * @param throwable The cause of the failure, or {@code null} if the task succeeded.
+         * @param progress The number of items which have succeeded and failed so far, including this one.
+         */
+        void onOutcome(I item, @Nullable R result, @Nullable Throwable throwable, @NotNull BatchSummary progress);
+    }
+}
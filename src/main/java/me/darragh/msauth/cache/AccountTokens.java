@@ -0,0 +1,75 @@
+package me.darragh.msauth.cache;
+
+import me.darragh.msauth.client.XboxToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The intermediate tokens of an account's login chain.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param microsoftAccessToken The Microsoft (MSA) access token, if any.
+ * @param microsoftExpiresAt The time at which the Microsoft access token expires, if any.
+ * @param xboxLiveToken The Xbox Live (XBL) user token, if any.
+ * @param xstsToken The XSTS token, if any.
+ */
+public record AccountTokens(@Nullable String microsoftAccessToken,
+                            @Nullable Instant microsoftExpiresAt,
+                            @Nullable XboxToken xboxLiveToken,
+                            @Nullable XboxToken xstsToken) {
+    public static final AccountTokens EMPTY = new AccountTokens(null, null, null, null);
+
+    /**
+     * Creates the tokens of a freshly issued Microsoft access token.
+     *
+     * @param microsoftAccessToken The Microsoft access token.
+     * @param expiresIn The number of seconds until the access token expires.
+     * @return The tokens.
+     */
+    public static @NotNull AccountTokens ofMicrosoft(@NotNull String microsoftAccessToken, long expiresIn) {
+        return new AccountTokens(microsoftAccessToken, Instant.now().plusSeconds(expiresIn), null, null);
+    }
+
+    public @NotNull AccountTokens withXboxLiveToken(@NotNull XboxToken xboxLiveToken) {
+        return new AccountTokens(this.microsoftAccessToken, this.microsoftExpiresAt, xboxLiveToken, null);
+    }
+
+    public @NotNull AccountTokens withXstsToken(@NotNull XboxToken xstsToken) {
+        return new AccountTokens(this.microsoftAccessToken, this.microsoftExpiresAt, this.xboxLiveToken, xstsToken);
+    }
+
+    /**
+     * Returns whether the Microsoft access token remains valid beyond the given window.
+     *
+     * @param window The safety window before the actual expiry.
+     * @return Whether the Microsoft access token is valid.
+     */
+    public boolean hasValidMicrosoftAccessToken(@NotNull Duration window) {
+        return this.microsoftAccessToken != null && this.microsoftExpiresAt != null && Instant.now().plus(window).isBefore(this.microsoftExpiresAt);
+    }
+
+    /**
+     * Returns whether the Xbox Live token remains valid beyond the given window.
+     *
+     * @param window The safety window before the actual expiry.
+     * @return Whether the Xbox Live token is valid.
+     */
+    public boolean hasValidXboxLiveToken(@NotNull Duration window) {
+        return this.xboxLiveToken != null && this.xboxLiveToken.isValid(window);
+    }
+
+    /**
+     * Returns whether the XSTS token remains valid beyond the given window.
+     *
+     * @param window The safety window before the actual expiry.
+     * @return Whether the XSTS token is valid.
+     */
+    public boolean hasValidXstsToken(@NotNull Duration window) {
+        return this.xstsToken != null && this.xstsToken.isValid(window);
+    }
+}
@@ -0,0 +1,139 @@
+package me.darragh.msauth.cache;
+
+import me.darragh.msauth.AuthenticationCallback;
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.Authenticator;
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import me.darragh.msauth.util.FutureUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link Authenticator} decorator which skips re-authentication whilst the Minecraft access token is still valid.
+ * <p>
+ * The latest result of each account is cached by UUID. A re-authentication returns the cached record and profile immediately,
+ * unless its access token expires within the safety window, in which case the delegate is used.
+ *
+ * @apiNote This class is thread-safe, provided the delegate is.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ */
+public class CachingAuthenticator<T extends AuthenticationRecord> implements Authenticator<T> {
+    private final @NotNull Authenticator<T> delegate;
+    private final @NotNull Duration safetyWindow;
+    private final Map<UUID, AuthenticationResult<T>> results = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a caching authenticator.
+     *
+     * @param delegate The authenticator used when no valid result is cached.
+     * @param safetyWindow The window before expiry in which tokens are refreshed, rather than returned from the cache.
+     */
+    public CachingAuthenticator(@NotNull Authenticator<T> delegate, @NotNull Duration safetyWindow) {
+        this.delegate = delegate;
+        this.safetyWindow = safetyWindow;
+    }
+
+    @Override
+    public void performAuthentication(@NotNull T record, @NotNull AuthenticationCallback<T> callback) {
+        this.performAuthenticationAsync(record).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                callback.onFailure(FutureUtil.unwrap(throwable));
+            } else {
+                callback.onAuthentication(result.record(), result.profile());
+            }
+        });
+    }
+
+    @Override
+    public void performAuthentication(@NotNull AuthenticationCallback<T> callback) {
+        this.delegate.performAuthentication(new AuthenticationCallback<>() {
+            @Override
+            public void onAuthentication(@NotNull T record, @NotNull MinecraftProfile profile) {
+                CachingAuthenticator.this.results.put(record.uuid(), new AuthenticationResult<>(record, profile));
+                callback.onAuthentication(record, profile);
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                callback.onFailure(throwable);
+            }
+        });
+    }
+
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<T>> performAuthenticationAsync(@NotNull T record) {
+        AuthenticationResult<T> cached = this.getCached(record.uuid());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return this.delegate.performAuthenticationAsync(record).thenApply(this::cache);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<T>> performAuthenticationAsync() {
+        return this.delegate.performAuthenticationAsync().thenApply(this::cache);
+    }
+
+    @Override
+    public void stopAuthentication() {
+        this.delegate.stopAuthentication();
+    }
+
+    @Override
+    public boolean isAuthenticating() {
+        return this.delegate.isAuthenticating();
+    }
+
+    /**
+     * Returns the cached result of an account, if its access token is still valid.
+     *
+     * @param uuid The UUID of the account.
+     * @return The cached result, or {@code null} if there is no valid result.
+     */
+    public @Nullable AuthenticationResult<T> getCached(@NotNull UUID uuid) {
+        AuthenticationResult<T> cached = this.results.get(uuid);
+        if (cached == null || cached.record().isExpiring(this.safetyWindow)) {
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Removes the cached result of an account, forcing its next authentication to use the delegate.
+     *
+     * @param uuid The UUID of the account.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        this.results.remove(uuid);
+    }
+
+    /**
+     * Removes every cached result whose access token is expiring.
+     */
+    public void purgeExpiring() {
+        this.results.values().removeIf(result -> result.record().isExpiring(this.safetyWindow));
+    }
+
+    /**
+     * Removes every cached result.
+     */
+    public void clear() {
+        this.results.clear();
+    }
+
+    private @NotNull AuthenticationResult<T> cache(@NotNull AuthenticationResult<T> result) {
+        this.results.put(result.record().uuid(), result);
+        return result;
+    }
+}
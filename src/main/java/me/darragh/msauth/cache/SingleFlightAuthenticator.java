@@ -0,0 +1,90 @@
+package me.darragh.msauth.cache;
+
+import me.darragh.msauth.AuthenticationCallback;
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.Authenticator;
+import me.darragh.msauth.util.FutureUtil;
+import me.darragh.msauth.util.SingleFlight;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link Authenticator} decorator which deduplicates concurrent refreshes of the same account.
+ * <p>
+ * Refreshes are keyed by the account's UUID. Whilst a refresh is in flight, further refreshes of that account join it and receive its result,
+ * rather than racing it with the same refresh token - which Microsoft rotates, causing all but one to fail.
+ *
+ * @apiNote This class is thread-safe, provided the delegate is.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ */
+public class SingleFlightAuthenticator<T extends AuthenticationRecord> implements Authenticator<T> {
+    private final @NotNull Authenticator<T> delegate;
+    private final SingleFlight<UUID, AuthenticationResult<T>> refreshes = new SingleFlight<>();
+
+    /**
+     * Creates a single-flight authenticator.
+     *
+     * @param delegate The authenticator used to perform refreshes.
+     */
+    public SingleFlightAuthenticator(@NotNull Authenticator<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void performAuthentication(@NotNull T record, @NotNull AuthenticationCallback<T> callback) {
+        this.performAuthenticationAsync(record).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                callback.onFailure(FutureUtil.unwrap(throwable));
+            } else {
+                callback.onAuthentication(result.record(), result.profile());
+            }
+        });
+    }
+
+    @Override
+    public void performAuthentication(@NotNull AuthenticationCallback<T> callback) {
+        this.delegate.performAuthentication(callback);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Cancelling the returned future does not cancel a refresh which other callers have joined.
+     */
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<T>> performAuthenticationAsync(@NotNull T record) {
+        return this.refreshes.execute(record.uuid(), () -> this.delegate.performAuthenticationAsync(record));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<T>> performAuthenticationAsync() {
+        return this.delegate.performAuthenticationAsync();
+    }
+
+    @Override
+    public void stopAuthentication() {
+        this.delegate.stopAuthentication();
+    }
+
+    @Override
+    public boolean isAuthenticating() {
+        return this.delegate.isAuthenticating();
+    }
+
+    /**
+     * Returns whether a refresh of the account is in flight.
+     *
+     * @param uuid The UUID of the account.
+     * @return Whether a refresh is in flight.
+     */
+    public boolean isRefreshing(@NotNull UUID uuid) {
+        return this.refreshes.isInFlight(uuid);
+    }
+}
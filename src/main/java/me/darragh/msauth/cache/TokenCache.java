@@ -0,0 +1,98 @@
+package me.darragh.msauth.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A per-account cache of the intermediate tokens of the login chain, allowing a refresh to resume from the deepest still-valid stage.
+ * <p>
+ * Accounts are evicted in least-recently-used order once the maximum size is reached, and when none of their tokens remain valid.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class TokenCache {
+    private final @NotNull Duration safetyWindow;
+    private final Map<UUID, AccountTokens> tokens;
+
+    /**
+     * Creates a token cache.
+     *
+     * @param maximumSize The maximum number of accounts to cache.
+     * @param safetyWindow The window before expiry in which tokens are no longer considered valid.
+     */
+    public TokenCache(int maximumSize, @NotNull Duration safetyWindow) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        }
+        this.safetyWindow = safetyWindow;
+        this.tokens = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, AccountTokens> eldest) {
+                return this.size() > maximumSize;
+            }
+        });
+    }
+
+    /**
+     * The window before expiry in which tokens are no longer considered valid.
+     *
+     * @return The safety window.
+     */
+    public @NotNull Duration safetyWindow() {
+        return this.safetyWindow;
+    }
+
+    /**
+     * Returns the cached tokens of an account.
+     *
+     * @param uuid The UUID of the account.
+     * @return The cached tokens, or {@link AccountTokens#EMPTY} if none remain valid.
+     */
+    public @NotNull AccountTokens get(@NotNull UUID uuid) {
+        AccountTokens accountTokens = this.tokens.get(uuid);
+        if (accountTokens == null) {
+            return AccountTokens.EMPTY;
+        }
+        if (!accountTokens.hasValidMicrosoftAccessToken(this.safetyWindow)
+                && !accountTokens.hasValidXboxLiveToken(this.safetyWindow)
+                && !accountTokens.hasValidXstsToken(this.safetyWindow)) {
+            this.tokens.remove(uuid, accountTokens);
+            return AccountTokens.EMPTY;
+        }
+        return accountTokens;
+    }
+
+    /**
+     * Caches the tokens of an account.
+     *
+     * @param uuid The UUID of the account.
+     * @param accountTokens The tokens.
+     */
+    public void put(@NotNull UUID uuid, @NotNull AccountTokens accountTokens) {
+        this.tokens.put(uuid, accountTokens);
+    }
+
+    /**
+     * Removes the cached tokens of an account.
+     *
+     * @param uuid The UUID of the account.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        this.tokens.remove(uuid);
+    }
+
+    /**
+     * Removes every cached token.
+     */
+    public void clear() {
+        this.tokens.clear();
+    }
+}
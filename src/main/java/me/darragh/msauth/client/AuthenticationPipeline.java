@@ -0,0 +1,187 @@
+package me.darragh.msauth.client;
+
+import lombok.Getter;
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import me.darragh.msauth.util.FutureUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The shared tail of every login chain: exchanges an XSTS token for a Minecraft session and profile.
+ * <p>
+ * The asynchronous variant chains each stage with {@link CompletableFuture#thenCompose}, so no thread is parked whilst waiting for a response.
+ * The order in which independent stages are executed is determined by the {@link ExecutionPlan}.
+ *
+ * @apiNote This class is thread-safe, and may be shared between logins.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class AuthenticationPipeline {
+    @Getter
+    private final @NotNull HttpTransport transport;
+    @Getter
+    private final @NotNull ExecutionPlan executionPlan;
+    @Getter
+    private final @NotNull ServiceEndpoints endpoints;
+
+    private final @NotNull XboxClient xboxClient;
+    private final @NotNull MinecraftClient minecraftClient;
+
+    public AuthenticationPipeline(@NotNull HttpTransport transport) {
+        this(transport, ExecutionPlan.SEQUENTIAL);
+    }
+
+    public AuthenticationPipeline(@NotNull HttpTransport transport, @NotNull ExecutionPlan executionPlan) {
+        this(transport, executionPlan, ServiceEndpoints.DEFAULT);
+    }
+
+    /**
+     * Creates a pipeline which communicates with the given endpoints.
+     * <p>
+     * Authenticators using the pipeline also communicate with Microsoft through its endpoints.
+     *
+     * @param transport The HTTP transport.
+     * @param executionPlan The execution plan.
+     * @param endpoints The service endpoints.
+     */
+    public AuthenticationPipeline(@NotNull HttpTransport transport, @NotNull ExecutionPlan executionPlan, @NotNull ServiceEndpoints endpoints) {
+        this.transport = transport;
+        this.executionPlan = executionPlan;
+        this.endpoints = endpoints;
+        this.xboxClient = new XboxClient(transport, endpoints);
+        this.minecraftClient = new MinecraftClient(transport, endpoints);
+    }
+
+    /**
+     * Authenticates with Minecraft using the XSTS token.
+     *
+     * @param xstsToken The XSTS token, formatted for use in the Authorization header.
+     * @param refreshToken The refresh token to store in the record, if any.
+     * @return The authentication result.
+     */
+    public @NotNull AuthenticationResult<AuthenticationRecord> authenticate(@NotNull String xstsToken, @Nullable String refreshToken) {
+        return this.authenticate(xstsToken, refreshToken, null);
+    }
+
+    /**
+     * Authenticates with Minecraft using the XSTS token.
+     *
+     * @param xstsToken The XSTS token, formatted for use in the Authorization header.
+     * @param refreshToken The refresh token to store in the record, if any.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The authentication result.
+     */
+    public @NotNull AuthenticationResult<AuthenticationRecord> authenticate(@NotNull String xstsToken, @Nullable String refreshToken, @Nullable String account) {
+        MinecraftClient.MinecraftAuthentication minecraftAuthentication = switch (this.executionPlan) {
+            case SEQUENTIAL -> {
+                this.xboxClient.checkoutXboxProfile(xstsToken, account);
+                yield this.minecraftClient.authenticateMinecraft(xstsToken, account);
+            }
+            case PARALLEL -> {
+                try {
+                    yield this.authenticateMinecraftAsync(xstsToken, account).join();
+                } catch (CompletionException e) {
+                    Throwable cause = FutureUtil.unwrap(e);
+                    throw cause instanceof RuntimeException runtimeException ? runtimeException : e;
+                }
+            }
+            case FAST_PATH -> this.minecraftClient.authenticateMinecraft(xstsToken, account);
+        };
+        MinecraftProfile minecraftProfile = this.minecraftClient.fetchMinecraftProfile(this.minecraftClient.getMinecraftAuthToken(minecraftAuthentication), account);
+        return createResult(minecraftAuthentication, minecraftProfile, refreshToken);
+    }
+
+    /**
+     * Authenticates with Minecraft using the XSTS token asynchronously.
+     *
+     * @param xstsToken The XSTS token, formatted for use in the Authorization header.
+     * @param refreshToken The refresh token to store in the record, if any.
+     * @return A future completed with the authentication result.
+     */
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> authenticateAsync(@NotNull String xstsToken, @Nullable String refreshToken) {
+        return this.authenticateAsync(xstsToken, refreshToken, null);
+    }
+
+    /**
+     * Authenticates with Minecraft using the XSTS token asynchronously.
+     *
+     * @param xstsToken The XSTS token, formatted for use in the Authorization header.
+     * @param refreshToken The refresh token to store in the record, if any.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the authentication result.
+     */
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> authenticateAsync(@NotNull String xstsToken, @Nullable String refreshToken,
+                                                                                                   @Nullable String account) {
+        return this.authenticateMinecraftAsync(xstsToken, account)
+                .thenCompose(minecraftAuthentication -> this.minecraftClient.fetchMinecraftProfileAsync(this.minecraftClient.getMinecraftAuthToken(minecraftAuthentication), account)
+                        .thenApply(minecraftProfile -> createResult(minecraftAuthentication, minecraftProfile, refreshToken)));
+    }
+
+    /**
+     * Logs in to Minecraft, checking out the Xbox profile according to the execution plan.
+     *
+     * @param xstsToken The XSTS token, formatted for use in the Authorization header.
+     * @param account An identifier of the account shared by the login chain, or {@code null} if unknown.
+     * @return A future completed with the Minecraft authentication.
+     */
+    private @NotNull CompletableFuture<MinecraftClient.MinecraftAuthentication> authenticateMinecraftAsync(@NotNull String xstsToken, @Nullable String account) {
+        return switch (this.executionPlan) {
+            case SEQUENTIAL -> this.xboxClient.checkoutXboxProfileAsync(xstsToken, account)
+                    .thenCompose(ignored -> this.minecraftClient.authenticateMinecraftAsync(xstsToken, account));
+            case PARALLEL -> {
+                CompletableFuture<Void> probe = this.xboxClient.checkoutXboxProfileAsync(xstsToken, account);
+                CompletableFuture<MinecraftClient.MinecraftAuthentication> login = this.minecraftClient.authenticateMinecraftAsync(xstsToken, account);
+
+                CompletableFuture<MinecraftClient.MinecraftAuthentication> result = new CompletableFuture<>();
+
+                // The first failure wins, and cancels the other request as it is redundant
+                probe.whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(FutureUtil.unwrap(throwable));
+                        login.cancel(true);
+                    }
+                });
+                login.whenComplete((minecraftAuthentication, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(FutureUtil.unwrap(throwable));
+                        probe.cancel(true);
+                    } else {
+                        probe.thenRun(() -> result.complete(minecraftAuthentication));
+                    }
+                });
+                result.whenComplete((ignored, throwable) -> {
+                    if (result.isCancelled()) {
+                        probe.cancel(true);
+                        login.cancel(true);
+                    }
+                });
+                yield result;
+            }
+            case FAST_PATH -> this.minecraftClient.authenticateMinecraftAsync(xstsToken, account);
+        };
+    }
+
+    private static @NotNull AuthenticationResult<AuthenticationRecord> createResult(@NotNull MinecraftClient.MinecraftAuthentication minecraftAuthentication,
+                                                                                    @NotNull MinecraftProfile minecraftProfile,
+                                                                                    @Nullable String refreshToken) {
+        Instant issuedAt = Instant.now();
+        return new AuthenticationResult<>(new SimpleAuthenticationRecord(
+                minecraftProfile.username(),
+                minecraftProfile.getUUID(),
+                minecraftAuthentication.accessToken(),
+                refreshToken,
+                issuedAt,
+                issuedAt.plusSeconds(minecraftAuthentication.expiresIn())
+        ), minecraftProfile);
+    }
+}
@@ -0,0 +1,30 @@
+package me.darragh.msauth.client;
+
+/**
+ * Determines how the independent stages of the login chain are executed.
+ * <p>
+ * The Xbox profile checkout is only a validation probe, and depends solely on the XSTS token, as does the Minecraft login.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @see AuthenticationPipeline
+ */
+public enum ExecutionPlan {
+    /**
+     * Checks out the Xbox profile before logging in to Minecraft.
+     */
+    SEQUENTIAL,
+    /**
+     * Checks out the Xbox profile whilst logging in to Minecraft, removing a round trip from the critical path.
+     * <p>
+     * If either request fails, the other is cancelled.
+     */
+    PARALLEL,
+    /**
+     * Skips the Xbox profile checkout entirely.
+     * <p>
+     * An invalid XSTS token is still rejected by the Minecraft login.
+     */
+    FAST_PATH
+}
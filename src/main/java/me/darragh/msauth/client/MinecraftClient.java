@@ -1,16 +1,20 @@
 package me.darragh.msauth.client;
 
-import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
-import me.darragh.msauth.gson.GsonProvider;
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.gson.JsonBodies;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
 import me.darragh.msauth.minecraft.MinecraftProfile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles common communication with Minecraft's services.
@@ -19,20 +23,39 @@ import java.net.http.HttpResponse;
  *      - <a href="https://minecraft.wiki/w/Microsoft_authentication">...</a>
  *      - <a href="https://gist.github.com/johngagefaulkner/7af56c87e29c85641474d2eb43eee441">...</a>
  *
- * @apiNote This class is not thread-safe.
+ * @apiNote This class is thread-safe, and may be shared between logins.
  *
  * @author darraghd493
  * @since 1.1.0
  */
 public class MinecraftClient {
-    private static final Gson GSON = GsonProvider.get();
+    private static final String MINECRAFT_AUTH_PATH = "/authentication/login_with_xbox";
+    private static final String MINECRAFT_PROFILE_PATH = "/minecraft/profile";
 
-    private static final String MINECRAFT_AUTH_URL = "https://api.minecraftservices.com/authentication/login_with_xbox";
-    private static final String MINECRAFT_PROFILE_URL = "https://api.minecraftservices.com/minecraft/profile";
+    private final @NotNull HttpTransport transport;
+    private final @NotNull URI minecraftAuthUri;
+    private final @NotNull URI minecraftProfileUri;
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .followRedirects(HttpClient.Redirect.NEVER)
-            .build();
+    public MinecraftClient() {
+        this(HttpTransport.get());
+    }
+
+    public MinecraftClient(@NotNull HttpTransport transport) {
+        this(transport, ServiceEndpoints.DEFAULT);
+    }
+
+    /**
+     * Creates a client which communicates with the given endpoints.
+     *
+     * @param transport The HTTP transport.
+     * @param endpoints The service endpoints.
+     * @since 1.2.0
+     */
+    public MinecraftClient(@NotNull HttpTransport transport, @NotNull ServiceEndpoints endpoints) {
+        this.transport = transport;
+        this.minecraftAuthUri = ServiceEndpoints.resolve(endpoints.minecraftServices(), MINECRAFT_AUTH_PATH);
+        this.minecraftProfileUri = ServiceEndpoints.resolve(endpoints.minecraftServices(), MINECRAFT_PROFILE_PATH);
+    }
 
     /**
      * Authenticates with Minecraft.
@@ -41,26 +64,51 @@ public class MinecraftClient {
      * @return The Minecraft authentication token.
      */
     public MinecraftAuthentication authenticateMinecraft(@NotNull String xblAuthentication) {
-        MinecraftAuthenticationRequest req = new MinecraftAuthenticationRequest(xblAuthentication, true);
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(MINECRAFT_AUTH_URL))
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(req)))
-                .build();
+        return this.authenticateMinecraft(xblAuthentication, null);
+    }
 
+    /**
+     * Authenticates with Minecraft.
+     *
+     * @param xblAuthentication The Xbox Live authentication token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The Minecraft authentication token.
+     * @since 1.2.0
+     */
+    public MinecraftAuthentication authenticateMinecraft(@NotNull String xblAuthentication, @Nullable String account) {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to authenticate Minecraft: " + response.body());
-            }
-            return GSON.fromJson(response.body(), MinecraftAuthentication.class);
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.MINECRAFT_LOGIN, account, this.createMinecraftAuthenticationRequest(xblAuthentication),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseMinecraftAuthentication(response);
         } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to authenticate Minecraft", e);
+            throw new AuthenticationException(AuthStage.MINECRAFT_LOGIN, "Failed to authenticate Minecraft", e);
         }
     }
 
+    /**
+     * Authenticates with Minecraft asynchronously.
+     *
+     * @param xblAuthentication The Xbox Live authentication token.
+     * @return A future completed with the Minecraft authentication token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<MinecraftAuthentication> authenticateMinecraftAsync(@NotNull String xblAuthentication) {
+        return this.authenticateMinecraftAsync(xblAuthentication, null);
+    }
+
+    /**
+     * Authenticates with Minecraft asynchronously.
+     *
+     * @param xblAuthentication The Xbox Live authentication token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the Minecraft authentication token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<MinecraftAuthentication> authenticateMinecraftAsync(@NotNull String xblAuthentication, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.MINECRAFT_LOGIN, account, this.createMinecraftAuthenticationRequest(xblAuthentication),
+                HttpResponse.BodyHandlers.ofByteArray(), MinecraftClient::parseMinecraftAuthentication);
+    }
+
     /**
      * Formats the Minecraft authentication token for use in the Authorization header.
      *
@@ -78,30 +126,93 @@ public class MinecraftClient {
      * @return The Minecraft profile.
      */
     public @NotNull MinecraftProfile fetchMinecraftProfile(@NotNull String minecraftAuthentication) {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(MINECRAFT_PROFILE_URL))
+        return this.fetchMinecraftProfile(minecraftAuthentication, null);
+    }
+
+    /**
+     * Fetches the Minecraft profile.
+     *
+     * @param minecraftAuthentication The Minecraft authentication.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The Minecraft profile.
+     * @since 1.2.0
+     */
+    public @NotNull MinecraftProfile fetchMinecraftProfile(@NotNull String minecraftAuthentication, @Nullable String account) {
+        try {
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.MINECRAFT_PROFILE, account, this.createMinecraftProfileRequest(minecraftAuthentication),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseMinecraftProfile(response);
+        } catch (IOException | InterruptedException e) {
+            throw new AuthenticationException(AuthStage.MINECRAFT_PROFILE, "Failed to checkout Minecraft profile", e);
+        }
+    }
+
+    /**
+     * Fetches the Minecraft profile asynchronously.
+     *
+     * @param minecraftAuthentication The Minecraft authentication.
+     * @return A future completed with the Minecraft profile.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<MinecraftProfile> fetchMinecraftProfileAsync(@NotNull String minecraftAuthentication) {
+        return this.fetchMinecraftProfileAsync(minecraftAuthentication, null);
+    }
+
+    /**
+     * Fetches the Minecraft profile asynchronously.
+     *
+     * @param minecraftAuthentication The Minecraft authentication.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the Minecraft profile.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<MinecraftProfile> fetchMinecraftProfileAsync(@NotNull String minecraftAuthentication, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.MINECRAFT_PROFILE, account, this.createMinecraftProfileRequest(minecraftAuthentication),
+                HttpResponse.BodyHandlers.ofByteArray(), MinecraftClient::parseMinecraftProfile);
+    }
+
+    //region Requests
+    private @NotNull HttpRequest createMinecraftAuthenticationRequest(@NotNull String xblAuthentication) {
+        String body = JsonBodies.write(writer -> writer.beginObject()
+                .name("identityToken").value(xblAuthentication)
+                .name("ensureLegacyEnabled").value(true)
+                .endObject());
+
+        return HttpRequest.newBuilder()
+                .uri(this.minecraftAuthUri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private @NotNull HttpRequest createMinecraftProfileRequest(@NotNull String minecraftAuthentication) {
+        return HttpRequest.newBuilder()
+                .uri(this.minecraftProfileUri)
                 .header("Authorization", minecraftAuthentication)
                 .header("Accept", "application/json")
                 .GET()
                 .build();
+    }
+    //endregion
 
-        try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to checkout Minecraft profile: " + response.body());
-            }
-            return GSON.fromJson(response.body(), MinecraftProfile.class);
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to checkout Minecraft profile", e);
+    //region Responses
+    private static @NotNull MinecraftAuthentication parseMinecraftAuthentication(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.MINECRAFT_LOGIN, response, "Failed to authenticate Minecraft: " + JsonBodies.asString(response));
         }
+        return JsonBodies.decode(response, MinecraftAuthentication.class);
     }
 
-    //region Records
-    private record MinecraftAuthenticationRequest(@SerializedName("identityToken") String identityToken,
-                                                  @SerializedName("ensureLegacyEnabled") Boolean ensureLegacyEnabled) {
-
+    private static @NotNull MinecraftProfile parseMinecraftProfile(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.MINECRAFT_PROFILE, response, "Failed to checkout Minecraft profile: " + JsonBodies.asString(response));
+        }
+        return JsonBodies.decode(response, MinecraftProfile.class);
     }
+    //endregion
 
+    //region Records
     public record MinecraftAuthentication(@SerializedName("username") String uuid,
                                           @SerializedName("access_token") String accessToken,
                                           // ignored role
@@ -1,12 +1,17 @@
 package me.darragh.msauth.client;
 
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles common communication with Xbox's services.
@@ -15,39 +20,106 @@ import java.net.http.HttpResponse;
  *      - <a href="https://minecraft.wiki/w/Microsoft_authentication">...</a>
  *      - <a href="https://gist.github.com/johngagefaulkner/7af56c87e29c85641474d2eb43eee441">...</a>
  *
- * @apiNote This class is not thread-safe.
+ * @apiNote This class is thread-safe, and may be shared between logins.
  *
  * @author darraghd493
  * @since 1.1.0
  */
 public class XboxClient {
-    private static final String PROFILE_XBOX_URL = "https://profile.xboxlive.com/users/me/profile/settings?settings=GameDisplayName,AppDisplayName,AppDisplayPicRaw,GameDisplayPicRaw,"
+    private static final String PROFILE_XBOX_PATH = "/users/me/profile/settings?settings=GameDisplayName,AppDisplayName,AppDisplayPicRaw,GameDisplayPicRaw,"
             + "PublicGamerpic,ShowUserAsAvatar,Gamerscore,Gamertag,ModernGamertag,ModernGamertagSuffix,UniqueModernGamertag,AccountTier,TenureLevel,XboxOneRep,"
             + "PreferredColor,Location,Bio,Watermarks,RealName,RealNameOverride,IsQuarantined";
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .followRedirects(HttpClient.Redirect.NEVER)
-            .build();
+    private final @NotNull HttpTransport transport;
+    private final @NotNull URI profileXboxUri;
+
+    public XboxClient() {
+        this(HttpTransport.get());
+    }
+
+    public XboxClient(@NotNull HttpTransport transport) {
+        this(transport, ServiceEndpoints.DEFAULT);
+    }
+
+    /**
+     * Creates a client which communicates with the given endpoints.
+     *
+     * @param transport The HTTP transport.
+     * @param endpoints The service endpoints.
+     * @since 1.2.0
+     */
+    public XboxClient(@NotNull HttpTransport transport, @NotNull ServiceEndpoints endpoints) {
+        this.transport = transport;
+        this.profileXboxUri = ServiceEndpoints.resolve(endpoints.xboxProfile(), PROFILE_XBOX_PATH);
+    }
 
     /**
      * Checks out the Xbox profile.
      *
-     * @apiNote This is used to validate the Xbox Live authorisation token. It will throw a {@link RuntimeException} if the token is invalid.
+     * @apiNote This is used to validate the Xbox Live authorisation token. It will throw an {@link AuthenticationException} if the token is invalid.
      * @param xblAuthorisation The Xbox Live authorisation token.
      */
     public void checkoutXboxProfile(@NotNull String xblAuthorisation) {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(PROFILE_XBOX_URL))
+        this.checkoutXboxProfile(xblAuthorisation, null);
+    }
+
+    /**
+     * Checks out the Xbox profile.
+     *
+     * @apiNote This is used to validate the Xbox Live authorisation token. It will throw an {@link AuthenticationException} if the token is invalid.
+     * @param xblAuthorisation The Xbox Live authorisation token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @since 1.2.0
+     */
+    public void checkoutXboxProfile(@NotNull String xblAuthorisation, @Nullable String account) {
+        try {
+            validateXboxProfile(this.transport.send(AuthStage.XBOX_PROFILE, account, this.createXboxProfileRequest(xblAuthorisation),
+                    HttpResponse.BodyHandlers.discarding()));
+        } catch (IOException | InterruptedException e) {
+            throw new AuthenticationException(AuthStage.XBOX_PROFILE, "Failed to checkout Xbox profile", e);
+        }
+    }
+
+    /**
+     * Checks out the Xbox profile asynchronously.
+     *
+     * @apiNote This is used to validate the Xbox Live authorisation token. The future completes exceptionally if the token is invalid.
+     * @param xblAuthorisation The Xbox Live authorisation token.
+     * @return A future completed once the profile has been checked out.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<Void> checkoutXboxProfileAsync(@NotNull String xblAuthorisation) {
+        return this.checkoutXboxProfileAsync(xblAuthorisation, null);
+    }
+
+    /**
+     * Checks out the Xbox profile asynchronously.
+     *
+     * @apiNote This is used to validate the Xbox Live authorisation token. The future completes exceptionally if the token is invalid.
+     * @param xblAuthorisation The Xbox Live authorisation token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed once the profile has been checked out.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<Void> checkoutXboxProfileAsync(@NotNull String xblAuthorisation, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.XBOX_PROFILE, account, this.createXboxProfileRequest(xblAuthorisation),
+                HttpResponse.BodyHandlers.discarding(), XboxClient::validateXboxProfile);
+    }
+
+    private @NotNull HttpRequest createXboxProfileRequest(@NotNull String xblAuthorisation) {
+        return HttpRequest.newBuilder()
+                .uri(this.profileXboxUri)
                 .header("Authorization", xblAuthorisation)
                 .header("Accept", "application/json")
                 .header("x-xbl-contract-version", "3")
                 .GET()
                 .build();
+    }
 
-        try {
-            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to checkout Xbox profile", e);
+    private static Void validateXboxProfile(@NotNull HttpResponse<Void> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.XBOX_PROFILE, response, "Failed to checkout Xbox profile: " + response.statusCode());
         }
+        return null;
     }
 }
@@ -0,0 +1,37 @@
+package me.darragh.msauth.client;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * An Xbox Live (XBL) or Xbox Secure Token Service (XSTS) token.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param token The token.
+ * @param userHash The user hash (uhs) the token was issued for.
+ * @param notAfter The time at which the token expires.
+ */
+public record XboxToken(@NotNull String token, @NotNull String userHash, @NotNull Instant notAfter) {
+    /**
+     * Formats the token for use in the Authorization header.
+     *
+     * @return The formatted token.
+     */
+    public @NotNull String toAuthorizationHeader() {
+        return "XBL3.0 x=" + this.userHash + ";" + this.token;
+    }
+
+    /**
+     * Returns whether the token remains valid beyond the given window.
+     *
+     * @param window The safety window before the actual expiry.
+     * @return Whether the token is valid.
+     */
+    public boolean isValid(@NotNull Duration window) {
+        return Instant.now().plus(window).isBefore(this.notAfter);
+    }
+}
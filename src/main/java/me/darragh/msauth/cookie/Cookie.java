@@ -0,0 +1,48 @@
+package me.darragh.msauth.cookie;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A cookie, as stored in a Netscape cookie file.
+ *
+ * @param domain The domain of the cookie, in lower case and without a leading dot.
+ * @param includeSubdomains Whether the cookie is also sent to subdomains of its domain.
+ * @param path The path prefix of the cookie.
+ * @param secure Whether the cookie is only sent over HTTPS.
+ * @param expiresAt The epoch second at which the cookie expires, or {@code 0} for a session cookie.
+ * @param name The name of the cookie.
+ * @param value The value of the cookie.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public record Cookie(@NotNull String domain, boolean includeSubdomains, @NotNull String path, boolean secure, long expiresAt,
+                     @NotNull String name, @NotNull String value) {
+    /**
+     * Checks if the cookie has expired.
+     *
+     * @param epochSecond The current epoch second.
+     * @return True if the cookie has expired, false otherwise. Session cookies never expire.
+     */
+    public boolean isExpired(long epochSecond) {
+        return this.expiresAt != 0 && this.expiresAt <= epochSecond;
+    }
+
+    /**
+     * Checks if the cookie should be sent with a request.
+     *
+     * @param host The host of the request, in lower case.
+     * @param path The path of the request.
+     * @param secure Whether the request is made over HTTPS.
+     * @return True if the cookie matches the request, false otherwise.
+     */
+    public boolean matches(@NotNull String host, @NotNull String path, boolean secure) {
+        if (this.secure && !secure) {
+            return false;
+        }
+        if (!host.equals(this.domain) && !(this.includeSubdomains && host.endsWith(this.domain) && host.charAt(host.length() - this.domain.length() - 1) == '.')) {
+            return false;
+        }
+        return path.startsWith(this.path);
+    }
+}
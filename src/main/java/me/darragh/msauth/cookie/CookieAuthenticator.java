@@ -1,28 +1,90 @@
 package me.darragh.msauth.cookie;
 
-import lombok.RequiredArgsConstructor;
+import me.darragh.msauth.AuthStage;
 import me.darragh.msauth.AuthenticationCallback;
 import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
 import me.darragh.msauth.Authenticator;
-import me.darragh.msauth.SimpleAuthenticationRecord;
-import me.darragh.msauth.client.MinecraftClient;
-import me.darragh.msauth.client.XboxClient;
-import me.darragh.msauth.minecraft.MinecraftProfile;
-import me.darragh.msauth.util.CookieUtil;
+import me.darragh.msauth.client.AuthenticationPipeline;
+import me.darragh.msauth.client.XboxToken;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.util.FutureUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An authenticator for cookies, emulating web-based authentication using Minecraft's official login flow.
  * <p>
- * Please note that this will not provide a refresh token, only an access token.
+ * Please note that this will not provide a refresh token, only an access token. The XSTS token derived from the cookies is
+ * reused by later logins until it expires, so the login redirects are only followed again once it does.
  *
  * @author darraghd493
  * @since 1.1.0
  */
-@RequiredArgsConstructor
 public class CookieAuthenticator implements Authenticator<AuthenticationRecord> {
-    private final @NotNull String cookies;
-    private boolean authenticating = false;
+    private static final Duration XSTS_SAFETY_WINDOW = Duration.ofMinutes(5);
+
+    private final @NotNull CookieJar cookieJar;
+    private final @Nullable String account;
+    private final @NotNull CookieMicrosoftClient microsoftClient;
+    private final @NotNull AuthenticationPipeline pipeline;
+
+    private volatile @Nullable CompletableFuture<AuthenticationResult<AuthenticationRecord>> pending;
+    private volatile @Nullable XboxToken xstsToken;
+
+    public CookieAuthenticator(@NotNull String cookies) {
+        this(cookies, HttpTransport.get());
+    }
+
+    /**
+     * Creates an authenticator which communicates through the given transport.
+     *
+     * @param cookies The contents of the cookie file.
+     * @param transport The HTTP transport.
+     */
+    public CookieAuthenticator(@NotNull String cookies, @NotNull HttpTransport transport) {
+        this(cookies, new AuthenticationPipeline(transport));
+    }
+
+    /**
+     * Creates an authenticator which completes logins using the given pipeline.
+     *
+     * @param cookies The contents of the cookie file.
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     */
+    public CookieAuthenticator(@NotNull String cookies, @NotNull AuthenticationPipeline pipeline) {
+        this(CookieParser.DEFAULT.parse(cookies), pipeline);
+    }
+
+    /**
+     * Creates an authenticator from parsed cookies, which completes logins using the given pipeline.
+     *
+     * @param cookieJar The cookies, i.e. from {@link CookieParser#parse(java.nio.file.Path)}.
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     * @since 1.2.0
+     */
+    public CookieAuthenticator(@NotNull CookieJar cookieJar, @NotNull AuthenticationPipeline pipeline) {
+        this(cookieJar, pipeline, null);
+    }
+
+    /**
+     * Creates an authenticator from parsed cookies, which completes logins using the given pipeline and reports them against the given account.
+     *
+     * @param cookieJar The cookies, i.e. from {@link CookieParser#parse(java.nio.file.Path)}.
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     * @param account A stable identifier of the account which is not itself a credential (i.e. the path of the cookie file), reported hashed,
+     *                or {@code null} if unknown.
+     * @since 1.2.0
+     */
+    public CookieAuthenticator(@NotNull CookieJar cookieJar, @NotNull AuthenticationPipeline pipeline, @Nullable String account) {
+        this.cookieJar = cookieJar;
+        this.account = account;
+        this.microsoftClient = new CookieMicrosoftClient(pipeline.getTransport(), pipeline.getEndpoints());
+        this.pipeline = pipeline;
+    }
 
     @Override
     public void performAuthentication(AuthenticationRecord record, @NotNull AuthenticationCallback<AuthenticationRecord> callback) {
@@ -31,38 +93,41 @@ public class CookieAuthenticator implements Authenticator<AuthenticationRecord>
 
     @Override
     public void performAuthentication(@NotNull AuthenticationCallback<AuthenticationRecord> callback) {
-        String httpUsableCookies = CookieUtil.reformatCookies(this.cookies); // usable in HTTP requests
-        this.authenticating = true;
-
-        CookieMicrosoftClient microsoftClient = new CookieMicrosoftClient();
-        XboxClient xboxClient = new XboxClient();
-        MinecraftClient minecraftClient = new MinecraftClient();
+        XboxToken cachedXstsToken = this.xstsToken;
+        CompletableFuture<XboxToken> xstsToken;
+        if (cachedXstsToken != null && cachedXstsToken.isValid(XSTS_SAFETY_WINDOW)) {
+            this.pipeline.getTransport().metrics().onCacheHit(AuthStage.XSTS);
+            xstsToken = CompletableFuture.completedFuture(cachedXstsToken);
+        } else {
+            this.pipeline.getTransport().metrics().onCacheMiss(AuthStage.XSTS);
+            xstsToken = this.microsoftClient.authenticateXSTSTokenAsync(this.cookieJar, this.account).thenApply(token -> this.xstsToken = token);
+        }
 
-        String xblAuthenticationToken = microsoftClient.authenticateXSTS(httpUsableCookies);
-        xboxClient.checkoutXboxProfile(xblAuthenticationToken);
-        MinecraftClient.MinecraftAuthentication minecraftAuthentication = minecraftClient.authenticateMinecraft(xblAuthenticationToken);
-        String minecraftToken = minecraftClient.getMinecraftAuthToken(minecraftAuthentication);
-        MinecraftProfile minecraftProfile = minecraftClient.fetchMinecraftProfile(minecraftToken);
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> future = xstsToken
+                .thenCompose(token -> this.pipeline.authenticateAsync(token.toAuthorizationHeader(), "", this.account));
+        this.pending = future;
 
         // Supply callback with authentication record
-        callback.onAuthentication(new SimpleAuthenticationRecord(
-                minecraftProfile.username(),
-                minecraftProfile.getUUID(),
-                minecraftAuthentication.accessToken(),
-                ""
-        ), minecraftProfile);
-
-        this.authenticating = false;
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                callback.onFailure(FutureUtil.unwrap(throwable));
+            } else {
+                callback.onAuthentication(result.record(), result.profile());
+            }
+        });
     }
 
     @Override
     public void stopAuthentication() {
-        // no-op
-        // this performs the login/non-async
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> pending = this.pending;
+        if (pending != null) {
+            pending.cancel(true);
+        }
     }
 
     @Override
     public boolean isAuthenticating() {
-        return this.authenticating;
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> pending = this.pending;
+        return pending != null && !pending.isDone();
     }
 }
@@ -0,0 +1,42 @@
+package me.darragh.msauth.cookie;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.batch.BatchSummary;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+
+/**
+ * Receives the outcome of each cookie file imported by a {@link CookieImporter}, as soon as it completes.
+ *
+ * @apiNote Implementations must be thread-safe, as outcomes are delivered from the threads completing the logins.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public interface CookieImportListener {
+    /**
+     * Called when a cookie file has been logged in with.
+     *
+     * @param file The cookie file.
+     * @param result The authentication result.
+     */
+    void onSuccess(@NotNull Path file, @NotNull AuthenticationResult<AuthenticationRecord> result);
+
+    /**
+     * Called when a cookie file could not be read, or logged in with.
+     *
+     * @param file The cookie file.
+     * @param throwable The cause of the failure.
+     */
+    void onFailure(@NotNull Path file, @NotNull Throwable throwable);
+
+    /**
+     * Called after each outcome, with the progress of the import so far.
+     *
+     * @param progress The number of files which have succeeded and failed.
+     */
+    default void onProgress(@NotNull BatchSummary progress) {
+    }
+}
@@ -0,0 +1,138 @@
+package me.darragh.msauth.cookie;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.batch.BatchSummary;
+import me.darragh.msauth.batch.BoundedDrain;
+import me.darragh.msauth.client.AuthenticationPipeline;
+import me.darragh.msauth.util.ExecutorProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Logs in with large numbers of cookie files concurrently, with bounded parallelism.
+ * <p>
+ * Files are pulled lazily from their source as logins complete, so at most {@code parallelism} files are held at any time.
+ * Each file is parsed on the importer's executor, after which its redirects and Minecraft login are performed asynchronously
+ * through the pipeline's transport, so throughput is bounded by connections rather than threads.
+ * <p>
+ * Per-host rate limits are applied by the transport, see {@link me.darragh.msauth.http.HttpTransport.Builder#rateLimit(String, double)}.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class CookieImporter implements AutoCloseable {
+    private final @NotNull AuthenticationPipeline pipeline;
+    private final @NotNull CookieMicrosoftClient microsoftClient;
+    private final @NotNull CookieParser parser;
+    private final int parallelism;
+    private final @NotNull ExecutorService executor;
+
+    /**
+     * Creates a cookie importer, keeping only the cookies used to log in.
+     *
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     * @param parallelism The maximum number of logins in flight at once.
+     */
+    public CookieImporter(@NotNull AuthenticationPipeline pipeline, int parallelism) {
+        this(pipeline, CookieParser.DEFAULT, parallelism, ExecutorProvider.virtualThreadPerTask());
+    }
+
+    /**
+     * Creates a cookie importer.
+     *
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     * @param parser The parser used to read cookie files.
+     * @param parallelism The maximum number of logins in flight at once.
+     * @param executorProvider The provider of the executor on which cookie files are read.
+     */
+    public CookieImporter(@NotNull AuthenticationPipeline pipeline, @NotNull CookieParser parser, int parallelism, @NotNull ExecutorProvider executorProvider) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.pipeline = pipeline;
+        this.microsoftClient = new CookieMicrosoftClient(pipeline.getTransport(), pipeline.getEndpoints());
+        this.parser = parser;
+        this.parallelism = parallelism;
+        this.executor = executorProvider.create("msauth-cookie-import");
+    }
+
+    /**
+     * Imports every regular file in the directory. Subdirectories are not searched.
+     *
+     * @param directory The directory of cookie files.
+     * @param listener The listener receiving the outcome of each file.
+     * @return A future completed with the summary once every file has been processed. Cancelling it stops further files from being started.
+     */
+    public @NotNull CompletableFuture<BatchSummary> importDirectory(@NotNull Path directory, @NotNull CookieImportListener listener) {
+        Stream<Path> files;
+        try {
+            files = Files.list(directory);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to list cookie files in " + directory, e));
+        }
+        return this.importFiles(files.filter(Files::isRegularFile), listener);
+    }
+
+    /**
+     * Imports every file in the stream, consuming it lazily.
+     *
+     * @param files The cookie files. The stream is closed once every file has been processed.
+     * @param listener The listener receiving the outcome of each file.
+     * @return A future completed with the summary once every file has been processed. Cancelling it stops further files from being started.
+     */
+    public @NotNull CompletableFuture<BatchSummary> importFiles(@NotNull Stream<Path> files, @NotNull CookieImportListener listener) {
+        CompletableFuture<BatchSummary> future = this.importFiles(files.iterator(), listener);
+        future.whenComplete((summary, throwable) -> files.close());
+        return future;
+    }
+
+    /**
+     * Imports every file returned by the iterator, consuming it lazily.
+     *
+     * @param files The cookie files.
+     * @param listener The listener receiving the outcome of each file.
+     * @return A future completed with the summary once every file has been processed. Cancelling it stops further files from being started.
+     */
+    public @NotNull CompletableFuture<BatchSummary> importFiles(@NotNull Iterator<Path> files, @NotNull CookieImportListener listener) {
+        return BoundedDrain.<Path, AuthenticationResult<AuthenticationRecord>>drain(files, this.parallelism, this::importFile,
+                (file, result, throwable, progress) -> {
+                    if (throwable != null) {
+                        listener.onFailure(file, throwable);
+                    } else {
+                        listener.onSuccess(file, result);
+                    }
+                    listener.onProgress(progress);
+                });
+    }
+
+    /**
+     * Logs in with a single cookie file asynchronously.
+     *
+     * @param file The cookie file.
+     * @return A future completed with the authentication result.
+     */
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> importFile(@NotNull Path file) {
+        String account = file.toAbsolutePath().toString(); // the file identifies the account in reports
+        return CompletableFuture.supplyAsync(() -> this.parser.parse(file), this.executor)
+                .thenCompose(cookieJar -> this.microsoftClient.authenticateXSTSTokenAsync(cookieJar, account))
+                .thenCompose(xstsToken -> this.pipeline.authenticateAsync(xstsToken.toAuthorizationHeader(), "", account));
+    }
+
+    /**
+     * Stops the executor on which cookie files are read. Imports in progress fail to start further files.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+}
@@ -0,0 +1,116 @@
+package me.darragh.msauth.cookie;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The cookies of a cookie file, indexed by domain, so that each request is sent only the cookies matching its host.
+ *
+ * @apiNote This class is immutable, and thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public final class CookieJar {
+    public static final CookieJar EMPTY = new CookieJar(Map.of(), 0);
+
+    private final @NotNull Map<String, List<Cookie>> cookiesByDomain;
+    private final int size;
+
+    CookieJar(@NotNull Map<String, List<Cookie>> cookiesByDomain, int size) {
+        this.cookiesByDomain = cookiesByDomain;
+        this.size = size;
+    }
+
+    /**
+     * Builds the Cookie header of a request, from every unexpired cookie matching its host, path and scheme.
+     *
+     * @param uri The URI of the request.
+     * @return The Cookie header, or {@code null} if no cookies match.
+     */
+    public @Nullable String headerFor(@NotNull URI uri) {
+        String host = uri.getHost();
+        if (host == null || this.cookiesByDomain.isEmpty()) {
+            return null;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        long now = Instant.now().getEpochSecond();
+
+        // Look up the host, then each of its parent domains
+        StringBuilder builder = null;
+        for (String domain = host; domain != null; domain = parentDomain(domain)) {
+            List<Cookie> cookies = this.cookiesByDomain.get(domain);
+            if (cookies == null) {
+                continue;
+            }
+            for (Cookie cookie : cookies) {
+                if (cookie.isExpired(now) || !cookie.matches(host, path, secure)) {
+                    continue;
+                }
+                if (builder == null) {
+                    builder = new StringBuilder();
+                } else {
+                    builder.append("; ");
+                }
+                builder.append(cookie.name()).append('=').append(cookie.value());
+            }
+        }
+        return builder == null ? null : builder.toString();
+    }
+
+    /**
+     * Returns the cookies of a domain, exactly as stored.
+     *
+     * @param domain The domain, without a leading dot.
+     * @return The cookies, or an empty list if there are none.
+     */
+    public @NotNull List<Cookie> getCookies(@NotNull String domain) {
+        return Collections.unmodifiableList(this.cookiesByDomain.getOrDefault(domain.toLowerCase(Locale.ROOT), List.of()));
+    }
+
+    /**
+     * The number of cookies in the jar.
+     *
+     * @return The number of cookies.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private static @Nullable String parentDomain(@NotNull String domain) {
+        int dot = domain.indexOf('.');
+        return dot == -1 ? null : domain.substring(dot + 1);
+    }
+
+    /**
+     * Accumulates cookies into a jar.
+     */
+    static final class Builder {
+        private final Map<String, List<Cookie>> cookiesByDomain = new HashMap<>();
+        private int size;
+
+        void add(@NotNull Cookie cookie) {
+            this.cookiesByDomain.computeIfAbsent(cookie.domain(), ignored -> new ArrayList<>(4)).add(cookie);
+            this.size++;
+        }
+
+        @NotNull CookieJar build() {
+            return this.size == 0 ? EMPTY : new CookieJar(this.cookiesByDomain, this.size);
+        }
+    }
+}
@@ -1,22 +1,24 @@
 package me.darragh.msauth.cookie;
 
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.client.XboxToken;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
 import me.darragh.msauth.util.QueryUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles communication with Microsoft's official authentication services.
  *
- * @apiNote This class is not thread-safe.
+ * @apiNote This class is thread-safe, and may be shared between logins.
  *
  * @author darraghd493
  * @since 1.1.0
@@ -27,13 +29,31 @@ public class CookieMicrosoftClient {
     // Although from my research it's just two redirects, and you get a URL with the access token
     // which is all that we need
     // Source: HTTP logger
-    private static final String XBL_AUTH_URL = "https://sisu.xboxlive.com/connect/XboxLive/?state=login&cobrandId=8058f65d-ce06-4c30-9559-473c9275a65d&tid=896928775&ru=https%3A%2F%2Fwww.minecraft.net%2Fen-us%2Flogin&aid=1142970254&as=1";
+    private static final String XBL_AUTH_PATH = "/connect/XboxLive/?state=login&cobrandId=8058f65d-ce06-4c30-9559-473c9275a65d&tid=896928775&ru=https%3A%2F%2Fwww.minecraft.net%2Fen-us%2Flogin&aid=1142970254&as=1";
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:146.0) Gecko/20100101 Firefox/146.0";
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(30))
-            .followRedirects(HttpClient.Redirect.NEVER)
-            .build();
+    private final @NotNull HttpTransport transport;
+    private final @NotNull String xblAuthUrl;
+
+    public CookieMicrosoftClient() {
+        this(HttpTransport.get());
+    }
+
+    public CookieMicrosoftClient(@NotNull HttpTransport transport) {
+        this(transport, ServiceEndpoints.DEFAULT);
+    }
+
+    /**
+     * Creates a client which starts logins at the given endpoints. The redirects are followed wherever they lead.
+     *
+     * @param transport The HTTP transport.
+     * @param endpoints The service endpoints.
+     * @since 1.2.0
+     */
+    public CookieMicrosoftClient(@NotNull HttpTransport transport, @NotNull ServiceEndpoints endpoints) {
+        this.transport = transport;
+        this.xblAuthUrl = ServiceEndpoints.resolve(endpoints.xboxSisu(), XBL_AUTH_PATH).toString();
+    }
 
     /**
      * Authenticates with Xbox Secure Token Service (XSTS).
@@ -43,30 +63,113 @@ public class CookieMicrosoftClient {
      * @return The XSTS token.
      */
     public @NotNull String authenticateXSTS(@NotNull String cookies) {
-        String redirectUrl1 = encodeSpaces(this.retrieveRedirect(XBL_AUTH_URL, "")),
-                redirectUrl2 = encodeSpaces(this.retrieveRedirect(redirectUrl1, cookies)),
-                redirectUrl3 = this.retrieveRedirect(redirectUrl2, cookies);
+        String redirectUrl1 = encodeSpaces(this.retrieveRedirect(this.xblAuthUrl, "", null)),
+                redirectUrl2 = encodeSpaces(this.retrieveRedirect(redirectUrl1, cookies, null)),
+                redirectUrl3 = this.retrieveRedirect(redirectUrl2, cookies, null);
+        return extractXSTSToken(redirectUrl3).toAuthorizationHeader();
+    }
 
-        // Attempt to extract the access token from the final redirect URL
-        String encodedResponse = QueryUtil.getQuery(redirectUrl3, "accessToken");
-        if (encodedResponse == null) {
-            throw new RuntimeException("Failed to extract access token from redirect URL: " + redirectUrl3);
-        }
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously.
+     *
+     * @param cookies The cookies to use in the request (in the correct format).
+     * @return A future completed with the XSTS token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<String> authenticateXSTSAsync(@NotNull String cookies) {
+        return this.retrieveRedirectAsync(this.xblAuthUrl, "", null)
+                .thenCompose(redirectUrl1 -> this.retrieveRedirectAsync(encodeSpaces(redirectUrl1), cookies, null))
+                .thenCompose(redirectUrl2 -> this.retrieveRedirectAsync(encodeSpaces(redirectUrl2), cookies, null))
+                .thenApplyAsync(redirectUrl3 -> extractXSTSToken(redirectUrl3).toAuthorizationHeader(), this.transport.responseExecutor());
+    }
 
-        String decodedResponse = new String(Base64.getDecoder().decode(encodedResponse), StandardCharsets.UTF_8)
-                .split("\"rp://api.minecraftservices.com/\",")[1];
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS), sending each redirect only the cookies matching its host.
+     *
+     * @param cookieJar The cookies.
+     * @return The XSTS token, formatted for use in the Authorization header.
+     * @since 1.2.0
+     */
+    public @NotNull String authenticateXSTS(@NotNull CookieJar cookieJar) {
+        return this.authenticateXSTSToken(cookieJar).toAuthorizationHeader();
+    }
 
-        // Annoyingly, the response appears to be some weird broken JSON format
-        // and quite frankly - I don't want to deal with it properly
-        // so we'll just use regex to extract the values we need :p
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously, sending each redirect only the cookies matching its host.
+     *
+     * @param cookieJar The cookies.
+     * @return A future completed with the XSTS token, formatted for use in the Authorization header.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<String> authenticateXSTSAsync(@NotNull CookieJar cookieJar) {
+        return this.authenticateXSTSTokenAsync(cookieJar).thenApply(XboxToken::toAuthorizationHeader);
+    }
+
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS), sending each redirect only the cookies matching its host.
+     *
+     * @param cookieJar The cookies.
+     * @return The XSTS token, with its expiry.
+     * @since 1.2.0
+     */
+    public @NotNull XboxToken authenticateXSTSToken(@NotNull CookieJar cookieJar) {
+        return this.authenticateXSTSToken(cookieJar, null);
+    }
+
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS), sending each redirect only the cookies matching its host.
+     *
+     * @param cookieJar The cookies.
+     * @param account An identifier of the account shared by the login chain (i.e. the cookie file), reported hashed, or {@code null} if unknown.
+     * @return The XSTS token, with its expiry.
+     * @since 1.2.0
+     */
+    public @NotNull XboxToken authenticateXSTSToken(@NotNull CookieJar cookieJar, @Nullable String account) {
+        String redirectUrl1 = encodeSpaces(this.retrieveRedirect(this.xblAuthUrl, "", account)),
+                redirectUrl2 = encodeSpaces(this.retrieveRedirect(redirectUrl1, cookieJar.headerFor(URI.create(redirectUrl1)), account)),
+                redirectUrl3 = this.retrieveRedirect(redirectUrl2, cookieJar.headerFor(URI.create(redirectUrl2)), account);
+        return extractXSTSToken(redirectUrl3);
+    }
 
-        // I'd expect there to be a better way to do this, but oh well
-        // We are relying on hopes and dreams that the token is the first "Token" field in the response
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously, sending each redirect only the cookies matching its host.
+     *
+     * @param cookieJar The cookies.
+     * @return A future completed with the XSTS token, with its expiry.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<XboxToken> authenticateXSTSTokenAsync(@NotNull CookieJar cookieJar) {
+        return this.authenticateXSTSTokenAsync(cookieJar, null);
+    }
 
-        String uhs = decodedResponse.split("\\{\"DisplayClaims\":\\{\"xui\":\\[\\{\"uhs\":\"")[1].split("\"")[0];
-        String token = decodedResponse.split("\"Token\":\"")[1].split("\"")[0];
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously, sending each redirect only the cookies matching its host.
+     *
+     * @param cookieJar The cookies.
+     * @param account An identifier of the account shared by the login chain (i.e. the cookie file), reported hashed, or {@code null} if unknown.
+     * @return A future completed with the XSTS token, with its expiry.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<XboxToken> authenticateXSTSTokenAsync(@NotNull CookieJar cookieJar, @Nullable String account) {
+        return this.retrieveRedirectAsync(this.xblAuthUrl, "", account)
+                .thenCompose(redirectUrl1 -> this.retrieveRedirectAsync(cookieJar, encodeSpaces(redirectUrl1), account))
+                .thenCompose(redirectUrl2 -> this.retrieveRedirectAsync(cookieJar, encodeSpaces(redirectUrl2), account))
+                .thenApplyAsync(CookieMicrosoftClient::extractXSTSToken, this.transport.responseExecutor());
+    }
 
-        return "XBL3.0 x=" + uhs + ";" + token;
+    /**
+     * Extracts the XSTS token from the final redirect URL.
+     *
+     * @param redirectUrl The final redirect URL.
+     * @return The XSTS token.
+     */
+    private static @NotNull XboxToken extractXSTSToken(@NotNull String redirectUrl) {
+        // Attempt to extract the access token from the final redirect URL
+        String encodedResponse = QueryUtil.getQuery(redirectUrl, "accessToken");
+        if (encodedResponse == null) {
+            throw new RuntimeException("Failed to extract access token from redirect URL: " + redirectUrl);
+        }
+        return SisuPayloadParser.parse(encodedResponse);
     }
 
     /**
@@ -74,9 +177,36 @@ public class CookieMicrosoftClient {
      *
      * @param url The URL to follow.
      * @param cookies The cookies to include in the request, or `null` if none.
+     * @param account An identifier of the account shared by the login chain, or `null` if unknown.
      * @return The URL in the Location header of the redirect response.
      */
-    private @NotNull String retrieveRedirect(@NotNull String url, @Nullable String cookies) {
+    private @NotNull String retrieveRedirect(@NotNull String url, @Nullable String cookies, @Nullable String account) {
+        try {
+            return extractRedirect(this.transport.send(AuthStage.COOKIE_REDIRECT, account, createRedirectRequest(url, cookies),
+                    HttpResponse.BodyHandlers.discarding()));
+        } catch (IOException | InterruptedException e) {
+            throw new AuthenticationException(AuthStage.COOKIE_REDIRECT, "Failed to follow redirect to access token URL", e);
+        }
+    }
+
+    /**
+     * Follows a redirect and retrieves the Location header asynchronously.
+     *
+     * @param url The URL to follow.
+     * @param cookies The cookies to include in the request, or `null` if none.
+     * @param account An identifier of the account shared by the login chain, or `null` if unknown.
+     * @return A future completed with the URL in the Location header of the redirect response.
+     */
+    private @NotNull CompletableFuture<String> retrieveRedirectAsync(@NotNull String url, @Nullable String cookies, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.COOKIE_REDIRECT, account, createRedirectRequest(url, cookies),
+                HttpResponse.BodyHandlers.discarding(), CookieMicrosoftClient::extractRedirect);
+    }
+
+    private @NotNull CompletableFuture<String> retrieveRedirectAsync(@NotNull CookieJar cookieJar, @NotNull String url, @Nullable String account) {
+        return this.retrieveRedirectAsync(url, cookieJar.headerFor(URI.create(url)), account);
+    }
+
+    private static @NotNull HttpRequest createRedirectRequest(@NotNull String url, @Nullable String cookies) {
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
@@ -88,22 +218,19 @@ public class CookieMicrosoftClient {
             requestBuilder.header("Cookie", cookies);
         }
 
-        HttpRequest request = requestBuilder.GET().build();
+        return requestBuilder.GET().build();
+    }
 
-        try {
-            HttpResponse<?> response = this.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
-            if (response.statusCode() == 302) {
-                if (response.headers().firstValue("Location").isEmpty()) {
-                    throw new RuntimeException("Redirect response missing Location header");
-                }
-                return response.headers()
-                        .firstValue("Location")
-                        .get();
-            } else {
-                throw new RuntimeException("Unexpected response status code: " + response.statusCode());
+    private static @NotNull String extractRedirect(@NotNull HttpResponse<?> response) {
+        if (response.statusCode() == 302) {
+            if (response.headers().firstValue("Location").isEmpty()) {
+                throw new AuthenticationException(AuthStage.COOKIE_REDIRECT, response, "Redirect response missing Location header");
             }
-        } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to follow redirect to access token URL", e);
+            return response.headers()
+                    .firstValue("Location")
+                    .get();
+        } else {
+            throw new AuthenticationException(AuthStage.COOKIE_REDIRECT, response, "Unexpected response status code: " + response.statusCode());
         }
     }
 
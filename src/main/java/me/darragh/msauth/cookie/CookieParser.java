@@ -0,0 +1,317 @@
+package me.darragh.msauth.cookie;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A streaming parser for Netscape cookie files, i.e. those exported by browsers and cookie extensions.
+ * <p>
+ * The input is scanned in fixed-size chunks, and fields are located by their tab offsets rather than by splitting lines,
+ * so strings are only created for the cookies which are kept. Cookies outside the accepted domains, and expired cookies, are dropped.
+ *
+ * @apiNote This class is immutable, and thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public final class CookieParser {
+    /**
+     * The domains visited whilst following the Xbox Live login redirects.
+     */
+    public static final Set<String> LOGIN_DOMAINS = Set.of("live.com", "xboxlive.com", "microsoft.com", "microsoftonline.com");
+
+    /**
+     * A parser keeping only the cookies used to log in.
+     */
+    public static final CookieParser DEFAULT = new CookieParser(LOGIN_DOMAINS);
+
+    /**
+     * A parser keeping the cookies of every domain.
+     */
+    public static final CookieParser ALL = new CookieParser((String[]) null);
+
+    private static final String HTTP_ONLY_PREFIX = "#HttpOnly_";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String @Nullable [] domains;
+
+    /**
+     * Creates a parser keeping only the cookies of the given domains, and their subdomains.
+     *
+     * @param domains The domains, i.e. {@code live.com}.
+     */
+    public CookieParser(@NotNull Collection<String> domains) {
+        this.domains = domains.stream()
+                .map(domain -> domain.startsWith(".") ? domain.substring(1) : domain)
+                .map(domain -> domain.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private CookieParser(String @Nullable [] domains) {
+        this.domains = domains;
+    }
+
+    /**
+     * Parses a cookie file, decoded as UTF-8.
+     *
+     * @param path The path to the cookie file.
+     * @return The cookie jar.
+     */
+    public @NotNull CookieJar parse(@NotNull Path path) {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+            return this.read(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read cookie file: " + path, e);
+        }
+    }
+
+    /**
+     * Parses a cookie file from a reader. The reader is not closed.
+     *
+     * @param reader The reader.
+     * @return The cookie jar.
+     */
+    public @NotNull CookieJar parse(@NotNull Reader reader) {
+        try {
+            return this.read(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read cookie file", e);
+        }
+    }
+
+    /**
+     * Parses a cookie file from its UTF-8 encoded contents, i.e. a mapped file. The buffer's position is not changed.
+     *
+     * @param buffer The buffer.
+     * @return The cookie jar.
+     */
+    public @NotNull CookieJar parse(@NotNull ByteBuffer buffer) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer input = buffer.duplicate();
+        CharBuffer output = CharBuffer.allocate(BUFFER_SIZE);
+        Scanner scanner = new Scanner();
+
+        CoderResult result;
+        do {
+            result = decoder.decode(input, output, true);
+            scanner.feed(output.array(), 0, output.position());
+            output.clear();
+        } while (result.isOverflow());
+        decoder.flush(output);
+        scanner.feed(output.array(), 0, output.position());
+        return scanner.finish();
+    }
+
+    /**
+     * Parses the contents of a cookie file.
+     *
+     * @param cookies The contents of the cookie file.
+     * @return The cookie jar.
+     */
+    public @NotNull CookieJar parse(@NotNull String cookies) {
+        Scanner scanner = new Scanner();
+        char[] chunk = new char[Math.min(BUFFER_SIZE, cookies.length())];
+        for (int offset = 0; offset < cookies.length(); offset += chunk.length) {
+            int count = Math.min(chunk.length, cookies.length() - offset);
+            cookies.getChars(offset, offset + count, chunk, 0);
+            scanner.feed(chunk, 0, count);
+        }
+        return scanner.finish();
+    }
+
+    private @NotNull CookieJar read(@NotNull Reader reader) throws IOException {
+        Scanner scanner = new Scanner();
+        char[] chunk = new char[BUFFER_SIZE];
+        int count;
+        while ((count = reader.read(chunk)) != -1) {
+            scanner.feed(chunk, 0, count);
+        }
+        return scanner.finish();
+    }
+
+    /**
+     * Checks if the domain in the given range is accepted, being one of the domains or a subdomain of one.
+     */
+    private boolean accepts(char @NotNull [] chars, int start, int end) {
+        if (this.domains == null) {
+            return true;
+        }
+        int length = end - start;
+        for (String domain : this.domains) {
+            int offset = end - domain.length();
+            if (length == domain.length() || (length > domain.length() && chars[offset - 1] == '.')) {
+                if (regionMatches(chars, offset, domain)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    //region Scanning
+    /**
+     * Splits the input into lines, and parses each line into a cookie. Lines are parsed in place where they lie within a single chunk.
+     */
+    private final class Scanner {
+        private final CookieJar.Builder builder = new CookieJar.Builder();
+        private final long now = Instant.now().getEpochSecond();
+        private final int[] tabs = new int[6];
+
+        private char[] line = new char[256]; // the partial line carried between chunks
+        private int length;
+
+        void feed(char @NotNull [] chars, int offset, int count) {
+            int start = offset, end = offset + count;
+            for (int i = offset; i < end; i++) {
+                if (chars[i] != '\n') {
+                    continue;
+                }
+                if (this.length == 0) {
+                    this.parseLine(chars, start, i);
+                } else {
+                    this.append(chars, start, i - start);
+                    this.parseLine(this.line, 0, this.length);
+                    this.length = 0;
+                }
+                start = i + 1;
+            }
+            this.append(chars, start, end - start);
+        }
+
+        @NotNull CookieJar finish() {
+            if (this.length > 0) {
+                this.parseLine(this.line, 0, this.length);
+                this.length = 0;
+            }
+            return this.builder.build();
+        }
+
+        private void append(char @NotNull [] chars, int offset, int count) {
+            if (this.length + count > this.line.length) {
+                this.line = Arrays.copyOf(this.line, Math.max(this.line.length * 2, this.length + count));
+            }
+            System.arraycopy(chars, offset, this.line, this.length, count);
+            this.length += count;
+        }
+
+        /**
+         * Parses a line of the form: domain, include subdomains, path, secure, expiry, name, value; separated by tabs.
+         */
+        private void parseLine(char @NotNull [] chars, int start, int end) {
+            if (end > start && chars[end - 1] == '\r') {
+                end--;
+            }
+            if (startsWith(chars, start, end, HTTP_ONLY_PREFIX)) { // HTTP-only cookies are prefixed, rather than commented out
+                start += HTTP_ONLY_PREFIX.length();
+            } else if (start == end || chars[start] == '#') {
+                return;
+            }
+
+            int count = 0;
+            for (int i = start; i < end && count < this.tabs.length; i++) {
+                if (chars[i] == '\t') {
+                    this.tabs[count++] = i;
+                }
+            }
+            if (count < this.tabs.length) {
+                return; // skip malformed lines
+            }
+
+            int domainStart = chars[start] == '.' ? start + 1 : start;
+            if (domainStart == this.tabs[0] || !CookieParser.this.accepts(chars, domainStart, this.tabs[0])) {
+                return;
+            }
+            long expiresAt = parseExpiry(chars, this.tabs[3] + 1, this.tabs[4]);
+            if (expiresAt != 0 && expiresAt <= this.now) {
+                return;
+            }
+            String name = trimmedString(chars, this.tabs[4] + 1, this.tabs[5]);
+            if (name.isEmpty()) {
+                return;
+            }
+
+            int pathStart = this.tabs[1] + 1, pathEnd = this.tabs[2];
+            this.builder.add(new Cookie(
+                    new String(chars, domainStart, this.tabs[0] - domainStart).toLowerCase(Locale.ROOT),
+                    startsWith(chars, this.tabs[0] + 1, this.tabs[1], "TRUE"),
+                    pathEnd - pathStart == 1 && chars[pathStart] == '/' ? "/" : new String(chars, pathStart, pathEnd - pathStart),
+                    startsWith(chars, this.tabs[2] + 1, this.tabs[3], "TRUE"),
+                    expiresAt,
+                    name,
+                    trimmedString(chars, this.tabs[5] + 1, end)
+            ));
+        }
+    }
+    //endregion
+
+    //region Helpers
+    private static boolean regionMatches(char @NotNull [] chars, int offset, @NotNull String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (Character.toLowerCase(chars[offset + i]) != string.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(char @NotNull [] chars, int start, int end, @NotNull String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toUpperCase(chars[start + i]) != Character.toUpperCase(prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the expiry, in epoch seconds. Any fractional part is ignored, and an unparsable expiry is treated as a session cookie.
+     */
+    private static long parseExpiry(char @NotNull [] chars, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                break;
+            }
+            if (c < '0' || c > '9' || value > (Long.MAX_VALUE - 9) / 10) {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static @NotNull String trimmedString(char @NotNull [] chars, int start, int end) {
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return new String(chars, start, end - start);
+    }
+    //endregion
+}
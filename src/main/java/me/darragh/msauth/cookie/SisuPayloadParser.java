@@ -0,0 +1,189 @@
+package me.darragh.msauth.cookie;
+
+import lombok.experimental.UtilityClass;
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.client.XboxToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Extracts the Minecraft XSTS token from the payload returned by the Xbox Live SISU login, in a single pass over its decoded bytes.
+ * <p>
+ * The payload lists a token for each relying party. The values are located by their keys, rather than by parsing the payload as JSON,
+ * as the payload is not always well-formed.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@UtilityClass
+class SisuPayloadParser {
+    private static final byte[] RELYING_PARTY = "\"rp://api.minecraftservices.com/\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOKEN_KEY = "\"Token\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NOT_AFTER_KEY = "\"NotAfter\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] USER_HASH_KEY = "\"uhs\"".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Parses the Base64-encoded payload.
+     *
+     * @param encodedPayload The payload, as found in the {@code accessToken} query parameter.
+     * @return The XSTS token.
+     * @throws AuthenticationException If the payload is malformed, or does not contain the token.
+     */
+    static @NotNull XboxToken parse(@NotNull String encodedPayload) {
+        byte[] payload;
+        try {
+            payload = Base64.getDecoder().decode(encodedPayload);
+        } catch (IllegalArgumentException e) {
+            throw new AuthenticationException(AuthStage.XSTS, "Payload is not valid Base64", e);
+        }
+        return parse(payload);
+    }
+
+    /**
+     * Parses the decoded payload. The first token, expiry and user hash following the Minecraft relying party are used.
+     *
+     * @param payload The decoded payload.
+     * @return The XSTS token.
+     * @throws AuthenticationException If the payload is malformed, or does not contain the token.
+     */
+    static @NotNull XboxToken parse(byte @NotNull [] payload) {
+        String token = null, notAfter = null, userHash = null;
+        boolean relyingPartyFound = false;
+
+        for (int i = 0; i < payload.length; i++) {
+            if (payload[i] != '"') {
+                continue;
+            }
+            if (!relyingPartyFound) {
+                if (regionMatches(payload, i, RELYING_PARTY)) {
+                    relyingPartyFound = true;
+                    i += RELYING_PARTY.length - 1;
+                }
+                continue;
+            }
+
+            int valueStart;
+            if (token == null && (valueStart = valueStart(payload, i, TOKEN_KEY)) != -1) {
+                token = readString(payload, valueStart);
+            } else if (notAfter == null && (valueStart = valueStart(payload, i, NOT_AFTER_KEY)) != -1) {
+                notAfter = readString(payload, valueStart);
+            } else if (userHash == null && (valueStart = valueStart(payload, i, USER_HASH_KEY)) != -1) {
+                userHash = readString(payload, valueStart);
+            } else {
+                continue;
+            }
+            if (token != null && notAfter != null && userHash != null) {
+                try {
+                    return new XboxToken(token, userHash, Instant.parse(notAfter));
+                } catch (DateTimeParseException e) {
+                    throw new AuthenticationException(AuthStage.XSTS, "Malformed expiry in payload", e);
+                }
+            }
+            i = valueStart; // continue scanning from the value, as values never contain keys
+        }
+
+        throw new AuthenticationException(AuthStage.XSTS, relyingPartyFound ? "Failed to extract XSTS token from payload" : "Payload is missing the Minecraft relying party", null);
+    }
+
+    /**
+     * Returns the index of the opening quote of the string value of a key, if the key begins at the given index.
+     *
+     * @return The index of the opening quote, or {@code -1} if the key does not match or its value is not a string.
+     */
+    private static int valueStart(byte @NotNull [] payload, int index, byte @NotNull [] key) {
+        if (!regionMatches(payload, index, key)) {
+            return -1;
+        }
+        int i = index + key.length;
+        while (i < payload.length && (payload[i] == ' ' || payload[i] == ':')) {
+            i++;
+        }
+        return i < payload.length && payload[i] == '"' ? i : -1;
+    }
+
+    /**
+     * Reads a JSON string value, beginning at its opening quote.
+     * <p>
+     * The value is decoded as UTF-8 whether or not it contains escapes. Escaped characters are encoded back to UTF-8, so that they are
+     * decoded alongside the bytes around them, and surrogate pairs escaped separately are combined.
+     */
+    private static @NotNull String readString(byte @NotNull [] payload, int quote) {
+        int start = quote + 1, end = start;
+        while (end < payload.length && payload[end] != '"' && payload[end] != '\\') {
+            end++;
+        }
+        if (end < payload.length && payload[end] == '"') { // no escapes, which is always the case in practice
+            return new String(payload, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(end - start + 16);
+        outputStream.write(payload, start, end - start);
+        for (int i = end; i < payload.length; i++) {
+            byte b = payload[i];
+            if (b == '"') {
+                return outputStream.toString(StandardCharsets.UTF_8);
+            }
+            if (b != '\\' || ++i == payload.length) {
+                outputStream.write(b);
+                continue;
+            }
+            switch (payload[i]) {
+                case 'n' -> outputStream.write('\n');
+                case 't' -> outputStream.write('\t');
+                case 'r' -> outputStream.write('\r');
+                case 'b' -> outputStream.write('\b');
+                case 'f' -> outputStream.write('\f');
+                case 'u' -> {
+                    int codePoint = readEscapedCodeUnit(payload, i + 1);
+                    i += 4;
+                    if (Character.isHighSurrogate((char) codePoint) && i + 6 < payload.length && payload[i + 1] == '\\' && payload[i + 2] == 'u') {
+                        int lowSurrogate = readEscapedCodeUnit(payload, i + 3);
+                        if (Character.isLowSurrogate((char) lowSurrogate)) {
+                            codePoint = Character.toCodePoint((char) codePoint, (char) lowSurrogate);
+                            i += 6;
+                        }
+                    }
+                    outputStream.writeBytes(new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8));
+                }
+                default -> outputStream.write(payload[i]); // \" \\ \/
+            }
+        }
+        throw new AuthenticationException(AuthStage.XSTS, "Unterminated string in payload", null);
+    }
+
+    /**
+     * Reads the four hexadecimal digits of a {@code \\u} escape.
+     */
+    private static int readEscapedCodeUnit(byte @NotNull [] payload, int index) {
+        if (index + 4 > payload.length) {
+            throw new AuthenticationException(AuthStage.XSTS, "Malformed escape in payload", null);
+        }
+        int codeUnit = 0;
+        for (int i = index; i < index + 4; i++) {
+            int digit = Character.digit(payload[i], 16);
+            if (digit < 0) {
+                throw new AuthenticationException(AuthStage.XSTS, "Malformed escape in payload", null);
+            }
+            codeUnit = codeUnit << 4 | digit;
+        }
+        return codeUnit;
+    }
+
+    private static boolean regionMatches(byte @NotNull [] payload, int index, byte @NotNull [] bytes) {
+        if (index + bytes.length > payload.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (payload[index + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
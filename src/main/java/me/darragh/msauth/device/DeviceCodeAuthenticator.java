@@ -0,0 +1,198 @@
+package me.darragh.msauth.device;
+
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationCallback;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.Authenticator;
+import me.darragh.msauth.client.AuthenticationPipeline;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.oauth2.OAuthMicrosoftClient;
+import me.darragh.msauth.oauth2.OAuthOptions;
+import me.darragh.msauth.util.ExecutorProvider;
+import me.darragh.msauth.util.FutureUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An authenticator for headless authentication using the OAuth2 device authorization grant.
+ * <p>
+ * The user enters a code at a verification URI on any device, whilst the authenticator polls for the tokens. No local server is required,
+ * so any number of logins may be pending at once. Polls are scheduled on a single shared thread, and wait at least the interval directed
+ * by the server, which is lengthened whenever it asks the authenticator to slow down.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class DeviceCodeAuthenticator implements Authenticator<AuthenticationRecord> {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(ExecutorProvider.daemonThreadFactory("msauth-device-code"));
+    private static final int SLOW_DOWN_INCREMENT = 5; // seconds, as per RFC 8628
+
+    private final @NotNull DeviceCodeMicrosoftClient deviceCodeClient;
+    private final @NotNull OAuthMicrosoftClient microsoftClient;
+    private final @NotNull AuthenticationPipeline pipeline;
+    private final @NotNull DeviceCodeHandler deviceCodeHandler;
+
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a device code authenticator.
+     *
+     * @param options The OAuth2 options. Only the client ID is used, which must permit public client flows.
+     * @param deviceCodeHandler The handler presenting each device code to the user.
+     */
+    public DeviceCodeAuthenticator(@NotNull OAuthOptions options, @NotNull DeviceCodeHandler deviceCodeHandler) {
+        this(options, deviceCodeHandler, new AuthenticationPipeline(HttpTransport.get()));
+    }
+
+    /**
+     * Creates a device code authenticator which finishes logins using the given pipeline.
+     *
+     * @param options The OAuth2 options. Only the client ID is used, which must permit public client flows.
+     * @param deviceCodeHandler The handler presenting each device code to the user.
+     * @param pipeline The pipeline used to log in to Minecraft, whose transport and endpoints are also used to communicate with Microsoft.
+     */
+    public DeviceCodeAuthenticator(@NotNull OAuthOptions options, @NotNull DeviceCodeHandler deviceCodeHandler, @NotNull AuthenticationPipeline pipeline) {
+        this.deviceCodeClient = new DeviceCodeMicrosoftClient(options.clientId(), pipeline.getTransport(), pipeline.getEndpoints());
+        this.microsoftClient = new OAuthMicrosoftClient(options, pipeline.getTransport(), pipeline.getEndpoints());
+        this.pipeline = pipeline;
+        this.deviceCodeHandler = deviceCodeHandler;
+    }
+
+    @Override
+    public void performAuthentication(@NotNull AuthenticationRecord record, @NotNull AuthenticationCallback<AuthenticationRecord> callback) {
+        this.performAuthenticationAsync(record).whenComplete((result, throwable) -> this.complete(result, throwable, callback));
+    }
+
+    @Override
+    public void performAuthentication(@NotNull AuthenticationCallback<AuthenticationRecord> callback) {
+        this.performAuthenticationAsync().whenComplete((result, throwable) -> this.complete(result, throwable, callback));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> performAuthenticationAsync(@NotNull AuthenticationRecord record) {
+        if (record.refreshToken() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("The record has no refresh token"));
+        }
+        String account = record.uuid().toString(); // refresh tokens rotate, so the profile identifies the account in reports
+        return this.track(this.deviceCodeClient.useRefreshTokenAsync(record.refreshToken(), account)
+                .thenCompose(oAuthTokens -> this.authenticateTokensAsync(oAuthTokens, account)));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> performAuthenticationAsync() {
+        return this.performAuthenticationAsync(this.deviceCodeHandler);
+    }
+
+    /**
+     * Starts a login, presenting its device code with the given handler rather than the authenticator's.
+     * <p>
+     * Cancelling the returned future stops polling.
+     *
+     * @param deviceCodeHandler The handler presenting the device code to the user.
+     * @return A future completed with the authentication result once the user has logged in.
+     */
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> performAuthenticationAsync(@NotNull DeviceCodeHandler deviceCodeHandler) {
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> result = new CompletableFuture<>();
+        this.deviceCodeClient.requestDeviceCodeAsync()
+                .thenCompose(deviceCode -> {
+                    deviceCodeHandler.onDeviceCode(deviceCode);
+                    CompletableFuture<OAuthMicrosoftClient.OAuthTokens> tokens = new CompletableFuture<>();
+                    this.schedulePoll(deviceCode, deviceCode.interval(), Instant.now().plusSeconds(deviceCode.expiresIn()), tokens, result);
+                    return tokens.thenCompose(oAuthTokens -> this.authenticateTokensAsync(oAuthTokens, null));
+                })
+                .whenComplete((authenticationResult, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(FutureUtil.unwrap(throwable));
+                    } else {
+                        result.complete(authenticationResult);
+                    }
+                });
+        return this.track(result);
+    }
+
+    @Override
+    public void stopAuthentication() {
+        this.pending.forEach(future -> future.cancel(true));
+    }
+
+    @Override
+    public boolean isAuthenticating() {
+        return !this.pending.isEmpty();
+    }
+
+    //region Polling
+    /**
+     * Schedules a poll for the tokens of a device code, after the given interval.
+     *
+     * @param deviceCode The device code.
+     * @param interval The number of seconds to wait before polling.
+     * @param expiresAt The time at which the device code expires.
+     * @param tokens The future to complete with the tokens.
+     * @param result The login's result, which stops polling once completed (i.e. cancelled).
+     */
+    private void schedulePoll(@NotNull DeviceCodeMicrosoftClient.DeviceCode deviceCode, int interval, @NotNull Instant expiresAt,
+                              @NotNull CompletableFuture<OAuthMicrosoftClient.OAuthTokens> tokens, @NotNull CompletableFuture<?> result) {
+        SCHEDULER.schedule(() -> {
+            if (result.isDone()) {
+                tokens.cancel(false);
+                return;
+            }
+            if (Instant.now().isAfter(expiresAt)) {
+                tokens.completeExceptionally(new AuthenticationException(AuthStage.DEVICE_TOKEN, "The device code expired before the user logged in (expired_token)", null));
+                return;
+            }
+
+            // The request is asynchronous, so the scheduler thread is never parked on it
+            this.deviceCodeClient.pollDeviceCodeAsync(deviceCode.deviceCode()).whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    tokens.completeExceptionally(FutureUtil.unwrap(throwable));
+                } else if (response.tokens() != null) {
+                    tokens.complete(response.tokens());
+                } else if ("slow_down".equals(response.error())) {
+                    this.schedulePoll(deviceCode, interval + SLOW_DOWN_INCREMENT, expiresAt, tokens, result);
+                } else { // authorization_pending, as the client fails the poll on any other error
+                    this.schedulePoll(deviceCode, interval, expiresAt, tokens, result);
+                }
+            });
+        }, interval, TimeUnit.SECONDS);
+    }
+    //endregion
+
+    /**
+     * Completes a login with the OAuth tokens.
+     *
+     * @param oAuthTokens The OAuth tokens.
+     * @param account The UUID of the profile being refreshed, identifying the account in reports, or {@code null} if unknown (i.e. for a new login).
+     * @return A future completed with the authentication result.
+     */
+    private @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> authenticateTokensAsync(@NotNull OAuthMicrosoftClient.OAuthTokens oAuthTokens,
+                                                                                                          @Nullable String account) {
+        return this.microsoftClient.authenticateXboxLiveTokenAsync(oAuthTokens.accessToken(), account)
+                .thenCompose(xboxLiveToken -> this.microsoftClient.authenticateXSTSTokenAsync(xboxLiveToken.token(), account))
+                .thenCompose(xstsToken -> this.pipeline.authenticateAsync(xstsToken.toAuthorizationHeader(), oAuthTokens.refreshToken(), account));
+    }
+
+    private <R> @NotNull CompletableFuture<R> track(@NotNull CompletableFuture<R> future) {
+        this.pending.add(future);
+        future.whenComplete((ignored, throwable) -> this.pending.remove(future));
+        return future;
+    }
+
+    private void complete(AuthenticationResult<AuthenticationRecord> result, Throwable throwable, @NotNull AuthenticationCallback<AuthenticationRecord> callback) {
+        if (throwable != null) {
+            callback.onFailure(FutureUtil.unwrap(throwable));
+        } else {
+            callback.onAuthentication(result.record(), result.profile());
+        }
+    }
+}
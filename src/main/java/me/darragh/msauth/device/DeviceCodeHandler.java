@@ -0,0 +1,19 @@
+package me.darragh.msauth.device;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Presents a device code to the user, i.e. by logging it or displaying it in a console.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface DeviceCodeHandler {
+    /**
+     * Called once a device code has been issued. The user must visit the verification URI and enter the user code to log in.
+     *
+     * @param deviceCode The device code.
+     */
+    void onDeviceCode(@NotNull DeviceCodeMicrosoftClient.DeviceCode deviceCode);
+}
@@ -0,0 +1,247 @@
+package me.darragh.msauth.device;
+
+import com.google.gson.annotations.SerializedName;
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.gson.JsonBodies;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
+import me.darragh.msauth.oauth2.OAuthMicrosoftClient;
+import me.darragh.msauth.util.FormBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles communication with Microsoft's OAuth2 device authorization grant.
+ * <p>
+ * Useful resources:
+ *      - <a href="https://learn.microsoft.com/en-us/entra/identity-platform/v2-oauth2-device-code">...</a>
+ *
+ * @apiNote This class is thread-safe, and may be shared between logins.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public class DeviceCodeMicrosoftClient {
+    private static final String DEVICE_CODE_PATH = "/consumers/oauth2/v2.0/devicecode";
+    private static final String TOKEN_PATH = "/consumers/oauth2/v2.0/token";
+    private static final String SCOPE = "XboxLive.signin offline_access";
+
+    private final @NotNull String clientId;
+    private final @NotNull HttpTransport transport;
+    private final @NotNull URI deviceCodeUri;
+    private final @NotNull URI tokenUri;
+
+    public DeviceCodeMicrosoftClient(@NotNull String clientId) {
+        this(clientId, HttpTransport.get());
+    }
+
+    public DeviceCodeMicrosoftClient(@NotNull String clientId, @NotNull HttpTransport transport) {
+        this(clientId, transport, ServiceEndpoints.DEFAULT);
+    }
+
+    /**
+     * Creates a client which communicates with the given endpoints.
+     *
+     * @param clientId The client ID, which must permit public client flows.
+     * @param transport The HTTP transport.
+     * @param endpoints The service endpoints.
+     */
+    public DeviceCodeMicrosoftClient(@NotNull String clientId, @NotNull HttpTransport transport, @NotNull ServiceEndpoints endpoints) {
+        this.clientId = clientId;
+        this.transport = transport;
+        this.deviceCodeUri = ServiceEndpoints.resolve(endpoints.microsoftOnlineLogin(), DEVICE_CODE_PATH);
+        this.tokenUri = ServiceEndpoints.resolve(endpoints.microsoftOnlineLogin(), TOKEN_PATH);
+    }
+
+    /**
+     * Requests a device code, which the user enters at the verification URI to log in.
+     *
+     * @return The device code.
+     */
+    public @NotNull DeviceCode requestDeviceCode() {
+        try {
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.DEVICE_CODE, null, this.createDeviceCodeRequest(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseDeviceCode(response);
+        } catch (IOException | InterruptedException e) {
+            throw new AuthenticationException(AuthStage.DEVICE_CODE, "Failed to request device code", e);
+        }
+    }
+
+    /**
+     * Requests a device code asynchronously.
+     *
+     * @return A future completed with the device code.
+     */
+    public @NotNull CompletableFuture<DeviceCode> requestDeviceCodeAsync() {
+        return this.transport.sendAsync(AuthStage.DEVICE_CODE, null, this.createDeviceCodeRequest(),
+                HttpResponse.BodyHandlers.ofByteArray(), DeviceCodeMicrosoftClient::parseDeviceCode);
+    }
+
+    /**
+     * Polls whether the user has logged in with the device code, asynchronously.
+     *
+     * @param deviceCode The device code.
+     * @return A future completed with the poll's outcome: either the OAuth tokens, or the error describing why they are not yet available
+     *         ({@code authorization_pending} or {@code slow_down}). Should the login have failed for good, i.e. with {@code expired_token},
+     *         {@code access_denied} or {@code bad_verification_code}, it completes exceptionally with an {@link AuthenticationException}.
+     */
+    public @NotNull CompletableFuture<DeviceTokenResponse> pollDeviceCodeAsync(@NotNull String deviceCode) {
+        return this.transport.sendAsync(AuthStage.DEVICE_TOKEN, null, this.createDeviceTokenRequest(deviceCode),
+                HttpResponse.BodyHandlers.ofByteArray(), DeviceCodeMicrosoftClient::parseDeviceTokenResponse);
+    }
+
+    /**
+     * Uses the refresh token to fetch new OAuth tokens.
+     *
+     * @param refreshToken The refresh token.
+     * @return The new OAuth tokens.
+     */
+    public @NotNull OAuthMicrosoftClient.OAuthTokens useRefreshToken(@NotNull String refreshToken) {
+        return this.useRefreshToken(refreshToken, null);
+    }
+
+    /**
+     * Uses the refresh token to fetch new OAuth tokens.
+     *
+     * @param refreshToken The refresh token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The new OAuth tokens.
+     */
+    public @NotNull OAuthMicrosoftClient.OAuthTokens useRefreshToken(@NotNull String refreshToken, @Nullable String account) {
+        try {
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.MICROSOFT_TOKEN, account, this.createRefreshTokenRequest(refreshToken),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseOAuthTokens(response);
+        } catch (IOException | InterruptedException e) {
+            throw new AuthenticationException(AuthStage.MICROSOFT_TOKEN, "Failed to use refresh token", e);
+        }
+    }
+
+    /**
+     * Uses the refresh token to fetch new OAuth tokens asynchronously.
+     *
+     * @param refreshToken The refresh token.
+     * @return A future completed with the new OAuth tokens.
+     */
+    public @NotNull CompletableFuture<OAuthMicrosoftClient.OAuthTokens> useRefreshTokenAsync(@NotNull String refreshToken) {
+        return this.useRefreshTokenAsync(refreshToken, null);
+    }
+
+    /**
+     * Uses the refresh token to fetch new OAuth tokens asynchronously.
+     *
+     * @param refreshToken The refresh token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the new OAuth tokens.
+     */
+    public @NotNull CompletableFuture<OAuthMicrosoftClient.OAuthTokens> useRefreshTokenAsync(@NotNull String refreshToken, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.MICROSOFT_TOKEN, account, this.createRefreshTokenRequest(refreshToken),
+                HttpResponse.BodyHandlers.ofByteArray(), DeviceCodeMicrosoftClient::parseOAuthTokens);
+    }
+
+    //region Requests
+    private @NotNull HttpRequest createDeviceCodeRequest() {
+        String formBody = new FormBuilder()
+                .add("client_id", this.clientId)
+                .add("scope", SCOPE)
+                .build();
+        return createFormRequest(this.deviceCodeUri, formBody);
+    }
+
+    private @NotNull HttpRequest createDeviceTokenRequest(@NotNull String deviceCode) {
+        String formBody = new FormBuilder()
+                .add("client_id", this.clientId)
+                .add("grant_type", "urn:ietf:params:oauth:grant-type:device_code")
+                .add("device_code", deviceCode)
+                .build();
+        return createFormRequest(this.tokenUri, formBody);
+    }
+
+    private @NotNull HttpRequest createRefreshTokenRequest(@NotNull String refreshToken) {
+        String formBody = new FormBuilder()
+                .add("client_id", this.clientId)
+                .add("grant_type", "refresh_token")
+                .add("refresh_token", refreshToken)
+                .add("scope", SCOPE)
+                .build();
+        return createFormRequest(this.tokenUri, formBody);
+    }
+
+    private static @NotNull HttpRequest createFormRequest(@NotNull URI uri, @NotNull String formBody) {
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(formBody))
+                .build();
+    }
+    //endregion
+
+    //region Responses
+    private static @NotNull DeviceCode parseDeviceCode(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.DEVICE_CODE, response, "Failed to request device code: " + JsonBodies.asString(response));
+        }
+        return JsonBodies.decode(response, DeviceCode.class);
+    }
+
+    private static @NotNull DeviceTokenResponse parseDeviceTokenResponse(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() == 200 || response.statusCode() == 400) { // the grant's errors, such as authorization_pending, are 400s
+            DeviceTokenResponse tokenResponse = JsonBodies.decode(response, DeviceTokenResponse.class);
+            if (tokenResponse.tokens() != null || "authorization_pending".equals(tokenResponse.error()) || "slow_down".equals(tokenResponse.error())) {
+                return tokenResponse;
+            }
+            if (tokenResponse.error() != null) { // the login failed for good
+                throw new AuthenticationException(AuthStage.DEVICE_TOKEN, response,
+                        "Failed to authorize device: " + tokenResponse.error() + " (" + tokenResponse.errorDescription() + ")");
+            }
+        }
+        throw new AuthenticationException(AuthStage.DEVICE_TOKEN, response, "Failed to poll device code: " + JsonBodies.asString(response));
+    }
+
+    private static @NotNull OAuthMicrosoftClient.OAuthTokens parseOAuthTokens(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.MICROSOFT_TOKEN, response, "Failed to use refresh token: " + JsonBodies.asString(response));
+        }
+        return JsonBodies.decode(response, OAuthMicrosoftClient.OAuthTokens.class);
+    }
+    //endregion
+
+    //region Records
+    /**
+     * A device code, and the instructions for the user.
+     *
+     * @param deviceCode The device code, used to poll for the tokens.
+     * @param userCode The code the user must enter.
+     * @param verificationUri The URI at which the user must enter the code.
+     * @param expiresIn The number of seconds until the codes expire.
+     * @param interval The minimum number of seconds between polls.
+     * @param message The instructions for the user, as provided by Microsoft.
+     */
+    public record DeviceCode(@SerializedName("device_code") String deviceCode,
+                             @SerializedName("user_code") String userCode,
+                             @SerializedName("verification_uri") String verificationUri,
+                             @SerializedName("expires_in") int expiresIn,
+                             @SerializedName("interval") int interval,
+                             @SerializedName("message") String message) {
+    }
+
+    /**
+     * The outcome of polling a device code.
+     *
+     * @param tokens The OAuth tokens, if the user has logged in.
+     * @param error The error code, i.e. {@code authorization_pending} or {@code slow_down}, if they are not available.
+     * @param errorDescription The description of the error, if any.
+     */
+    public record DeviceTokenResponse(@Nullable OAuthMicrosoftClient.OAuthTokens tokens, @Nullable String error, @Nullable String errorDescription) {
+    }
+    //endregion
+}
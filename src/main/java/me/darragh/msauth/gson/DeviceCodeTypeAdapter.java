@@ -0,0 +1,50 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.darragh.msauth.device.DeviceCodeMicrosoftClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Adapts the device codes returned by Microsoft's device authorization endpoint.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class DeviceCodeTypeAdapter extends RecordTypeAdapter<DeviceCodeMicrosoftClient.DeviceCode> {
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull DeviceCodeMicrosoftClient.DeviceCode deviceCode) throws IOException {
+        writer.beginObject()
+                .name("device_code").value(deviceCode.deviceCode())
+                .name("user_code").value(deviceCode.userCode())
+                .name("verification_uri").value(deviceCode.verificationUri())
+                .name("expires_in").value(deviceCode.expiresIn())
+                .name("interval").value(deviceCode.interval())
+                .name("message").value(deviceCode.message())
+                .endObject();
+    }
+
+    @Override
+    public @NotNull DeviceCodeMicrosoftClient.DeviceCode read(@NotNull JsonReader reader) throws IOException {
+        String deviceCode = null, userCode = null, verificationUri = null, message = null;
+        int expiresIn = 0, interval = 5; // the interval defaults to 5 seconds, as per RFC 8628
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "device_code" -> deviceCode = nextString(reader);
+                case "user_code" -> userCode = nextString(reader);
+                case "verification_uri" -> verificationUri = nextString(reader);
+                case "expires_in" -> expiresIn = nextInt(reader);
+                case "interval" -> interval = nextInt(reader);
+                case "message" -> message = nextString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new DeviceCodeMicrosoftClient.DeviceCode(deviceCode, userCode, verificationUri, expiresIn, interval, message);
+    }
+}
@@ -0,0 +1,59 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.darragh.msauth.device.DeviceCodeMicrosoftClient;
+import me.darragh.msauth.oauth2.OAuthMicrosoftClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Adapts the responses of Microsoft's token endpoint whilst polling a device code, which hold either the tokens or an error.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class DeviceTokenResponseTypeAdapter extends RecordTypeAdapter<DeviceCodeMicrosoftClient.DeviceTokenResponse> {
+    private final @NotNull OAuthTokensTypeAdapter tokensAdapter = new OAuthTokensTypeAdapter();
+
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull DeviceCodeMicrosoftClient.DeviceTokenResponse response) throws IOException {
+        if (response.tokens() != null) {
+            this.tokensAdapter.write(writer, response.tokens());
+            return;
+        }
+        writer.beginObject()
+                .name("error").value(response.error())
+                .name("error_description").value(response.errorDescription())
+                .endObject();
+    }
+
+    @Override
+    public @NotNull DeviceCodeMicrosoftClient.DeviceTokenResponse read(@NotNull JsonReader reader) throws IOException {
+        String tokenType = null, scope = null, accessToken = null, refreshToken = null, userId = null, error = null, errorDescription = null;
+        int expiresIn = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "token_type" -> tokenType = nextString(reader);
+                case "expires_in" -> expiresIn = nextInt(reader);
+                case "scope" -> scope = nextString(reader);
+                case "access_token" -> accessToken = nextString(reader);
+                case "refresh_token" -> refreshToken = nextString(reader);
+                case "user_id" -> userId = nextString(reader);
+                case "error" -> error = nextString(reader);
+                case "error_description" -> errorDescription = nextString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (error != null) {
+            return new DeviceCodeMicrosoftClient.DeviceTokenResponse(null, error, errorDescription);
+        }
+        return new DeviceCodeMicrosoftClient.DeviceTokenResponse(
+                new OAuthMicrosoftClient.OAuthTokens(tokenType, expiresIn, scope, accessToken, refreshToken, userId), null, null);
+    }
+}
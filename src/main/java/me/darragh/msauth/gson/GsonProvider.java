@@ -2,9 +2,18 @@ package me.darragh.msauth.gson;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import me.darragh.msauth.client.MinecraftClient;
+import me.darragh.msauth.client.XboxToken;
+import me.darragh.msauth.device.DeviceCodeMicrosoftClient;
+import me.darragh.msauth.minecraft.MinecraftCape;
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import me.darragh.msauth.minecraft.MinecraftSkin;
+import me.darragh.msauth.oauth2.OAuthMicrosoftClient;
 
 /**
  * A provider class for a singleton instance of Gson.
+ * <p>
+ * Every record exchanged with Microsoft's and Minecraft's services is (de)serialised by a hand-written adapter, rather than by reflection.
  *
  * @author darraghd493
  * @since 1.0.0
@@ -12,6 +21,14 @@ import com.google.gson.GsonBuilder;
 public final class GsonProvider {
     private static final Gson GSON = new GsonBuilder()
             .serializeNulls()
+            .registerTypeAdapter(OAuthMicrosoftClient.OAuthTokens.class, new OAuthTokensTypeAdapter().nullSafe())
+            .registerTypeAdapter(XboxToken.class, new XboxTokenTypeAdapter().nullSafe())
+            .registerTypeAdapter(MinecraftClient.MinecraftAuthentication.class, new MinecraftAuthenticationTypeAdapter().nullSafe())
+            .registerTypeAdapter(MinecraftProfile.class, new MinecraftProfileTypeAdapter().nullSafe())
+            .registerTypeAdapter(MinecraftSkin.class, MinecraftProfileTypeAdapter.SKIN.nullSafe())
+            .registerTypeAdapter(MinecraftCape.class, MinecraftProfileTypeAdapter.CAPE.nullSafe())
+            .registerTypeAdapter(DeviceCodeMicrosoftClient.DeviceCode.class, new DeviceCodeTypeAdapter().nullSafe())
+            .registerTypeAdapter(DeviceCodeMicrosoftClient.DeviceTokenResponse.class, new DeviceTokenResponseTypeAdapter().nullSafe())
             .create();
 
     public static Gson get() {
@@ -0,0 +1,85 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.stream.JsonWriter;
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the JSON bodies exchanged with Microsoft's and Minecraft's services.
+ * <p>
+ * Responses are received as bytes and decoded by streaming them through the registered adapters, so the body is never copied into a string.
+ * The bytes are buffered, rather than read from the response's input stream, so that decoding never blocks the response executor.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@UtilityClass
+public class JsonBodies {
+    /**
+     * Decodes a JSON response body.
+     *
+     * @param response The response, whose body was received with {@link HttpResponse.BodyHandlers#ofByteArray()}.
+     * @param type The type to decode.
+     * @return The decoded body.
+     * @param <T> The type to decode.
+     */
+    public static <T> @NotNull T decode(@NotNull HttpResponse<byte[]> response, @NotNull Class<T> type) {
+        return decode(response.body(), type);
+    }
+
+    /**
+     * Decodes a JSON body.
+     *
+     * @param body The UTF-8 encoded body.
+     * @param type The type to decode.
+     * @return The decoded body.
+     * @param <T> The type to decode.
+     */
+    public static <T> @NotNull T decode(byte @NotNull [] body, @NotNull Class<T> type) {
+        T value = GsonProvider.get().fromJson(new Utf8Reader(body), type);
+        if (value == null) {
+            throw new RuntimeException("Failed to decode " + type.getSimpleName() + ": the response body is empty");
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a response body as text, i.e. to include an error response in an exception.
+     *
+     * @param response The response, whose body was received with {@link HttpResponse.BodyHandlers#ofByteArray()}.
+     * @return The body.
+     */
+    public static @NotNull String asString(@NotNull HttpResponse<byte[]> response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a JSON request body.
+     *
+     * @param bodyWriter The writer of the body.
+     * @return The body.
+     */
+    public static @NotNull String write(@NotNull BodyWriter bodyWriter) {
+        StringWriter stringWriter = new StringWriter(256);
+        try (JsonWriter writer = new JsonWriter(stringWriter)) {
+            bodyWriter.write(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write request body", e); // never thrown by a StringWriter
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Writes a JSON body.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(@NotNull JsonWriter writer) throws IOException;
+    }
+}
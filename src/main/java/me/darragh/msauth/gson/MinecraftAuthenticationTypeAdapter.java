@@ -0,0 +1,46 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.darragh.msauth.client.MinecraftClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Adapts the response of Minecraft's Xbox login endpoint. The roles and metadata are skipped.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class MinecraftAuthenticationTypeAdapter extends RecordTypeAdapter<MinecraftClient.MinecraftAuthentication> {
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull MinecraftClient.MinecraftAuthentication authentication) throws IOException {
+        writer.beginObject()
+                .name("username").value(authentication.uuid())
+                .name("access_token").value(authentication.accessToken())
+                .name("expires_in").value(authentication.expiresIn())
+                .name("token_type").value(authentication.tokenType())
+                .endObject();
+    }
+
+    @Override
+    public @NotNull MinecraftClient.MinecraftAuthentication read(@NotNull JsonReader reader) throws IOException {
+        String uuid = null, accessToken = null, tokenType = null;
+        int expiresIn = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "username" -> uuid = nextString(reader);
+                case "access_token" -> accessToken = nextString(reader);
+                case "expires_in" -> expiresIn = nextInt(reader);
+                case "token_type" -> tokenType = nextString(reader);
+                default -> reader.skipValue(); // roles, metadata
+            }
+        }
+        reader.endObject();
+
+        return new MinecraftClient.MinecraftAuthentication(uuid, accessToken, expiresIn, tokenType);
+    }
+}
@@ -0,0 +1,145 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import me.darragh.msauth.minecraft.MinecraftCape;
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import me.darragh.msauth.minecraft.MinecraftSkin;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapts Minecraft profiles, along with their skins and capes. Unknown fields, such as the profile actions, are skipped.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class MinecraftProfileTypeAdapter extends RecordTypeAdapter<MinecraftProfile> {
+    private static final MinecraftSkin[] NO_SKINS = new MinecraftSkin[0];
+    private static final MinecraftCape[] NO_CAPES = new MinecraftCape[0];
+
+    static final RecordTypeAdapter<MinecraftSkin> SKIN = new RecordTypeAdapter<>() {
+        @Override
+        public void write(@NotNull JsonWriter writer, @NotNull MinecraftSkin skin) throws IOException {
+            writer.beginObject()
+                    .name("id").value(skin.id())
+                    .name("state").value(skin.state())
+                    .name("url").value(skin.url())
+                    .name("textureKey").value(skin.textureKey())
+                    .name("variant").value(skin.variant())
+                    .endObject();
+        }
+
+        @Override
+        public @NotNull MinecraftSkin read(@NotNull JsonReader reader) throws IOException {
+            String id = null, state = null, url = null, textureKey = null, variant = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = nextString(reader);
+                    case "state" -> state = nextString(reader);
+                    case "url" -> url = nextString(reader);
+                    case "textureKey" -> textureKey = nextString(reader);
+                    case "variant" -> variant = nextString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return new MinecraftSkin(id, state, url, textureKey, variant);
+        }
+    };
+
+    static final RecordTypeAdapter<MinecraftCape> CAPE = new RecordTypeAdapter<>() {
+        @Override
+        public void write(@NotNull JsonWriter writer, @NotNull MinecraftCape cape) throws IOException {
+            writer.beginObject()
+                    .name("id").value(cape.id())
+                    .name("state").value(cape.state())
+                    .name("url").value(cape.url())
+                    .name("alias").value(cape.alias())
+                    .endObject();
+        }
+
+        @Override
+        public @NotNull MinecraftCape read(@NotNull JsonReader reader) throws IOException {
+            String id = null, state = null, url = null, alias = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = nextString(reader);
+                    case "state" -> state = nextString(reader);
+                    case "url" -> url = nextString(reader);
+                    case "alias" -> alias = nextString(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return new MinecraftCape(id, state, url, alias);
+        }
+    };
+
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull MinecraftProfile profile) throws IOException {
+        writer.beginObject()
+                .name("id").value(profile.id())
+                .name("name").value(profile.username());
+        writer.name("skins").beginArray();
+        for (MinecraftSkin skin : profile.skins()) {
+            SKIN.write(writer, skin);
+        }
+        writer.endArray();
+        writer.name("capes").beginArray();
+        for (MinecraftCape cape : profile.capes()) {
+            CAPE.write(writer, cape);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    @Override
+    public @NotNull MinecraftProfile read(@NotNull JsonReader reader) throws IOException {
+        String id = null, username = null;
+        MinecraftSkin[] skins = NO_SKINS;
+        MinecraftCape[] capes = NO_CAPES;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = nextString(reader);
+                case "name" -> username = nextString(reader);
+                case "skins" -> skins = readArray(reader, SKIN).toArray(NO_SKINS);
+                case "capes" -> capes = readArray(reader, CAPE).toArray(NO_CAPES);
+                default -> reader.skipValue(); // profileActions
+            }
+        }
+        reader.endObject();
+
+        if (id == null) {
+            throw new JsonParseException("Minecraft profile is missing its ID");
+        }
+        return new MinecraftProfile(id, username, skins, capes);
+    }
+
+    private static <T> @NotNull List<T> readArray(@NotNull JsonReader reader, @NotNull RecordTypeAdapter<T> adapter) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return List.of();
+        }
+        List<T> elements = new ArrayList<>(2);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            elements.add(adapter.read(reader));
+        }
+        reader.endArray();
+        return elements;
+    }
+}
@@ -0,0 +1,50 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.darragh.msauth.oauth2.OAuthMicrosoftClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Adapts the tokens returned by Microsoft's OAuth2 token endpoints.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class OAuthTokensTypeAdapter extends RecordTypeAdapter<OAuthMicrosoftClient.OAuthTokens> {
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull OAuthMicrosoftClient.OAuthTokens tokens) throws IOException {
+        writer.beginObject()
+                .name("token_type").value(tokens.tokenType())
+                .name("expires_in").value(tokens.expiresIn())
+                .name("scope").value(tokens.scope())
+                .name("access_token").value(tokens.accessToken())
+                .name("refresh_token").value(tokens.refreshToken())
+                .name("user_id").value(tokens.userId())
+                .endObject();
+    }
+
+    @Override
+    public @NotNull OAuthMicrosoftClient.OAuthTokens read(@NotNull JsonReader reader) throws IOException {
+        String tokenType = null, scope = null, accessToken = null, refreshToken = null, userId = null;
+        int expiresIn = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "token_type" -> tokenType = nextString(reader);
+                case "expires_in" -> expiresIn = nextInt(reader);
+                case "scope" -> scope = nextString(reader);
+                case "access_token" -> accessToken = nextString(reader);
+                case "refresh_token" -> refreshToken = nextString(reader);
+                case "user_id" -> userId = nextString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new OAuthMicrosoftClient.OAuthTokens(tokenType, expiresIn, scope, accessToken, refreshToken, userId);
+    }
+}
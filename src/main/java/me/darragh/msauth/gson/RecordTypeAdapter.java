@@ -0,0 +1,37 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * The base of the hand-written adapters for the records exchanged with Microsoft's and Minecraft's services.
+ * <p>
+ * Adapters read fields in a single pass, straight into the record's constructor, and skip unknown fields without materialising them.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of record.
+ */
+abstract class RecordTypeAdapter<T> extends TypeAdapter<T> {
+    protected static @Nullable String nextString(@NotNull JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    protected static int nextInt(@NotNull JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextInt();
+    }
+}
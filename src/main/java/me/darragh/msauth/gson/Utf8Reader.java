@@ -0,0 +1,91 @@
+package me.darragh.msauth.gson;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Reader;
+
+/**
+ * A reader decoding UTF-8 straight from a byte array, into the caller's buffer.
+ * <p>
+ * Unlike an {@link java.io.InputStreamReader}, no intermediate byte or character buffers are allocated, which dominate the cost of
+ * decoding the small bodies returned by Microsoft's and Minecraft's services. Malformed sequences are replaced with U+FFFD.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class Utf8Reader extends Reader {
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final byte[] bytes;
+    private int position;
+    private char pendingLowSurrogate; // the second half of a supplementary character, or 0
+
+    Utf8Reader(byte @NotNull [] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public int read(char @NotNull [] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        int count = 0;
+        if (this.pendingLowSurrogate != 0) {
+            buffer[offset + count++] = this.pendingLowSurrogate;
+            this.pendingLowSurrogate = 0;
+        }
+
+        byte[] bytes = this.bytes;
+        int position = this.position;
+        while (count < length && position < bytes.length) {
+            int b = bytes[position];
+            if (b >= 0) { // ASCII, which is almost every byte of a JSON body
+                buffer[offset + count++] = (char) b;
+                position++;
+                continue;
+            }
+
+            int codePoint, size;
+            if ((b & 0xE0) == 0xC0) {
+                codePoint = b & 0x1F;
+                size = 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                codePoint = b & 0x0F;
+                size = 3;
+            } else if ((b & 0xF8) == 0xF0) {
+                codePoint = b & 0x07;
+                size = 4;
+            } else {
+                buffer[offset + count++] = REPLACEMENT;
+                position++;
+                continue;
+            }
+
+            int i = 1;
+            for (; i < size && position + i < bytes.length && (bytes[position + i] & 0xC0) == 0x80; i++) {
+                codePoint = (codePoint << 6) | (bytes[position + i] & 0x3F);
+            }
+            position += i;
+            if (i < size || codePoint < (size == 2 ? 0x80 : size == 3 ? 0x800 : 0x10000) || codePoint > Character.MAX_CODE_POINT
+                    || Character.isSurrogate((char) codePoint) && codePoint <= 0xFFFF) {
+                buffer[offset + count++] = REPLACEMENT; // truncated, overlong or out of range
+            } else if (codePoint < 0x10000) {
+                buffer[offset + count++] = (char) codePoint;
+            } else {
+                buffer[offset + count++] = Character.highSurrogate(codePoint);
+                if (count < length) {
+                    buffer[offset + count++] = Character.lowSurrogate(codePoint);
+                } else {
+                    this.pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                }
+            }
+        }
+        this.position = position;
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,138 @@
+package me.darragh.msauth.gson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import me.darragh.msauth.client.XboxToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Adapts the responses of the Xbox Live (XBL) and Xbox Secure Token Service (XSTS) authentication endpoints, which share a format.
+ * Only the token, its expiry and the first user hash are read.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class XboxTokenTypeAdapter extends RecordTypeAdapter<XboxToken> {
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull XboxToken token) throws IOException {
+        writer.beginObject()
+                .name("NotAfter").value(token.notAfter().toString())
+                .name("Token").value(token.token())
+                .name("DisplayClaims").beginObject()
+                    .name("xui").beginArray()
+                        .beginObject().name("uhs").value(token.userHash()).endObject()
+                    .endArray()
+                .endObject()
+                .endObject();
+    }
+
+    @Override
+    public @NotNull XboxToken read(@NotNull JsonReader reader) throws IOException {
+        String token = null, userHash = null, notAfter = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Token" -> token = nextString(reader);
+                case "NotAfter" -> notAfter = nextString(reader);
+                case "DisplayClaims" -> userHash = readUserHash(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (token == null || userHash == null || notAfter == null) {
+            throw new JsonParseException("Xbox token response is missing its token, user hash or expiry");
+        }
+        try {
+            return new XboxToken(token, userHash, parseInstant(notAfter));
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException("Failed to parse Xbox token expiry: " + notAfter, e);
+        }
+    }
+
+    /**
+     * Parses a UTC timestamp, i.e. {@code 2024-01-01T16:00:00.1234567Z}, without the formatter machinery of {@link Instant#parse}.
+     * Any other format is left to {@link Instant#parse}.
+     */
+    static @NotNull Instant parseInstant(@NotNull String text) {
+        int length = text.length();
+        if (length < 20 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' || text.charAt(13) != ':'
+                || text.charAt(16) != ':' || text.charAt(length - 1) != 'Z' || (length > 20 && (text.charAt(19) != '.' || length > 30))) {
+            return Instant.parse(text);
+        }
+
+        int year = digits(text, 0, 4), month = digits(text, 5, 7), day = digits(text, 8, 10),
+                hour = digits(text, 11, 13), minute = digits(text, 14, 16), second = digits(text, 17, 19);
+        int nanos = 0;
+        if (length > 21) {
+            nanos = digits(text, 20, length - 1);
+            for (int i = length - 1 - 20; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || nanos < 0) {
+            return Instant.parse(text); // reports the error
+        }
+        try {
+            long epochDay = LocalDate.of(year, month, day).toEpochDay();
+            return Instant.ofEpochSecond(epochDay * 86400 + hour * 3600L + minute * 60L + second, nanos);
+        } catch (DateTimeException e) { // i.e. 31st of February
+            return Instant.parse(text);
+        }
+    }
+
+    private static int digits(@NotNull String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Reads the first user hash from the display claims, i.e. {@code {"xui": [{"uhs": "..."}]}}.
+     */
+    private static String readUserHash(@NotNull JsonReader reader) throws IOException {
+        String userHash = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("xui")) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (userHash != null) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("uhs")) {
+                        userHash = nextString(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+
+        return userHash;
+    }
+}
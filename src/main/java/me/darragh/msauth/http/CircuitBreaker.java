@@ -0,0 +1,137 @@
+package me.darragh.msauth.http;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A circuit breaker guarding a single host, failing requests fast whilst the host is down rather than adding to its load.
+ * <p>
+ * The breaker opens once the given number of consecutive requests have failed (with a server error or an I/O error). Whilst open, requests
+ * are rejected without being sent. Once the open duration has elapsed, a single probe request is let through: if it succeeds the breaker
+ * closes, otherwise it opens again. A probe which never completes is replaced after another open duration.
+ * <p>
+ * Whilst closed, checking the breaker is a single volatile read.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public final class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile @NotNull State state = State.CLOSED;
+    private long openedAtNanos; // guarded by this, whilst open or half-open
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold The number of consecutive failures opening the breaker.
+     * @param openDuration The time for which the breaker stays open before probing the host.
+     */
+    public CircuitBreaker(int failureThreshold, @NotNull Duration openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        if (openDuration.isNegative()) {
+            throw new IllegalArgumentException("Open duration must not be negative");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Checks whether a request may be sent, admitting it as the probe if the breaker has been open for long enough.
+     *
+     * @return True if the request may be sent, false if it should be rejected.
+     */
+    public boolean tryAcquire() {
+        if (this.state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (this.state == State.CLOSED) {
+                return true;
+            }
+            long now = System.nanoTime();
+            if (now - this.openedAtNanos < this.openNanos) {
+                return false;
+            }
+            this.state = State.HALF_OPEN;
+            this.openedAtNanos = now;
+            return true;
+        }
+    }
+
+    /**
+     * Records that a request succeeded, i.e. the host responded without a server error.
+     */
+    public void onSuccess() {
+        if (this.consecutiveFailures.get() != 0) {
+            this.consecutiveFailures.set(0);
+        }
+        if (this.state != State.CLOSED) {
+            synchronized (this) {
+                this.state = State.CLOSED;
+            }
+        }
+    }
+
+    /**
+     * Records that a request failed, opening the breaker if it was probing, or if the failure threshold has been reached.
+     */
+    public void onFailure() {
+        int failures = this.consecutiveFailures.incrementAndGet();
+        if (this.state == State.CLOSED && failures < this.failureThreshold) {
+            return;
+        }
+        synchronized (this) {
+            if (this.state == State.HALF_OPEN || (this.state == State.CLOSED && this.consecutiveFailures.get() >= this.failureThreshold)) {
+                this.state = State.OPEN;
+                this.openedAtNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * The state of the breaker.
+     *
+     * @return The state.
+     */
+    public @NotNull State getState() {
+        return this.state;
+    }
+
+    /**
+     * The time remaining until the breaker next admits a probe.
+     *
+     * @return The remaining time, or zero if a request would be admitted.
+     */
+    public synchronized @NotNull Duration getRemainingOpenDuration() {
+        if (this.state == State.CLOSED) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0L, this.openNanos - (System.nanoTime() - this.openedAtNanos)));
+    }
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Requests are sent.
+         */
+        CLOSED,
+        /**
+         * Requests are rejected without being sent.
+         */
+        OPEN,
+        /**
+         * A probe request has been sent, and other requests are rejected until it completes.
+         */
+        HALF_OPEN
+    }
+}
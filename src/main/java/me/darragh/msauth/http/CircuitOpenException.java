@@ -0,0 +1,31 @@
+package me.darragh.msauth.http;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Thrown when a request is rejected without being sent, as the circuit breaker of its host is open.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@Getter
+public class CircuitOpenException extends IOException {
+    private final @NotNull String host;
+    private final @NotNull Duration remainingOpenDuration;
+
+    /**
+     * Creates an exception for a host whose circuit breaker is open.
+     *
+     * @param host The host.
+     * @param remainingOpenDuration The time remaining until the breaker next admits a request.
+     */
+    public CircuitOpenException(@NotNull String host, @NotNull Duration remainingOpenDuration) {
+        super("Circuit breaker for " + host + " is open, retry in " + remainingOpenDuration.toMillis() + "ms");
+        this.host = host;
+        this.remainingOpenDuration = remainingOpenDuration;
+    }
+}
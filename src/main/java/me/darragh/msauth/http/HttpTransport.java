@@ -0,0 +1,695 @@
+package me.darragh.msauth.http;
+
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.metrics.AuthHopEvent;
+import me.darragh.msauth.metrics.AuthMetrics;
+import me.darragh.msauth.util.FutureUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The shared HTTP transport used by every service client.
+ * <p>
+ * A single {@link HttpClient} owns its own selector thread and connection pool, so sharing one transport
+ * between clients (and logins) means TLS handshakes and HTTP/2 connections are paid once per host rather than once per login.
+ * <p>
+ * Asynchronous responses are processed (i.e. decoded from JSON) on the transport's response executor, rather than on the HTTP client's own threads.
+ * <p>
+ * Requests may be rate limited per host. Blocking requests wait for their permit, whereas asynchronous requests are scheduled for when it becomes available.
+ * <p>
+ * Requests attributed to a stage of the login chain are reported to the transport's {@link AuthMetrics}, unless it is the no-op default, and
+ * emitted as {@link AuthHopEvent}s whilst a flight recording enables them. Their transient failures are retried as per the transport's
+ * {@link RetryPolicy}, each attempt being reported on its own.
+ * <p>
+ * Each host may be guarded by a {@link CircuitBreaker}, in which case requests to a host which keeps failing are rejected with a
+ * {@link CircuitOpenException} until it recovers.
+ *
+ * @apiNote This class is thread-safe, and is intended to be shared.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public final class HttpTransport {
+    private static final HttpTransport DEFAULT = builder().build();
+
+    private final HttpClient httpClient;
+    private final Executor responseExecutor;
+    private final Map<String, RateLimiter> rateLimiters;
+    private final AuthMetrics metrics;
+    private final boolean recordingMetrics;
+    private final RetryPolicy retryPolicy;
+    private final int circuitBreakerThreshold;
+    private final Duration circuitBreakerOpenDuration;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private HttpTransport(@NotNull HttpClient httpClient, @NotNull Builder builder) {
+        this.httpClient = httpClient;
+        this.responseExecutor = builder.responseExecutor;
+        this.rateLimiters = Map.copyOf(builder.rateLimiters);
+        this.metrics = builder.metrics;
+        this.recordingMetrics = builder.metrics != AuthMetrics.noop();
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreakerThreshold = builder.circuitBreakerThreshold;
+        this.circuitBreakerOpenDuration = builder.circuitBreakerOpenDuration;
+    }
+
+    /**
+     * Returns the default, process-wide transport.
+     *
+     * @return The default transport.
+     */
+    public static @NotNull HttpTransport get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new builder for a custom transport.
+     *
+     * @return The builder.
+     */
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The underlying HTTP client.
+     *
+     * @return The HTTP client.
+     */
+    public @NotNull HttpClient httpClient() {
+        return this.httpClient;
+    }
+
+    /**
+     * The executor used to process asynchronous responses.
+     *
+     * @return The response executor.
+     */
+    public @NotNull Executor responseExecutor() {
+        return this.responseExecutor;
+    }
+
+    /**
+     * The metrics listener requests are reported to.
+     *
+     * @return The metrics listener.
+     */
+    public @NotNull AuthMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * The policy by which failed requests are retried.
+     *
+     * @return The retry policy.
+     */
+    public @NotNull RetryPolicy retryPolicy() {
+        return this.retryPolicy;
+    }
+
+    /**
+     * The circuit breaker guarding the given host.
+     *
+     * @param host The host, i.e. {@code xsts.auth.xboxlive.com}.
+     * @return The circuit breaker, or {@code null} if circuit breaking is disabled or no request has been sent to the host.
+     */
+    public @Nullable CircuitBreaker circuitBreaker(@NotNull String host) {
+        return this.circuitBreakers.get(host);
+    }
+
+    /**
+     * Sends a request, blocking until the response has been received.
+     *
+     * @param request The request to send.
+     * @param bodyHandler The body handler for the response.
+     * @return The response.
+     * @param <T> The type of the response body.
+     * @throws IOException If an I/O error occurs.
+     * @throws InterruptedException If the calling thread is interrupted.
+     */
+    public <T> @NotNull HttpResponse<T> send(@NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        return this.send(null, null, request, bodyHandler);
+    }
+
+    /**
+     * Sends a request for a stage of the login chain, blocking until the response has been received.
+     *
+     * @param stage The stage the request is reported and retried as, or {@code null} if it should be neither.
+     * @param account An identifier of the account shared by every request of the login chain, which is only ever reported hashed, or {@code null} if unknown.
+     * @param request The request to send.
+     * @param bodyHandler The body handler for the response.
+     * @return The response.
+     * @param <T> The type of the response body.
+     * @throws IOException If an I/O error occurs.
+     * @throws InterruptedException If the calling thread is interrupted.
+     * @since 1.2.0
+     */
+    public <T> @NotNull HttpResponse<T> send(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                             @NotNull HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<T> response = null;
+            IOException failure = null;
+            try {
+                response = this.attempt(stage, account, request, bodyHandler);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            long delay = this.retryDelay(stage, attempt, response, failure);
+            if (delay < 0L) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            this.metrics.onRetry(stage, attempt + 1);
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+
+    /**
+     * Sends a request asynchronously.
+     *
+     * @param request The request to send.
+     * @param bodyHandler The body handler for the response.
+     * @return A future completed with the response.
+     * @param <T> The type of the response body.
+     */
+    public <T> @NotNull CompletableFuture<HttpResponse<T>> sendAsync(@NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        return this.sendAsync(null, null, request, bodyHandler);
+    }
+
+    /**
+     * Sends a request for a stage of the login chain asynchronously.
+     *
+     * @param stage The stage the request is reported and retried as, or {@code null} if it should be neither.
+     * @param account An identifier of the account shared by every request of the login chain, which is only ever reported hashed, or {@code null} if unknown.
+     * @param request The request to send.
+     * @param bodyHandler The body handler for the response.
+     * @return A future completed with the response.
+     * @param <T> The type of the response body.
+     * @since 1.2.0
+     */
+    public <T> @NotNull CompletableFuture<HttpResponse<T>> sendAsync(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                                                     @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        if (stage == null || this.retryPolicy.maxAttempts() == 1) {
+            return this.attemptAsync(stage, account, request, bodyHandler);
+        }
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        this.retryAsync(stage, account, request, bodyHandler, 1, result);
+        return result;
+    }
+
+    /**
+     * Sends a request asynchronously, processing the response on the response executor.
+     * <p>
+     * Cancelling the returned future cancels the underlying exchange.
+     *
+     * @param request The request to send.
+     * @param bodyHandler The body handler for the response.
+     * @param processor The function processing the response.
+     * @return A future completed with the processed response.
+     * @param <T> The type of the response body.
+     * @param <R> The type of the processed response.
+     */
+    public <T, R> @NotNull CompletableFuture<R> sendAsync(@NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler,
+                                                          @NotNull Function<HttpResponse<T>, R> processor) {
+        return this.sendAsync(null, null, request, bodyHandler, processor);
+    }
+
+    /**
+     * Sends a request for a stage of the login chain asynchronously, processing the response on the response executor.
+     * <p>
+     * Cancelling the returned future cancels the underlying exchange.
+     *
+     * @param stage The stage the request is reported and retried as, or {@code null} if it should be neither.
+     * @param account An identifier of the account shared by every request of the login chain, which is only ever reported hashed, or {@code null} if unknown.
+     * @param request The request to send.
+     * @param bodyHandler The body handler for the response.
+     * @param processor The function processing the response.
+     * @return A future completed with the processed response.
+     * @param <T> The type of the response body.
+     * @param <R> The type of the processed response.
+     * @since 1.2.0
+     */
+    public <T, R> @NotNull CompletableFuture<R> sendAsync(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                                          @NotNull HttpResponse.BodyHandler<T> bodyHandler, @NotNull Function<HttpResponse<T>, R> processor) {
+        CompletableFuture<HttpResponse<T>> exchange = this.sendAsync(stage, account, request, bodyHandler);
+        CompletableFuture<R> result = exchange.thenApplyAsync(processor, this.responseExecutor);
+        result.whenComplete((r, throwable) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    //region Attempts
+    /**
+     * Makes an attempt, then schedules the next if it failed transiently, until the result is completed.
+     * <p>
+     * Cancelling the result cancels the attempt in flight, and stops any further attempts.
+     */
+    private <T> void retryAsync(@NotNull AuthStage stage, @Nullable String account, @NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler,
+                                int attempt, @NotNull CompletableFuture<HttpResponse<T>> result) {
+        CompletableFuture<HttpResponse<T>> exchange = this.attemptAsync(stage, account, request, bodyHandler);
+        result.whenComplete((r, throwable) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        exchange.whenComplete((response, throwable) -> {
+            long delay = this.retryDelay(stage, attempt, response, throwable);
+            if (delay < 0L) {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            this.metrics.onRetry(stage, attempt + 1);
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (!result.isDone()) {
+                    this.retryAsync(stage, account, request, bodyHandler, attempt + 1, result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Determines the delay before retrying an attempt.
+     *
+     * @param stage The stage the request is attributed to, or {@code null} if none.
+     * @param attempt The attempt, starting from 1.
+     * @param response The response, or {@code null} if the attempt failed without one.
+     * @param throwable The failure, or {@code null} if a response was received.
+     * @return The delay, in nanoseconds, or -1 if the attempt should not be retried.
+     */
+    private long retryDelay(@Nullable AuthStage stage, int attempt, @Nullable HttpResponse<?> response, @Nullable Throwable throwable) {
+        if (stage == null || attempt >= this.retryPolicy.maxAttempts()) {
+            return -1L;
+        }
+        if (response == null) {
+            Throwable cause = throwable == null ? null : FutureUtil.unwrap(throwable);
+            boolean retryable = cause instanceof IOException && !(cause instanceof CircuitOpenException) && stage.isIdempotent();
+            return retryable ? this.retryPolicy.backoffNanos(attempt) : -1L;
+        }
+
+        int statusCode = response.statusCode();
+        boolean throttled = statusCode == 429;
+        if (!throttled && !(stage.isIdempotent() && (statusCode == 502 || statusCode == 503 || statusCode == 504))) {
+            return -1L;
+        }
+        long backoff = this.retryPolicy.backoffNanos(attempt);
+        Duration retryAfter = RetryPolicy.parseRetryAfter(response);
+        if (retryAfter == null) {
+            return backoff;
+        }
+        if (retryAfter.compareTo(this.retryPolicy.maxRetryAfter()) > 0) {
+            return -1L;
+        }
+        return Math.max(backoff, retryAfter.toNanos());
+    }
+
+    /**
+     * Makes a single attempt at sending the request, once its host's circuit breaker and rate limit permit, reporting it if it is attributed to a stage.
+     */
+    private <T> @NotNull HttpResponse<T> attempt(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                                 @NotNull HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        CircuitBreaker circuitBreaker = this.acquireCircuitBreaker(request);
+        long delay = this.reservePermit(request);
+        if (delay > 0L) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+        try {
+            HttpResponse<T> response = this.exchange(stage, account, request, bodyHandler);
+            recordOutcome(circuitBreaker, response, null);
+            return response;
+        } catch (IOException e) {
+            recordOutcome(circuitBreaker, null, e);
+            throw e;
+        }
+    }
+
+    private <T> @NotNull HttpResponse<T> exchange(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                                  @NotNull HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        AuthHopEvent event = stage != null && AuthHopEvent.isTypeEnabled() ? new AuthHopEvent() : null;
+        if (stage == null || (!this.recordingMetrics && event == null)) {
+            return this.httpClient.send(request, bodyHandler);
+        }
+
+        this.metrics.onRequestStart(stage);
+        if (event != null) {
+            event.begin();
+        }
+        long startNanos = System.nanoTime();
+        try {
+            HttpResponse<T> response = this.httpClient.send(request, bodyHandler);
+            this.recordResponse(stage, account, request, response, startNanos, event);
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            this.recordFailure(stage, account, request, e, startNanos, event);
+            throw e;
+        }
+    }
+
+    /**
+     * Makes a single attempt at sending the request asynchronously, once its host's circuit breaker and rate limit permit.
+     */
+    private <T> @NotNull CompletableFuture<HttpResponse<T>> attemptAsync(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                                                        @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        CircuitBreaker circuitBreaker;
+        try {
+            circuitBreaker = this.acquireCircuitBreaker(request);
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long delay = this.reservePermit(request);
+        CompletableFuture<HttpResponse<T>> exchange = delay <= 0L
+                ? this.exchangeAsync(stage, account, request, bodyHandler)
+                : this.exchangeAsyncAfter(delay, stage, account, request, bodyHandler);
+        if (circuitBreaker != null) {
+            exchange.whenComplete((response, throwable) -> recordOutcome(circuitBreaker, response, throwable));
+        }
+        return exchange;
+    }
+
+    /**
+     * Sends the request once the delay has elapsed, unless the returned future has been cancelled by then.
+     * <p>
+     * Cancelling the returned future after the request has been sent cancels the underlying exchange.
+     */
+    private <T> @NotNull CompletableFuture<HttpResponse<T>> exchangeAsyncAfter(long delay, @Nullable AuthStage stage, @Nullable String account,
+                                                                              @NotNull HttpRequest request, @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone()) {
+                return; // cancelled whilst waiting for the permit
+            }
+            CompletableFuture<HttpResponse<T>> exchange;
+            try {
+                exchange = this.exchangeAsync(stage, account, request, bodyHandler);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            result.whenComplete((response, throwable) -> {
+                if (result.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+            exchange.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(response);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Sends the request, reporting it if it is attributed to a stage.
+     * <p>
+     * The event is committed by whichever thread completes the exchange, so is attributed to that thread in recordings.
+     */
+    private <T> @NotNull CompletableFuture<HttpResponse<T>> exchangeAsync(@Nullable AuthStage stage, @Nullable String account, @NotNull HttpRequest request,
+                                                                         @NotNull HttpResponse.BodyHandler<T> bodyHandler) {
+        AuthHopEvent event = stage != null && AuthHopEvent.isTypeEnabled() ? new AuthHopEvent() : null;
+        if (stage == null || (!this.recordingMetrics && event == null)) {
+            return this.httpClient.sendAsync(request, bodyHandler);
+        }
+
+        this.metrics.onRequestStart(stage);
+        if (event != null) {
+            event.begin();
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> exchange = this.httpClient.sendAsync(request, bodyHandler);
+        exchange.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                this.recordFailure(stage, account, request, throwable, startNanos, event);
+            } else {
+                this.recordResponse(stage, account, request, response, startNanos, event);
+            }
+        });
+        return exchange;
+    }
+
+    //endregion
+
+    //region Reporting
+    private void recordResponse(@NotNull AuthStage stage, @Nullable String account, @NotNull HttpRequest request, @NotNull HttpResponse<?> response,
+                                long startNanos, @Nullable AuthHopEvent event) {
+        long durationNanos = System.nanoTime() - startNanos;
+        if (event != null) {
+            event.complete(stage, request.uri().getHost(), response.statusCode(), account, null);
+        }
+        if (this.recordingMetrics) {
+            // A request without a body sends nothing, whereas a streamed body reports its length as -1 (unknown)
+            long bytesSent = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+            long bytesReceived = response.body() instanceof byte[] body
+                    ? body.length
+                    : response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+            this.metrics.onResponse(stage, response.statusCode(), durationNanos, bytesSent, bytesReceived);
+        }
+    }
+
+    private void recordFailure(@NotNull AuthStage stage, @Nullable String account, @NotNull HttpRequest request, @NotNull Throwable throwable,
+                               long startNanos, @Nullable AuthHopEvent event) {
+        long durationNanos = System.nanoTime() - startNanos;
+        if (event != null) {
+            event.complete(stage, request.uri().getHost(), AuthenticationException.NO_RESPONSE, account, throwable);
+        }
+        this.metrics.onFailure(stage, durationNanos, throwable);
+    }
+
+    /**
+     * Records the outcome of an attempt with its host's circuit breaker. Server errors and I/O errors count as failures, whereas
+     * cancellations are ignored.
+     */
+    private static void recordOutcome(@Nullable CircuitBreaker circuitBreaker, @Nullable HttpResponse<?> response, @Nullable Throwable throwable) {
+        if (circuitBreaker == null) {
+            return;
+        }
+        if (response != null) {
+            if (response.statusCode() >= 500) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        } else if (throwable != null && !(FutureUtil.unwrap(throwable) instanceof CancellationException)) {
+            circuitBreaker.onFailure();
+        }
+    }
+    //endregion
+
+    /**
+     * Checks the circuit breaker of the request's host, if circuit breaking is enabled.
+     *
+     * @param request The request.
+     * @return The circuit breaker, or {@code null} if circuit breaking is disabled.
+     * @throws CircuitOpenException If the circuit breaker is open.
+     */
+    private @Nullable CircuitBreaker acquireCircuitBreaker(@NotNull HttpRequest request) throws CircuitOpenException {
+        if (this.circuitBreakerThreshold == 0) {
+            return null;
+        }
+        String host = request.uri().getHost();
+        CircuitBreaker circuitBreaker = this.circuitBreakers.computeIfAbsent(host,
+                ignored -> new CircuitBreaker(this.circuitBreakerThreshold, this.circuitBreakerOpenDuration));
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException(host, circuitBreaker.getRemainingOpenDuration());
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Reserves a permit for the request's host, if it is rate limited.
+     *
+     * @param request The request.
+     * @return The delay, in nanoseconds, before the request may be sent.
+     */
+    private long reservePermit(@NotNull HttpRequest request) {
+        if (this.rateLimiters.isEmpty()) {
+            return 0L;
+        }
+        RateLimiter rateLimiter = this.rateLimiters.get(request.uri().getHost());
+        return rateLimiter == null ? 0L : rateLimiter.reserve();
+    }
+
+    /**
+     * Builder for {@link HttpTransport}.
+     */
+    public static class Builder {
+        private @Nullable HttpClient httpClient;
+        private @NotNull Duration connectTimeout = Duration.ofSeconds(30);
+        private @NotNull HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private @Nullable Executor executor;
+        private @NotNull Executor responseExecutor = ForkJoinPool.commonPool();
+        private final Map<String, RateLimiter> rateLimiters = new HashMap<>();
+        private @NotNull AuthMetrics metrics = AuthMetrics.noop();
+        private @NotNull RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+        private int circuitBreakerThreshold;
+        private @NotNull Duration circuitBreakerOpenDuration = Duration.ZERO;
+
+        private Builder() {
+        }
+
+        /**
+         * Uses a pre-configured HTTP client instead of building one.
+         *
+         * @apiNote The client must not follow redirects, as the cookie flow relies on reading the Location header.
+         * @param httpClient The HTTP client.
+         * @return The current Builder instance for chaining.
+         */
+        public Builder httpClient(@NotNull HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Sets the connection timeout.
+         *
+         * @param connectTimeout The connection timeout.
+         * @return The current Builder instance for chaining.
+         */
+        public Builder connectTimeout(@NotNull Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the preferred HTTP version. HTTP/2 is preferred by default and falls back to HTTP/1.1 with keep-alive.
+         *
+         * @param version The preferred HTTP version.
+         * @return The current Builder instance for chaining.
+         */
+        public Builder version(@NotNull HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * Sets the executor used by the HTTP client for its asynchronous work.
+         *
+         * @param executor The executor.
+         * @return The current Builder instance for chaining.
+         */
+        public Builder executor(@NotNull Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the executor used to process (decode) asynchronous responses.
+         * <p>
+         * A bounded executor is recommended. By default, the common fork-join pool is used.
+         *
+         * @param responseExecutor The response executor.
+         * @return The current Builder instance for chaining.
+         */
+        public Builder responseExecutor(@NotNull Executor responseExecutor) {
+            this.responseExecutor = responseExecutor;
+            return this;
+        }
+
+        /**
+         * Limits the rate of requests sent to a host.
+         *
+         * @param host The host, i.e. {@code user.auth.xboxlive.com}.
+         * @param permitsPerSecond The maximum number of requests per second.
+         * @return The current Builder instance for chaining.
+         */
+        public Builder rateLimit(@NotNull String host, double permitsPerSecond) {
+            this.rateLimiters.put(host, new RateLimiter(permitsPerSecond));
+            return this;
+        }
+
+        /**
+         * Reports the requests of each stage of the login chain to the given metrics listener.
+         *
+         * @param metrics The metrics listener.
+         * @return The current Builder instance for chaining.
+         * @since 1.2.0
+         */
+        public Builder metrics(@NotNull AuthMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the policy by which the failed requests of a login chain are retried. By default, {@link RetryPolicy#DEFAULT} is used.
+         *
+         * @param retryPolicy The retry policy, or {@link RetryPolicy#NONE} to disable retries.
+         * @return The current Builder instance for chaining.
+         * @since 1.2.0
+         */
+        public Builder retryPolicy(@NotNull RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Guards each host with a circuit breaker, rejecting requests to a host which keeps failing until it recovers.
+         *
+         * @param failureThreshold The number of consecutive failures opening a host's breaker.
+         * @param openDuration The time for which a breaker stays open before probing its host.
+         * @return The current Builder instance for chaining.
+         * @since 1.2.0
+         */
+        public Builder circuitBreaker(int failureThreshold, @NotNull Duration openDuration) {
+            if (failureThreshold < 1) {
+                throw new IllegalArgumentException("Failure threshold must be at least 1");
+            }
+            if (openDuration.isNegative()) {
+                throw new IllegalArgumentException("Open duration must not be negative");
+            }
+            this.circuitBreakerThreshold = failureThreshold;
+            this.circuitBreakerOpenDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Builds the transport.
+         *
+         * @return The transport.
+         */
+        public @NotNull HttpTransport build() {
+            if (this.httpClient != null) {
+                return new HttpTransport(this.httpClient, this);
+            }
+
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(this.version)
+                    .connectTimeout(this.connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NEVER);
+            if (this.executor != null) {
+                builder.executor(this.executor);
+            }
+            return new HttpTransport(builder.build(), this);
+        }
+    }
+}
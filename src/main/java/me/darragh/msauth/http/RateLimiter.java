@@ -0,0 +1,50 @@
+package me.darragh.msauth.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket rate limiter.
+ * <p>
+ * Permits are reserved rather than waited for, allowing callers to schedule (rather than block for) the resulting delay.
+ * Up to one second's worth of permits may be granted at once after a period of inactivity.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public final class RateLimiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextPermitNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param permitsPerSecond The number of permits granted per second.
+     */
+    public RateLimiter(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Permits per second must be positive");
+        }
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1L) / permitsPerSecond));
+        this.burstNanos = Math.max(0L, (long) (Math.max(1D, permitsPerSecond) - 1D) * this.intervalNanos);
+    }
+
+    /**
+     * Reserves a permit.
+     *
+     * @return The delay, in nanoseconds, before the permit may be used.
+     */
+    public long reserve() {
+        long now = System.nanoTime();
+        while (true) {
+            long next = this.nextPermitNanos.get();
+            long permit = Math.max(next, now - this.burstNanos);
+            if (this.nextPermitNanos.compareAndSet(next, permit + this.intervalNanos)) {
+                return Math.max(0L, permit - now);
+            }
+        }
+    }
+}
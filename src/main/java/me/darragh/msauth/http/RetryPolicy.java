@@ -0,0 +1,126 @@
+package me.darragh.msauth.http;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Represents how the transport retries the requests of a login chain which failed transiently.
+ * <p>
+ * Throttled requests (429s) are retried by every stage, after at least the delay the service advertised in its Retry-After header.
+ * Server errors (502, 503 and 504) and I/O errors are only retried by idempotent stages. Between attempts, the transport backs off
+ * exponentially with full jitter, so that many logins failing at once do not retry in lockstep.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param maxAttempts The maximum number of attempts made per request, including the first. 1 disables retries.
+ * @param initialBackoff The upper bound of the delay before the first retry.
+ * @param maxBackoff The upper bound of the delay before any retry, however many attempts have been made.
+ * @param maxRetryAfter The longest Retry-After delay honoured. Requests asked to wait longer are not retried, but fail.
+ */
+public record RetryPolicy(int maxAttempts,
+                          @NotNull Duration initialBackoff,
+                          @NotNull Duration maxBackoff,
+                          @NotNull Duration maxRetryAfter) {
+    public static final RetryPolicy DEFAULT = new RetryPolicy(
+            3,
+            Duration.ofMillis(250),
+            Duration.ofSeconds(5),
+            Duration.ofSeconds(10)
+    );
+    public static final RetryPolicy NONE = new RetryPolicy(
+            1,
+            Duration.ZERO,
+            Duration.ZERO,
+            Duration.ZERO
+    );
+
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one attempt must be made");
+        }
+        if (initialBackoff.isNegative() || maxBackoff.isNegative() || maxRetryAfter.isNegative()) {
+            throw new IllegalArgumentException("Durations must not be negative");
+        }
+    }
+
+    /**
+     * Returns a copy of this policy making at most the given number of attempts.
+     *
+     * @param maxAttempts The maximum number of attempts, including the first.
+     * @return The policy.
+     */
+    public @NotNull RetryPolicy withMaxAttempts(int maxAttempts) {
+        return new RetryPolicy(maxAttempts, this.initialBackoff, this.maxBackoff, this.maxRetryAfter);
+    }
+
+    /**
+     * Returns a copy of this policy backing off between the given bounds.
+     *
+     * @param initialBackoff The upper bound of the delay before the first retry.
+     * @param maxBackoff The upper bound of the delay before any retry.
+     * @return The policy.
+     */
+    public @NotNull RetryPolicy withBackoff(@NotNull Duration initialBackoff, @NotNull Duration maxBackoff) {
+        return new RetryPolicy(this.maxAttempts, initialBackoff, maxBackoff, this.maxRetryAfter);
+    }
+
+    /**
+     * Returns a copy of this policy honouring Retry-After delays up to the given duration.
+     *
+     * @param maxRetryAfter The longest Retry-After delay honoured.
+     * @return The policy.
+     */
+    public @NotNull RetryPolicy withMaxRetryAfter(@NotNull Duration maxRetryAfter) {
+        return new RetryPolicy(this.maxAttempts, this.initialBackoff, this.maxBackoff, maxRetryAfter);
+    }
+
+    /**
+     * Chooses the delay before retrying, uniformly at random between zero and the exponentially growing bound.
+     *
+     * @param attempt The attempt which failed, starting from 1.
+     * @return The delay, in nanoseconds.
+     */
+    public long backoffNanos(int attempt) {
+        long bound = this.initialBackoff.toNanos();
+        long maxBound = this.maxBackoff.toNanos();
+        for (int i = 1; i < attempt && bound < maxBound; i++) {
+            bound <<= 1;
+        }
+        bound = Math.min(bound, maxBound);
+        return bound <= 0L ? 0L : ThreadLocalRandom.current().nextLong(bound + 1L);
+    }
+
+    /**
+     * Reads the delay advertised by the response's Retry-After header, given either in seconds or as an HTTP date.
+     *
+     * @param response The response.
+     * @return The delay, or {@code null} if the header is absent or malformed.
+     */
+    public static @Nullable Duration parseRetryAfter(@NotNull HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0L, Long.parseLong(value)));
+        } catch (NumberFormatException ignored) {
+            // not a number of seconds, so should be a date
+        }
+        try {
+            Duration delay = Duration.between(Instant.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package me.darragh.msauth.http;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.URI;
+
+/**
+ * Represents the base URIs of the services used to log in, i.e. so that logins may be directed at a stub of the services.
+ * <p>
+ * Each base URI is the scheme and authority of the service, and optionally a path prefix, without a trailing slash. The clients append
+ * the paths of their endpoints to them.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param liveLogin Microsoft's OAuth2 service, used to authorise and to redeem and refresh tokens.
+ * @param microsoftOnlineLogin Microsoft's identity platform, used by the device authorization grant.
+ * @param xboxUserAuthentication Xbox Live's user authentication service.
+ * @param xboxSecureTokenService Xbox Secure Token Service (XSTS).
+ * @param xboxProfile Xbox Live's profile service.
+ * @param xboxSisu Xbox Live's sign-in service, used by cookie logins.
+ * @param minecraftServices Minecraft's services, used to log in and to fetch the profile.
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public record ServiceEndpoints(@NotNull URI liveLogin,
+                               @NotNull URI microsoftOnlineLogin,
+                               @NotNull URI xboxUserAuthentication,
+                               @NotNull URI xboxSecureTokenService,
+                               @NotNull URI xboxProfile,
+                               @NotNull URI xboxSisu,
+                               @NotNull URI minecraftServices) {
+    public static final ServiceEndpoints DEFAULT = new ServiceEndpoints(
+            URI.create("https://login.live.com"),
+            URI.create("https://login.microsoftonline.com"),
+            URI.create("https://user.auth.xboxlive.com"),
+            URI.create("https://xsts.auth.xboxlive.com"),
+            URI.create("https://profile.xboxlive.com"),
+            URI.create("https://sisu.xboxlive.com"),
+            URI.create("https://api.minecraftservices.com")
+    );
+
+    /**
+     * Creates endpoints directing every service at the same base URI, i.e. a single stub serving every service.
+     * <p>
+     * The paths of the services' endpoints do not overlap, so they may all be served from one origin.
+     *
+     * @param base The base URI.
+     * @return The endpoints.
+     */
+    public static @NotNull ServiceEndpoints at(@NotNull URI base) {
+        return new ServiceEndpoints(base, base, base, base, base, base, base);
+    }
+
+    /**
+     * Resolves the path of an endpoint against the base URI of its service.
+     *
+     * @param base The base URI of the service.
+     * @param path The path of the endpoint, starting with a slash. It may include a query.
+     * @return The URI of the endpoint.
+     */
+    public static @NotNull URI resolve(@NotNull URI base, @NotNull String path) {
+        String baseString = base.toString();
+        if (baseString.endsWith("/")) {
+            baseString = baseString.substring(0, baseString.length() - 1);
+        }
+        return URI.create(baseString + path);
+    }
+}
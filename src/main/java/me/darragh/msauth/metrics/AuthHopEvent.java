@@ -0,0 +1,98 @@
+package me.darragh.msauth.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import me.darragh.msauth.AuthStage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A Java Flight Recorder event emitted for each request made by a stage of a login chain, so that slow logins appear in recordings alongside
+ * garbage collection and thread activity.
+ * <p>
+ * The event is named {@code me.darragh.msauth.AuthHop}, and is enabled, disabled or given a threshold through JFR settings as any other, i.e.
+ * {@code -XX:StartFlightRecording:me.darragh.msauth.AuthHop#threshold=100ms}. Whilst no recording enables it, the transport does not time requests for it.
+ * <p>
+ * Credentials are never recorded. Instead, the account is identified by a truncated SHA-256 hash of an identifier supplied by the login
+ * chain (i.e. the refresh token, authorization code, device code or cookie session it started from), which every hop of the chain shares.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@Name("me.darragh.msauth.AuthHop")
+@Label("Authentication Hop")
+@Category({"msauth", "Authentication"})
+@Description("A request made by a stage of a login chain")
+@StackTrace(false)
+public final class AuthHopEvent extends Event {
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+    private static final EventType TYPE = EventType.getEventType(AuthHopEvent.class);
+
+    @Label("Stage")
+    private String stage;
+
+    @Label("Host")
+    private String host;
+
+    @Label("Status Code")
+    @Description("The status code of the response, or -1 if no response was received")
+    private int statusCode;
+
+    @Label("Account Hash")
+    @Description("A truncated SHA-256 hash identifying the account, shared by every hop of a login chain")
+    private String accountHash;
+
+    @Label("Failure")
+    @Description("The exception thrown if no response was received")
+    private String failure;
+
+    /**
+     * Checks whether any recording enables the event, so that it need not be allocated otherwise.
+     *
+     * @return True if the event is enabled.
+     */
+    public static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+
+    /**
+     * Ends the event, committing it if it is enabled and exceeds its threshold.
+     *
+     * @param stage The stage.
+     * @param host The host the request was sent to.
+     * @param statusCode The status code of the response, or -1 if no response was received.
+     * @param account The identifier of the account shared by the login chain, or {@code null} or empty if unknown.
+     * @param failure The exception thrown if no response was received, or {@code null}.
+     */
+    public void complete(@NotNull AuthStage stage, @Nullable String host, int statusCode, @Nullable String account, @Nullable Throwable failure) {
+        this.end();
+        if (!this.shouldCommit()) {
+            return;
+        }
+        this.stage = stage.name();
+        this.host = host;
+        this.statusCode = statusCode;
+        this.accountHash = account == null || account.isEmpty() ? null : hash(account);
+        this.failure = failure == null ? null : failure.toString();
+        this.commit();
+    }
+
+    private static @NotNull String hash(@NotNull String account) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(account.getBytes(StandardCharsets.UTF_8));
+            return HEX_FORMAT.formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) { // every platform provides SHA-256
+            throw new RuntimeException("Failed to hash account", e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package me.darragh.msauth.metrics;
+
+import me.darragh.msauth.AuthStage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listens to the requests made by each stage of the login chains, i.e. to record latency, status codes and throughput per service.
+ * <p>
+ * Every request reported by {@link #onRequestStart(AuthStage)} is followed by exactly one call to either
+ * {@link #onResponse(AuthStage, int, long, long, long)} or {@link #onFailure(AuthStage, long, Throwable)}, so the number of requests in flight
+ * may be derived from them.
+ * <p>
+ * Listeners are installed on the {@link me.darragh.msauth.http.HttpTransport}, and so observe every login sharing it. They are called on
+ * whichever thread completes the request, and so must be thread-safe and must not block.
+ * <p>
+ * By default, {@link #noop()} is installed, in which case the transport skips timing requests altogether.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @see RecordingAuthMetrics
+ */
+public interface AuthMetrics {
+    /**
+     * Returns the listener ignoring every event.
+     *
+     * @return The no-op listener.
+     */
+    static @NotNull AuthMetrics noop() {
+        return NoopAuthMetrics.INSTANCE;
+    }
+
+    /**
+     * Called as a request is sent, after any rate limiting.
+     *
+     * @param stage The stage.
+     */
+    default void onRequestStart(@NotNull AuthStage stage) {
+    }
+
+    /**
+     * Called once a response has been received, whatever its status code.
+     *
+     * @param stage The stage.
+     * @param statusCode The status code of the response.
+     * @param durationNanos The time taken from sending the request to receiving the whole response, in nanoseconds.
+     * @param bytesSent The size of the request body, 0 if the request has none, or -1 if unknown (i.e. a body streamed without a length).
+     * @param bytesReceived The size of the response body, or -1 if unknown (i.e. a discarded body without a Content-Length header).
+     */
+    default void onResponse(@NotNull AuthStage stage, int statusCode, long durationNanos, long bytesSent, long bytesReceived) {
+    }
+
+    /**
+     * Called if a request fails without a response, i.e. due to an I/O error, or is cancelled.
+     *
+     * @param stage The stage.
+     * @param durationNanos The time taken until the request failed, in nanoseconds.
+     * @param throwable The cause.
+     */
+    default void onFailure(@NotNull AuthStage stage, long durationNanos, @NotNull Throwable throwable) {
+    }
+
+    /**
+     * Called before a failed request is retried.
+     *
+     * @param stage The stage.
+     * @param attempt The attempt about to be made, starting from 2.
+     */
+    default void onRetry(@NotNull AuthStage stage, int attempt) {
+    }
+
+    /**
+     * Called when the token of a stage is served from a cache, rather than requested.
+     *
+     * @param stage The stage.
+     */
+    default void onCacheHit(@NotNull AuthStage stage) {
+    }
+
+    /**
+     * Called when a cache is consulted for the token of a stage, but holds no valid token, so it is requested.
+     *
+     * @param stage The stage.
+     */
+    default void onCacheMiss(@NotNull AuthStage stage) {
+    }
+}
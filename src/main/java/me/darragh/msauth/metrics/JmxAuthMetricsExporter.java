@@ -0,0 +1,71 @@
+package me.darragh.msauth.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exports the metrics of each stage as an MXBean, named {@code me.darragh.msauth:type=AuthMetrics,name=<name>,stage=<stage>}.
+ * <p>
+ * Closing the exporter unregisters the MXBeans.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class JmxAuthMetricsExporter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(JmxAuthMetricsExporter.class.getName());
+
+    private final MBeanServer server;
+    private final List<ObjectName> names;
+
+    private JmxAuthMetricsExporter(@NotNull MBeanServer server, @NotNull List<ObjectName> names) {
+        this.server = server;
+        this.names = names;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     *
+     * @param metrics The metrics.
+     * @param name The name distinguishing these metrics from others, i.e. of the transport they are installed on.
+     * @return The exporter, which unregisters the metrics once closed.
+     */
+    public static @NotNull JmxAuthMetricsExporter register(@NotNull RecordingAuthMetrics metrics, @NotNull String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        List<ObjectName> names = new ArrayList<>();
+        try {
+            for (StageMetrics stageMetrics : metrics.getAll()) {
+                ObjectName objectName = new ObjectName("me.darragh.msauth:type=AuthMetrics,name=%s,stage=%s"
+                        .formatted(ObjectName.quote(name), stageMetrics.getStage().name()));
+                server.registerMBean(stageMetrics, objectName);
+                names.add(objectName);
+            }
+        } catch (JMException e) {
+            new JmxAuthMetricsExporter(server, names).close();
+            throw new RuntimeException("Failed to register metrics", e);
+        }
+        return new JmxAuthMetricsExporter(server, names);
+    }
+
+    @Override
+    public void close() {
+        for (ObjectName name : this.names) {
+            try {
+                this.server.unregisterMBean(name);
+            } catch (InstanceNotFoundException ignored) {
+                // already unregistered
+            } catch (JMException e) {
+                LOGGER.log(Level.SEVERE, "An error occurred whilst unregistering metrics.", e);
+            }
+        }
+        this.names.clear();
+    }
+}
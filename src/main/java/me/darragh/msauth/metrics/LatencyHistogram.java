@@ -0,0 +1,134 @@
+package me.darragh.msauth.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies, in nanoseconds, with lock-free recording.
+ * <p>
+ * As with HdrHistogram, values are counted in log-linear buckets: each power of two is split into 32 linear sub-buckets, so any value is
+ * reported to within ~3% (i.e. 1ms to within ~31us), across the whole range of a {@code long}. Recording is a single atomic increment,
+ * so recorders never contend on a lock, nor allocate.
+ * <p>
+ * Reads are not atomic with respect to concurrent recording, and so may be marginally out of date.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     *
+     * @param nanos The value, in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        this.counts.incrementAndGet(indexOf(value));
+        this.count.increment();
+        this.sum.add(value);
+
+        long max = this.max.get();
+        while (value > max && !this.max.compareAndSet(max, value)) {
+            max = this.max.get();
+        }
+    }
+
+    /**
+     * The number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * The mean of the recorded values.
+     *
+     * @return The mean, in nanoseconds, or 0 if no values have been recorded.
+     */
+    public double getMean() {
+        long count = this.count.sum();
+        return count == 0L ? 0.0 : (double) this.sum.sum() / count;
+    }
+
+    /**
+     * The largest recorded value.
+     *
+     * @return The maximum, in nanoseconds, or 0 if no values have been recorded.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * The value at the given percentile, i.e. 99 for the 99th percentile.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The largest value equivalent to the value at the percentile, in nanoseconds, or 0 if no values have been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0L;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.counts.get(i);
+            total += counts[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    /**
+     * Determines the bucket counting the value.
+     * <p>
+     * Values below 32 are counted exactly. Above, the top six bits of the value (its leading one, and the five bits below it) select the bucket.
+     *
+     * @param value The value, which must not be negative.
+     * @return The index of the bucket.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * Determines the largest value counted by the bucket.
+     *
+     * @param index The index of the bucket.
+     * @return The largest value.
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowest + ((1L << shift) - 1L);
+    }
+}
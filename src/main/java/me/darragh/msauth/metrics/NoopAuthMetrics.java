@@ -0,0 +1,16 @@
+package me.darragh.msauth.metrics;
+
+/**
+ * The listener ignoring every event.
+ * <p>
+ * It is final, and its methods empty, so calls to it are inlined away entirely.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class NoopAuthMetrics implements AuthMetrics {
+    static final NoopAuthMetrics INSTANCE = new NoopAuthMetrics();
+
+    private NoopAuthMetrics() {
+    }
+}
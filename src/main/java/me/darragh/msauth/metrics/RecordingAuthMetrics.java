@@ -0,0 +1,87 @@
+package me.darragh.msauth.metrics;
+
+import me.darragh.msauth.AuthStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Records the metrics of each stage in memory: a latency histogram, status codes, failures, retries, bytes, cache hits and concurrency.
+ * <p>
+ * The metrics may be read directly, or exported over JMX with {@link JmxAuthMetricsExporter}.
+ *
+ * <pre>{@code
+ * RecordingAuthMetrics metrics = new RecordingAuthMetrics();
+ * HttpTransport transport = HttpTransport.builder().metrics(metrics).build();
+ * // ...
+ * double p99 = metrics.get(AuthStage.XSTS).getP99LatencyMillis();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class RecordingAuthMetrics implements AuthMetrics {
+    private final Map<AuthStage, StageMetrics> stages;
+
+    public RecordingAuthMetrics() {
+        Map<AuthStage, StageMetrics> stages = new EnumMap<>(AuthStage.class);
+        for (AuthStage stage : AuthStage.values()) {
+            stages.put(stage, new StageMetrics(stage));
+        }
+        this.stages = Collections.unmodifiableMap(stages);
+    }
+
+    /**
+     * The metrics of the given stage.
+     *
+     * @param stage The stage.
+     * @return The metrics.
+     */
+    public @NotNull StageMetrics get(@NotNull AuthStage stage) {
+        return this.stages.get(stage);
+    }
+
+    /**
+     * The metrics of every stage, in the order of the login chains.
+     *
+     * @return The metrics.
+     */
+    public @NotNull Collection<StageMetrics> getAll() {
+        return this.stages.values();
+    }
+
+    @Override
+    public void onRequestStart(@NotNull AuthStage stage) {
+        this.stages.get(stage).recordStart();
+    }
+
+    @Override
+    public void onResponse(@NotNull AuthStage stage, int statusCode, long durationNanos, long bytesSent, long bytesReceived) {
+        this.stages.get(stage).recordResponse(statusCode, durationNanos, bytesSent, bytesReceived);
+    }
+
+    @Override
+    public void onFailure(@NotNull AuthStage stage, long durationNanos, @NotNull Throwable throwable) {
+        this.stages.get(stage).recordFailure();
+    }
+
+    @Override
+    public void onRetry(@NotNull AuthStage stage, int attempt) {
+        this.stages.get(stage).recordRetry();
+    }
+
+    @Override
+    public void onCacheHit(@NotNull AuthStage stage) {
+        this.stages.get(stage).recordCacheHit();
+    }
+
+    @Override
+    public void onCacheMiss(@NotNull AuthStage stage) {
+        this.stages.get(stage).recordCacheMiss();
+    }
+}
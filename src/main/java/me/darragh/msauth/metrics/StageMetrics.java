@@ -0,0 +1,178 @@
+package me.darragh.msauth.metrics;
+
+import lombok.Getter;
+import me.darragh.msauth.AuthStage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorded for a single stage by {@link RecordingAuthMetrics}.
+ * <p>
+ * Latencies are recorded for every request which received a response, and failures (i.e. I/O errors) are counted separately.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class StageMetrics implements StageMetricsMXBean {
+    @Getter
+    private final @NotNull AuthStage stage;
+    @Getter
+    private final @NotNull LatencyHistogram latency = new LatencyHistogram();
+
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong peakInFlight = new AtomicLong();
+
+    StageMetrics(@NotNull AuthStage stage) {
+        this.stage = stage;
+    }
+
+    //region Recording
+    void recordStart() {
+        this.requests.increment();
+        long inFlight = this.inFlight.incrementAndGet();
+        long peak = this.peakInFlight.get();
+        while (inFlight > peak && !this.peakInFlight.compareAndSet(peak, inFlight)) {
+            peak = this.peakInFlight.get();
+        }
+    }
+
+    void recordResponse(int statusCode, long durationNanos, long bytesSent, long bytesReceived) {
+        this.inFlight.decrementAndGet();
+        this.latency.record(durationNanos);
+        this.statusCodes.computeIfAbsent(statusCode, ignored -> new LongAdder()).increment();
+        if (bytesSent > 0L) {
+            this.bytesSent.add(bytesSent);
+        }
+        if (bytesReceived > 0L) {
+            this.bytesReceived.add(bytesReceived);
+        }
+    }
+
+    void recordFailure() {
+        this.inFlight.decrementAndGet();
+        this.failures.increment();
+    }
+
+    void recordRetry() {
+        this.retries.increment();
+    }
+
+    void recordCacheHit() {
+        this.cacheHits.increment();
+    }
+
+    void recordCacheMiss() {
+        this.cacheMisses.increment();
+    }
+    //endregion
+
+    /**
+     * The number of responses with the given status code.
+     *
+     * @param statusCode The status code.
+     * @return The number of responses.
+     */
+    public long getStatusCodeCount(int statusCode) {
+        LongAdder count = this.statusCodes.get(statusCode);
+        return count == null ? 0L : count.sum();
+    }
+
+    //region MXBean
+    @Override
+    public long getRequestCount() {
+        return this.requests.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return this.failures.sum();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return this.retries.sum();
+    }
+
+    @Override
+    public long getInFlight() {
+        return this.inFlight.get();
+    }
+
+    @Override
+    public long getPeakInFlight() {
+        return this.peakInFlight.get();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return this.bytesSent.sum();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return this.bytesReceived.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return this.cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return this.cacheMisses.sum();
+    }
+
+    @Override
+    public Map<String, Long> getStatusCodes() {
+        Map<String, Long> statusCodes = new TreeMap<>();
+        this.statusCodes.forEach((statusCode, count) -> statusCodes.put(Integer.toString(statusCode), count.sum()));
+        return statusCodes;
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return this.latency.getMean() / 1_000_000.0;
+    }
+
+    @Override
+    public double getP50LatencyMillis() {
+        return this.latency.getValueAtPercentile(50.0) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP90LatencyMillis() {
+        return this.latency.getValueAtPercentile(90.0) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+        return this.latency.getValueAtPercentile(99.0) / 1_000_000.0;
+    }
+
+    @Override
+    public double getP999LatencyMillis() {
+        return this.latency.getValueAtPercentile(99.9) / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return this.latency.getMax() / 1_000_000.0;
+    }
+    //endregion
+}
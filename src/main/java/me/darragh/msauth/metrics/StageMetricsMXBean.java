@@ -0,0 +1,45 @@
+package me.darragh.msauth.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of a stage's metrics, as exported by {@link JmxAuthMetricsExporter}.
+ * <p>
+ * Latencies are given in milliseconds.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public interface StageMetricsMXBean {
+    long getRequestCount();
+
+    long getFailureCount();
+
+    long getRetryCount();
+
+    long getInFlight();
+
+    long getPeakInFlight();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    Map<String, Long> getStatusCodes();
+
+    double getMeanLatencyMillis();
+
+    double getP50LatencyMillis();
+
+    double getP90LatencyMillis();
+
+    double getP99LatencyMillis();
+
+    double getP999LatencyMillis();
+
+    double getMaxLatencyMillis();
+}
@@ -1,12 +1,15 @@
 package me.darragh.msauth.minecraft;
 
 import com.google.gson.annotations.SerializedName;
+import me.darragh.msauth.util.UUIDUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.UUID;
 
 /**
  * Represents a Minecraft profile.
+ * <p>
+ * The UUID is decoded from the raw ID once, when the profile is created, rather than each time it is requested.
  *
  * @author darraghd493
  * @since 1.0.0
@@ -14,8 +17,19 @@ import java.util.UUID;
 public record MinecraftProfile(@SerializedName("id") @NotNull String id, // raw UUID
                                @SerializedName("name") @NotNull String username,
                                @SerializedName("skins") @NotNull MinecraftSkin[] skins,
-                               @SerializedName("capes") @NotNull MinecraftCape[] capes) {
+                               @SerializedName("capes") @NotNull MinecraftCape[] capes,
+                               @SerializedName("uuid") @NotNull UUID uuid) {
+    public MinecraftProfile {
+        if (uuid == null) { // absent when deserialised from Minecraft's services
+            uuid = UUIDUtil.fromUndashed(id);
+        }
+    }
+
+    public MinecraftProfile(@NotNull String id, @NotNull String username, @NotNull MinecraftSkin[] skins, @NotNull MinecraftCape[] capes) {
+        this(id, username, skins, capes, UUIDUtil.fromUndashed(id));
+    }
+
     public @NotNull UUID getUUID() {
-        return UUID.fromString(this.id.replaceFirst("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})", "$1-$2-$3-$4-$5"));
+        return this.uuid;
     }
 }
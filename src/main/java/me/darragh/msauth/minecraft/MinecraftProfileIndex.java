@@ -0,0 +1,73 @@
+package me.darragh.msauth.minecraft;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of Minecraft profiles by UUID, i.e. the latest profile of each account logged in with.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class MinecraftProfileIndex {
+    private final Map<UUID, MinecraftProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a profile, replacing any previous profile of the same account.
+     *
+     * @param profile The profile.
+     * @return The previous profile, or {@code null} if there was none.
+     */
+    public @Nullable MinecraftProfile put(@NotNull MinecraftProfile profile) {
+        return this.profiles.put(profile.uuid(), profile);
+    }
+
+    /**
+     * Returns the profile of an account.
+     *
+     * @param uuid The UUID of the account.
+     * @return The profile, or {@code null} if it is not indexed.
+     */
+    public @Nullable MinecraftProfile get(@NotNull UUID uuid) {
+        return this.profiles.get(uuid);
+    }
+
+    /**
+     * Removes the profile of an account.
+     *
+     * @param uuid The UUID of the account.
+     * @return The removed profile, or {@code null} if it was not indexed.
+     */
+    public @Nullable MinecraftProfile remove(@NotNull UUID uuid) {
+        return this.profiles.remove(uuid);
+    }
+
+    public boolean contains(@NotNull UUID uuid) {
+        return this.profiles.containsKey(uuid);
+    }
+
+    /**
+     * Returns a view of every indexed profile.
+     *
+     * @return The profiles.
+     */
+    public @NotNull Collection<MinecraftProfile> values() {
+        return Collections.unmodifiableCollection(this.profiles.values());
+    }
+
+    public int size() {
+        return this.profiles.size();
+    }
+
+    public void clear() {
+        this.profiles.clear();
+    }
+}
@@ -1,21 +1,32 @@
 package me.darragh.msauth.oauth2;
 
 import com.sun.net.httpserver.HttpExchange;
+import me.darragh.msauth.AuthStage;
 import me.darragh.msauth.AuthenticationCallback;
 import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
 import me.darragh.msauth.Authenticator;
-import me.darragh.msauth.SimpleAuthenticationRecord;
-import me.darragh.msauth.client.XboxClient;
-import me.darragh.msauth.minecraft.MinecraftProfile;
-import me.darragh.msauth.client.MinecraftClient;
+import me.darragh.msauth.cache.AccountTokens;
+import me.darragh.msauth.cache.TokenCache;
+import me.darragh.msauth.client.AuthenticationPipeline;
+import me.darragh.msauth.client.XboxToken;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
+import me.darragh.msauth.metrics.AuthMetrics;
 import me.darragh.msauth.oauth2.server.OAuthResponseState;
 import me.darragh.msauth.oauth2.server.OAuthServerHandler;
+import me.darragh.msauth.util.FutureUtil;
 import me.darragh.msauth.util.QueryUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * An authenticator for web-based authentication using OAuth2.
@@ -24,76 +35,141 @@ import java.util.concurrent.Executors;
  * @since 1.0.0
  */
 public class OAuthAuthenticator implements Authenticator<AuthenticationRecord> {
-    private static final String AUTH_URL_TEMPLATE = "https://login.live.com/oauth20_authorize.srf?client_id=%s" +
+    private static final String AUTH_PATH_TEMPLATE = "/oauth20_authorize.srf?client_id=%s" +
             "&response_type=code" +
             "&scope=XboxLive.signin%%20XboxLive.offline_access" +
             "&redirect_uri=%s&prompt=select_account";
 
-    private static final Executor EXECUTOR = Executors.newSingleThreadExecutor();
-
     private final OAuthServerHandler serverHandler;
     private final OAuthOptions options;
 
-    private AuthenticationCallback<AuthenticationRecord> callback;
+    private final OAuthMicrosoftClient microsoftClient;
+    private final AuthenticationPipeline pipeline;
+    private final @Nullable TokenCache tokenCache;
+
+    private final Set<CompletableFuture<?>> refreshes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicReference<AuthenticationCallback<AuthenticationRecord>> callback = new AtomicReference<>();
 
     public OAuthAuthenticator(OAuthOptions options) {
+        this(options, HttpTransport.get());
+    }
+
+    /**
+     * Creates an authenticator which communicates through the given transport.
+     * <p>
+     * Authenticators sharing a transport share its connection pool.
+     *
+     * @param options The OAuth2 options.
+     * @param transport The HTTP transport.
+     */
+    public OAuthAuthenticator(OAuthOptions options, @NotNull HttpTransport transport) {
+        this(options, new AuthenticationPipeline(transport));
+    }
+
+    /**
+     * Creates an authenticator which completes logins using the given pipeline.
+     *
+     * @param options The OAuth2 options.
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     */
+    public OAuthAuthenticator(OAuthOptions options, @NotNull AuthenticationPipeline pipeline) {
+        this(options, pipeline, null);
+    }
+
+    /**
+     * Creates an authenticator which caches the intermediate tokens of each account.
+     * <p>
+     * Refreshes resume from the deepest still-valid token, i.e. a valid XSTS token skips the refresh token exchange and Xbox Live authentication entirely.
+     *
+     * @param options The OAuth2 options.
+     * @param pipeline The pipeline, whose transport and endpoints are also used to communicate with Microsoft.
+     * @param tokenCache The cache of intermediate tokens, or {@code null} to always perform the full chain.
+     */
+    public OAuthAuthenticator(OAuthOptions options, @NotNull AuthenticationPipeline pipeline, @Nullable TokenCache tokenCache) {
         this.serverHandler = new OAuthServerHandler(options, this::handleResponse);
         this.options = options;
+        this.microsoftClient = new OAuthMicrosoftClient(options, pipeline.getTransport(), pipeline.getEndpoints());
+        this.pipeline = pipeline;
+        this.tokenCache = tokenCache;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Refreshes do not require the OAuth2 server, and so any number of refreshes may be performed concurrently.
+     */
     @Override
     public void performAuthentication(AuthenticationRecord record, @NotNull AuthenticationCallback<AuthenticationRecord> callback) {
+        this.performAuthenticationAsync(record).whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                callback.onFailure(FutureUtil.unwrap(throwable));
+            } else {
+                callback.onAuthentication(result.record(), result.profile());
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Refreshes do not require the OAuth2 server, and so any number of refreshes may be performed concurrently.
+     */
+    @Override
+    public @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> performAuthenticationAsync(@NotNull AuthenticationRecord record) {
         if (record.refreshToken() == null) {
             throw new IllegalArgumentException("Record does not contain a refresh token");
         }
 
-        if (this.callback != null) {
-            throw new IllegalStateException("Already performing authentication");
-        }
-
-        this.callback = callback;
-
-        OAuthMicrosoftClient microsoftClient = new OAuthMicrosoftClient(this.options);
-        XboxClient xboxClient = new XboxClient();
-        MinecraftClient minecraftClient = new MinecraftClient();
-        OAuthMicrosoftClient.OAuthTokens oAuthTokens = microsoftClient.useRefreshToken(record.refreshToken(), this.generateRedirectUrl());
-        this.authenticateTokens(microsoftClient, xboxClient, minecraftClient, oAuthTokens);
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> future = this.refreshAsync(record);
+        this.refreshes.add(future);
+        future.whenComplete((result, throwable) -> this.refreshes.remove(future));
+        return future;
     }
 
     @Override
     public void performAuthentication(@NotNull AuthenticationCallback<AuthenticationRecord> callback) {
-        if (this.callback != null) {
-            throw new IllegalStateException("Already performing authentication");
+        // Claimed before starting the server, so that a redirect still being handled does not stop it again
+        synchronized (this) {
+            if (!this.callback.compareAndSet(null, callback)) {
+                throw new IllegalStateException("Already performing authentication");
+            }
         }
 
+        // Starting may wait for the previous server to stop, which requires its handler to complete, so must not hold the monitor
         try {
             this.serverHandler.start();
         } catch (IOException e) {
+            this.callback.compareAndSet(callback, null);
             throw new RuntimeException("Failed to start server", e);
         }
-
-        this.callback = callback;
     }
 
     @Override
     public void stopAuthentication() {
-        EXECUTOR.execute(() -> { // Shut the server down after 3 seconds - this may be called immediately after receiving a response by some clients. ~_~
-            try {
-                Thread.sleep(3000L);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            this.serverHandler.stop();
-        });
+        // This may be called immediately after receiving a response by some clients, so the server only stops once the response has been flushed
+        this.serverHandler.stop();
 
-        if (this.callback != null) {
-            this.callback = null;
+        AuthenticationCallback<AuthenticationRecord> callback = this.callback.getAndSet(null);
+        if (callback != null) {
+            callback.onFailure(new CancellationException("Authentication was stopped"));
         }
+
+        this.refreshes.forEach(future -> future.cancel(true));
     }
 
     @Override
     public boolean isAuthenticating() {
-        return this.callback != null || this.serverHandler.isRunning();
+        return this.callback.get() != null || this.serverHandler.isRunning() || !this.refreshes.isEmpty();
+    }
+
+    /**
+     * Returns a future completed once the OAuth2 server has stopped, and its port has been released.
+     *
+     * @return The future, which is already completed if the server is not running.
+     */
+    public @NotNull CompletableFuture<Void> awaitServerStop() {
+        return this.serverHandler.awaitStop();
     }
 
     /**
@@ -102,7 +178,18 @@ public class OAuthAuthenticator implements Authenticator<AuthenticationRecord> {
      * @return The URL to authenticate with.
      */
     public @NotNull String generateUrl() {
-        return String.format(AUTH_URL_TEMPLATE, this.options.clientId(), this.generateRedirectUrl());
+        String path = String.format(AUTH_PATH_TEMPLATE, this.options.clientId(), this.generateRedirectUrl());
+        return ServiceEndpoints.resolve(this.pipeline.getEndpoints().liveLogin(), path).toString();
+    }
+
+    /**
+     * Generates the URL to authenticate with, carrying the given OAuth2 state.
+     *
+     * @param state The state, returned unchanged in the redirect.
+     * @return The URL to authenticate with.
+     */
+    public @NotNull String generateUrl(@NotNull String state) {
+        return this.generateUrl() + "&state=" + state;
     }
 
     /**
@@ -114,6 +201,26 @@ public class OAuthAuthenticator implements Authenticator<AuthenticationRecord> {
         return "http://localhost:%s".formatted(this.options.port());
     }
 
+    /**
+     * The OAuth2 options.
+     *
+     * @return The options.
+     */
+    @NotNull OAuthOptions options() {
+        return this.options;
+    }
+
+    /**
+     * Completes an interactive login, exchanging the authorization code from the redirect.
+     *
+     * @param code The authorization code.
+     * @return A future completed with the authentication result.
+     */
+    @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> completeLoginAsync(@NotNull String code) {
+        return this.microsoftClient.fetchOAuthTokensAsync(code, this.generateRedirectUrl())
+                .thenCompose(oAuthTokens -> this.authenticateTokensAsync(oAuthTokens, null));
+    }
+
     /**
      * Handles the response from the OAuth server.
      *
@@ -121,6 +228,7 @@ public class OAuthAuthenticator implements Authenticator<AuthenticationRecord> {
      * @return The response state.
      */
     private @NotNull OAuthResponseState handleResponse(@NotNull HttpExchange exchange) {
+        AuthenticationCallback<AuthenticationRecord> callback = this.callback.get();
         try {
             if (exchange.getRequestURI().getQuery() == null) {
                 throw new RuntimeException("No query in request");
@@ -131,54 +239,168 @@ public class OAuthAuthenticator implements Authenticator<AuthenticationRecord> {
                 throw new RuntimeException("No code in query");
             }
 
-            OAuthMicrosoftClient microsoftClient = new OAuthMicrosoftClient(this.options);
-            XboxClient xboxClient = new XboxClient();
-            MinecraftClient minecraftClient = new MinecraftClient();
-            OAuthMicrosoftClient.OAuthTokens oAuthTokens = microsoftClient.fetchOAuthTokens(code, this.generateRedirectUrl());
-            this.authenticateTokens(microsoftClient, xboxClient, minecraftClient, oAuthTokens);
+            OAuthMicrosoftClient.OAuthTokens oAuthTokens = this.microsoftClient.fetchOAuthTokens(code, this.generateRedirectUrl());
+            this.completeAuthentication(callback, this.authenticateTokens(oAuthTokens, null), null);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to handle response", e);
+            RuntimeException exception = new RuntimeException("Failed to handle response", e);
+
+            // Notify the pending callback, as the caller may otherwise wait indefinitely
+            this.completeAuthentication(callback, null, exception);
+            this.stopServerIfIdle();
+            throw exception;
         }
 
+        this.stopServerIfIdle();
         return OAuthResponseState.SUCCESS;
     }
 
     /**
-     * Authenticates the OAuth tokens and supplies the callback with the authentication record.
+     * Stops the server once the response has been flushed, unless the callback has started another authentication.
      *
-     * @param microsoftClient The Microsoft communication service.
-     * @param oAuthTokens The OAuth tokens.
+     * @implNote Stopping does not wait for the server, so the monitor is only held whilst checking and requesting the stop.
      */
-    private void authenticateTokens(@NotNull OAuthMicrosoftClient microsoftClient, @NotNull XboxClient xboxClient, @NotNull MinecraftClient minecraftClient, @NotNull OAuthMicrosoftClient.OAuthTokens oAuthTokens) {
-        String xblToken = microsoftClient.authenticateXboxLive(oAuthTokens.accessToken());
-        String xblAuthenticationToken = microsoftClient.authenticateXSTS(xblToken);
-        xboxClient.checkoutXboxProfile(xblAuthenticationToken);
-        MinecraftClient.MinecraftAuthentication minecraftAuthentication = minecraftClient.authenticateMinecraft(xblAuthenticationToken);
-        String minecraftToken = minecraftClient.getMinecraftAuthToken(minecraftAuthentication);
-        MinecraftProfile minecraftProfile = minecraftClient.fetchMinecraftProfile(minecraftToken);
-
-        // Supply callback with authentication record
-        this.callback.onAuthentication(new SimpleAuthenticationRecord(
-                minecraftProfile.username(),
-                minecraftProfile.getUUID(),
-                minecraftAuthentication.accessToken(),
-                oAuthTokens.refreshToken()
-        ), minecraftProfile);
-
-        // Remove callback
-        this.callback = null;
-
-        // Forcefully stop the server after 3 seconds
-        EXECUTOR.execute(() -> {
-            try {
-                Thread.sleep(3000L);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    private void stopServerIfIdle() {
+        synchronized (this) {
+            if (this.callback.get() == null) {
+                this.serverHandler.stop();
             }
-            if (this.callback != null || !this.serverHandler.isRunning()) { // Another authentication is in progress
-                return;
+        }
+    }
+
+    /**
+     * Authenticates the OAuth tokens.
+     *
+     * @param oAuthTokens The OAuth tokens.
+     * @param account The UUID of the profile being refreshed, identifying the account in reports, or {@code null} if unknown (i.e. for a new login).
+     * @return The authentication result.
+     */
+    private @NotNull AuthenticationResult<AuthenticationRecord> authenticateTokens(@NotNull OAuthMicrosoftClient.OAuthTokens oAuthTokens, @Nullable String account) {
+        XboxToken xboxLiveToken = this.microsoftClient.authenticateXboxLiveToken(oAuthTokens.accessToken(), account);
+        XboxToken xstsToken = this.microsoftClient.authenticateXSTSToken(xboxLiveToken.token(), account);
+        AuthenticationResult<AuthenticationRecord> result = this.pipeline.authenticate(xstsToken.toAuthorizationHeader(), oAuthTokens.refreshToken(), account);
+        this.cacheTokens(result, AccountTokens.ofMicrosoft(oAuthTokens.accessToken(), oAuthTokens.expiresIn())
+                .withXboxLiveToken(xboxLiveToken)
+                .withXstsToken(xstsToken));
+        return result;
+    }
+
+    /**
+     * Authenticates the OAuth tokens asynchronously.
+     *
+     * @param oAuthTokens The OAuth tokens.
+     * @param account The UUID of the profile being refreshed, identifying the account in reports, or {@code null} if unknown (i.e. for a new login).
+     * @return A future completed with the authentication result.
+     */
+    private @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> authenticateTokensAsync(@NotNull OAuthMicrosoftClient.OAuthTokens oAuthTokens,
+                                                                                                          @Nullable String account) {
+        return this.continueWithMicrosoftToken(AccountTokens.ofMicrosoft(oAuthTokens.accessToken(), oAuthTokens.expiresIn()), oAuthTokens.refreshToken(), account);
+    }
+
+    //region Refreshing
+    /**
+     * Refreshes the record, resuming from the deepest still-valid cached token.
+     * <p>
+     * Should a resumed refresh fail (i.e. a token was revoked before it expired), the cached tokens are discarded and the full chain is performed.
+     *
+     * @param record The record to refresh.
+     * @return A future completed with the authentication result.
+     */
+    private @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> refreshAsync(@NotNull AuthenticationRecord record) {
+        String refreshToken = record.refreshToken();
+        String account = record.uuid().toString(); // refresh tokens rotate, so the profile identifies the account in reports
+        TokenCache tokenCache = this.tokenCache;
+        if (tokenCache == null) {
+            return this.microsoftClient.useRefreshTokenAsync(refreshToken, this.generateRedirectUrl(), account)
+                    .thenCompose(oAuthTokens -> this.authenticateTokensAsync(oAuthTokens, account));
+        }
+
+        Duration window = tokenCache.safetyWindow();
+        AccountTokens accountTokens = tokenCache.get(record.uuid());
+        AuthMetrics metrics = this.pipeline.getTransport().metrics();
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> resumed;
+        if (accountTokens.hasValidXstsToken(window)) {
+            metrics.onCacheHit(AuthStage.XSTS);
+            resumed = this.continueWithXstsToken(accountTokens, refreshToken, account);
+        } else if (accountTokens.hasValidXboxLiveToken(window)) {
+            metrics.onCacheMiss(AuthStage.XSTS);
+            metrics.onCacheHit(AuthStage.XBOX_LIVE);
+            resumed = this.continueWithXboxLiveToken(accountTokens, refreshToken, account);
+        } else if (accountTokens.hasValidMicrosoftAccessToken(window)) {
+            metrics.onCacheMiss(AuthStage.XSTS);
+            metrics.onCacheMiss(AuthStage.XBOX_LIVE);
+            metrics.onCacheHit(AuthStage.MICROSOFT_TOKEN);
+            resumed = this.continueWithMicrosoftToken(accountTokens, refreshToken, account);
+        } else {
+            metrics.onCacheMiss(AuthStage.XSTS);
+            metrics.onCacheMiss(AuthStage.XBOX_LIVE);
+            metrics.onCacheMiss(AuthStage.MICROSOFT_TOKEN);
+            return this.microsoftClient.useRefreshTokenAsync(refreshToken, this.generateRedirectUrl(), account)
+                    .thenCompose(oAuthTokens -> this.authenticateTokensAsync(oAuthTokens, account));
+        }
+
+        return resumed.exceptionallyCompose(throwable -> {
+            if (FutureUtil.unwrap(throwable) instanceof CancellationException) {
+                return CompletableFuture.failedFuture(throwable);
             }
-            this.serverHandler.stop();
+            tokenCache.invalidate(record.uuid());
+            return this.microsoftClient.useRefreshTokenAsync(refreshToken, this.generateRedirectUrl(), account)
+                    .thenCompose(oAuthTokens -> this.authenticateTokensAsync(oAuthTokens, account));
         });
     }
+
+    private @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> continueWithMicrosoftToken(@NotNull AccountTokens accountTokens, @Nullable String refreshToken,
+                                                                                                             @Nullable String account) {
+        return this.microsoftClient.authenticateXboxLiveTokenAsync(accountTokens.microsoftAccessToken(), account)
+                .thenCompose(xboxLiveToken -> this.continueWithXboxLiveToken(accountTokens.withXboxLiveToken(xboxLiveToken), refreshToken, account));
+    }
+
+    private @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> continueWithXboxLiveToken(@NotNull AccountTokens accountTokens, @Nullable String refreshToken,
+                                                                                                            @Nullable String account) {
+        return this.microsoftClient.authenticateXSTSTokenAsync(accountTokens.xboxLiveToken().token(), account)
+                .thenCompose(xstsToken -> this.continueWithXstsToken(accountTokens.withXstsToken(xstsToken), refreshToken, account));
+    }
+
+    private @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> continueWithXstsToken(@NotNull AccountTokens accountTokens, @Nullable String refreshToken,
+                                                                                                        @Nullable String account) {
+        return this.pipeline.authenticateAsync(accountTokens.xstsToken().toAuthorizationHeader(), refreshToken, account)
+                .thenApply(result -> {
+                    this.cacheTokens(result, accountTokens);
+                    return result;
+                });
+    }
+
+    /**
+     * Caches the intermediate tokens of an account, if a token cache is in use.
+     *
+     * @param result The authentication result of the account.
+     * @param accountTokens The tokens used to authenticate.
+     */
+    private void cacheTokens(@NotNull AuthenticationResult<AuthenticationRecord> result, @NotNull AccountTokens accountTokens) {
+        if (this.tokenCache != null) {
+            this.tokenCache.put(result.record().uuid(), accountTokens);
+        }
+    }
+    //endregion
+
+    /**
+     * Supplies the callback with the outcome of the authentication, if it is still pending.
+     *
+     * @param callback The callback of the authentication.
+     * @param result The authentication result, or {@code null} if it failed.
+     * @param throwable The cause of the failure, or {@code null} if it succeeded.
+     */
+    private void completeAuthentication(@Nullable AuthenticationCallback<AuthenticationRecord> callback,
+                                        @Nullable AuthenticationResult<AuthenticationRecord> result,
+                                        @Nullable Throwable throwable) {
+        // Remove callback before supplying it, so that it may start another authentication
+        if (callback == null || !this.callback.compareAndSet(callback, null)) { // stopped in the meantime
+            return;
+        }
+
+        if (throwable != null) {
+            callback.onFailure(FutureUtil.unwrap(throwable));
+        } else {
+            callback.onAuthentication(result.record(), result.profile());
+        }
+    }
 }
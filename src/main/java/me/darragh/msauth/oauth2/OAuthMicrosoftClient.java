@@ -1,17 +1,21 @@
 package me.darragh.msauth.oauth2;
 
-import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
-import lombok.RequiredArgsConstructor;
-import me.darragh.msauth.gson.GsonProvider;
+import me.darragh.msauth.AuthStage;
+import me.darragh.msauth.AuthenticationException;
+import me.darragh.msauth.client.XboxToken;
+import me.darragh.msauth.gson.JsonBodies;
+import me.darragh.msauth.http.HttpTransport;
+import me.darragh.msauth.http.ServiceEndpoints;
 import me.darragh.msauth.util.FormBuilder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles communication with Microsoft's OAuth2 services.
@@ -20,25 +24,46 @@ import java.net.http.HttpResponse;
  *      - <a href="https://minecraft.wiki/w/Microsoft_authentication">...</a>
  *      - <a href="https://gist.github.com/johngagefaulkner/7af56c87e29c85641474d2eb43eee441">...</a>
  *
- * @apiNote This class is not thread-safe.
+ * @apiNote This class is thread-safe, and may be shared between logins.
  *
  * @author darraghd493
  * @since 1.0.0
  */
-@RequiredArgsConstructor
 @SuppressWarnings("SpellCheckingInspection")
 public class OAuthMicrosoftClient {
-    private static final Gson GSON = GsonProvider.get();
+    private static final String TOKEN_PATH = "/oauth20_token.srf";
+    private static final String XBL_AUTH_PATH = "/user/authenticate";
+    private static final String XSTS_AUTH_PATH = "/xsts/authorize";
 
-    private static final String TOKEN_URL = "https://login.live.com/oauth20_token.srf";
-    private static final String XBL_AUTH_URL = "https://user.auth.xboxlive.com/user/authenticate";
-    private static final String XSTS_AUTH_URL = "https://xsts.auth.xboxlive.com/xsts/authorize";
+    private final OAuthOptions options;
+    private final @NotNull HttpTransport transport;
+    private final @NotNull URI tokenUri;
+    private final @NotNull URI xblAuthUri;
+    private final @NotNull URI xstsAuthUri;
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .followRedirects(HttpClient.Redirect.NEVER)
-            .build();
+    public OAuthMicrosoftClient(@NotNull OAuthOptions options) {
+        this(options, HttpTransport.get());
+    }
 
-    private final OAuthOptions options;
+    public OAuthMicrosoftClient(OAuthOptions options, @NotNull HttpTransport transport) {
+        this(options, transport, ServiceEndpoints.DEFAULT);
+    }
+
+    /**
+     * Creates a client which communicates with the given endpoints.
+     *
+     * @param options The OAuth2 options.
+     * @param transport The HTTP transport.
+     * @param endpoints The service endpoints.
+     * @since 1.2.0
+     */
+    public OAuthMicrosoftClient(OAuthOptions options, @NotNull HttpTransport transport, @NotNull ServiceEndpoints endpoints) {
+        this.options = options;
+        this.transport = transport;
+        this.tokenUri = ServiceEndpoints.resolve(endpoints.liveLogin(), TOKEN_PATH);
+        this.xblAuthUri = ServiceEndpoints.resolve(endpoints.xboxUserAuthentication(), XBL_AUTH_PATH);
+        this.xstsAuthUri = ServiceEndpoints.resolve(endpoints.xboxSecureTokenService(), XSTS_AUTH_PATH);
+    }
 
     /**
      * Fetches the OAuth tokens from the OAuth2 code.
@@ -48,33 +73,28 @@ public class OAuthMicrosoftClient {
      * @return The OAuth tokens.
      */
     public @NotNull OAuthTokens fetchOAuthTokens(@NotNull String oAuthCode, @NotNull String redirectUri) {
-        String formBody = new FormBuilder()
-                .add("client_id", this.options.clientId())
-                .add("code", oAuthCode)
-                .add("grant_type", "authorization_code")
-                .add("redirect_uri", redirectUri)
-                .add("scope", "XboxLive.signin XboxLive.offline_access")
-                .build();
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(TOKEN_URL))
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .POST(HttpRequest.BodyPublishers.ofString(formBody))
-                .build();
-
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to fetch access token: " + response.body());
-            }
-
-            return GSON.fromJson(response.body(), OAuthTokens.class);
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.MICROSOFT_TOKEN, null, this.createAuthorizationCodeRequest(oAuthCode, redirectUri),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseOAuthTokens(response, "Failed to fetch access token");
         } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to fetch access token", e);
+            throw new AuthenticationException(AuthStage.MICROSOFT_TOKEN, "Failed to fetch access token", e);
         }
     }
 
+    /**
+     * Fetches the OAuth tokens from the OAuth2 code asynchronously.
+     *
+     * @param oAuthCode The OAuth2 code.
+     * @param redirectUri The redirect URI.
+     * @return A future completed with the OAuth tokens.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<OAuthTokens> fetchOAuthTokensAsync(@NotNull String oAuthCode, @NotNull String redirectUri) {
+        return this.transport.sendAsync(AuthStage.MICROSOFT_TOKEN, null, this.createAuthorizationCodeRequest(oAuthCode, redirectUri),
+                HttpResponse.BodyHandlers.ofByteArray(), response -> parseOAuthTokens(response, "Failed to fetch access token"));
+    }
+
     /**
      * Uses the refresh token to fetch new OAuth tokens.
      *
@@ -83,31 +103,54 @@ public class OAuthMicrosoftClient {
      * @return The new OAuth tokens.
      */
     public @NotNull OAuthTokens useRefreshToken(@NotNull String refreshToken, @NotNull String redirectUri) {
-        String formBody = new FormBuilder()
-                .add("client_id", this.options.clientId())
-                .add("refresh_token", refreshToken)
-                .add("grant_type", "refresh_token")
-                .add("redirect_uri", redirectUri)
-                .add("scope", "XboxLive.signin XboxLive.offline_access")
-                .build();
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(TOKEN_URL))
-                .header("Content-Type", "application/x-www-form-urlencoded")
-                .POST(HttpRequest.BodyPublishers.ofString(formBody))
-                .build();
+        return this.useRefreshToken(refreshToken, redirectUri, null);
+    }
 
+    /**
+     * Uses the refresh token to fetch new OAuth tokens.
+     *
+     * @param refreshToken The refresh token.
+     * @param redirectUri The redirect URI.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The new OAuth tokens.
+     * @since 1.2.0
+     */
+    public @NotNull OAuthTokens useRefreshToken(@NotNull String refreshToken, @NotNull String redirectUri, @Nullable String account) {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to use refresh token: " + response.body());
-            }
-            return GSON.fromJson(response.body(), OAuthTokens.class);
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.MICROSOFT_TOKEN, account, this.createRefreshTokenRequest(refreshToken, redirectUri),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseOAuthTokens(response, "Failed to use refresh token");
         } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to use refresh token", e);
+            throw new AuthenticationException(AuthStage.MICROSOFT_TOKEN, "Failed to use refresh token", e);
         }
     }
 
+    /**
+     * Uses the refresh token to fetch new OAuth tokens asynchronously.
+     *
+     * @param refreshToken The refresh token.
+     * @param redirectUri The redirect URI.
+     * @return A future completed with the new OAuth tokens.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<OAuthTokens> useRefreshTokenAsync(@NotNull String refreshToken, @NotNull String redirectUri) {
+        return this.useRefreshTokenAsync(refreshToken, redirectUri, null);
+    }
+
+    /**
+     * Uses the refresh token to fetch new OAuth tokens asynchronously.
+     *
+     * @param refreshToken The refresh token.
+     * @param redirectUri The redirect URI.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the new OAuth tokens.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<OAuthTokens> useRefreshTokenAsync(@NotNull String refreshToken, @NotNull String redirectUri, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.MICROSOFT_TOKEN, account, this.createRefreshTokenRequest(refreshToken, redirectUri),
+                HttpResponse.BodyHandlers.ofByteArray(), response -> parseOAuthTokens(response, "Failed to use refresh token"));
+    }
+
     /**
      * Authenticates with Xbox Live.
      *
@@ -115,108 +158,248 @@ public class OAuthMicrosoftClient {
      * @return The Xbox Live token.
      */
     public @NotNull String authenticateXboxLive(@NotNull String authToken) {
-        XboxLiveProperties properties = new XboxLiveProperties("RPS", "user.auth.xboxlive.com", "d=" + authToken);
-        XboxLiveAuthenticationRequest req = new XboxLiveAuthenticationRequest(properties, "http://auth.xboxlive.com", "JWT");
+        return this.authenticateXboxLiveToken(authToken).token();
+    }
 
-        String jsonBody = GSON.toJson(req);
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(XBL_AUTH_URL))
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                .build();
+    /**
+     * Authenticates with Xbox Live asynchronously.
+     *
+     * @param authToken The authentication token.
+     * @return A future completed with the Xbox Live token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<String> authenticateXboxLiveAsync(@NotNull String authToken) {
+        return this.authenticateXboxLiveTokenAsync(authToken).thenApply(XboxToken::token);
+    }
+
+    /**
+     * Authenticates with Xbox Live, retaining the token's expiry.
+     *
+     * @param authToken The authentication token.
+     * @return The Xbox Live token.
+     * @since 1.2.0
+     */
+    public @NotNull XboxToken authenticateXboxLiveToken(@NotNull String authToken) {
+        return this.authenticateXboxLiveToken(authToken, null);
+    }
 
+    /**
+     * Authenticates with Xbox Live, retaining the token's expiry.
+     *
+     * @param authToken The authentication token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The Xbox Live token.
+     * @since 1.2.0
+     */
+    public @NotNull XboxToken authenticateXboxLiveToken(@NotNull String authToken, @Nullable String account) {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to authenticate Xbox Live: " + response.body());
-            }
-            XboxLiveAuthentication authResponse = GSON.fromJson(response.body(), XboxLiveAuthentication.class);
-            return authResponse.token();
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.XBOX_LIVE, account, this.createXboxLiveRequest(authToken),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return parseXboxLiveToken(response);
         } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to authenticate Xbox Live", e);
+            throw new AuthenticationException(AuthStage.XBOX_LIVE, "Failed to authenticate Xbox Live", e);
         }
     }
 
+    /**
+     * Authenticates with Xbox Live asynchronously, retaining the token's expiry.
+     *
+     * @param authToken The authentication token.
+     * @return A future completed with the Xbox Live token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<XboxToken> authenticateXboxLiveTokenAsync(@NotNull String authToken) {
+        return this.authenticateXboxLiveTokenAsync(authToken, null);
+    }
+
+    /**
+     * Authenticates with Xbox Live asynchronously, retaining the token's expiry.
+     *
+     * @param authToken The authentication token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the Xbox Live token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<XboxToken> authenticateXboxLiveTokenAsync(@NotNull String authToken, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.XBOX_LIVE, account, this.createXboxLiveRequest(authToken),
+                HttpResponse.BodyHandlers.ofByteArray(), OAuthMicrosoftClient::parseXboxLiveToken);
+    }
+
     /**
      * Authenticates with Xbox Secure Token Service (XSTS).
      *
      * @param xblToken The Xbox Live token.
-     * @return The XSTS token.
+     * @return The XSTS token, formatted for use in the Authorization header.
      */
     public @NotNull String authenticateXSTS(@NotNull String xblToken) {
-        XboxSecureTokenServiceProperties properties = new XboxSecureTokenServiceProperties(new String[] { xblToken }, "RETAIL");
-        XboxSecureTokenServiceRequest req = new XboxSecureTokenServiceRequest(properties, "rp://api.minecraftservices.com/", "JWT");
+        return this.authenticateXSTSToken(xblToken).toAuthorizationHeader();
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(XSTS_AUTH_URL))
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(GSON.toJson(req)))
-                .build();
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously.
+     *
+     * @param xblToken The Xbox Live token.
+     * @return A future completed with the XSTS token, formatted for use in the Authorization header.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<String> authenticateXSTSAsync(@NotNull String xblToken) {
+        return this.authenticateXSTSTokenAsync(xblToken).thenApply(XboxToken::toAuthorizationHeader);
+    }
 
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS), retaining the token's expiry.
+     *
+     * @param xblToken The Xbox Live token.
+     * @return The XSTS token.
+     * @since 1.2.0
+     */
+    public @NotNull XboxToken authenticateXSTSToken(@NotNull String xblToken) {
+        return this.authenticateXSTSToken(xblToken, null);
+    }
+
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS), retaining the token's expiry.
+     *
+     * @param xblToken The Xbox Live token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return The XSTS token.
+     * @since 1.2.0
+     */
+    public @NotNull XboxToken authenticateXSTSToken(@NotNull String xblToken, @Nullable String account) {
         try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to authenticate XSTS: " + response.body());
-            }
-            XboxSecureTokenServiceAuthentication xstsResponse = GSON.fromJson(response.body(), XboxSecureTokenServiceAuthentication.class);
-            return "XBL3.0 x=" + xstsResponse.displayClaims().xuis()[0].uhs() + ";" + xstsResponse.token();
+            HttpResponse<byte[]> response = this.transport.send(AuthStage.XSTS, account, this.createXSTSRequest(xblToken), HttpResponse.BodyHandlers.ofByteArray());
+            return parseXSTSToken(response);
         } catch (IOException | InterruptedException e) {
-            throw new RuntimeException("Failed to authenticate XSTS", e);
+            throw new AuthenticationException(AuthStage.XSTS, "Failed to authenticate XSTS", e);
         }
     }
 
-    //region Records
-    //region OAuth2
-    public record OAuthTokens(@SerializedName("token_type") String tokenType,
-                              @SerializedName("expires_in") int expiresIn,
-                              @SerializedName("scope") String scope,
-                              @SerializedName("access_token") String accessToken,
-                              @SerializedName("refresh_token") String refreshToken,
-                              @SerializedName("user_id") String userId) {
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously, retaining the token's expiry.
+     *
+     * @param xblToken The Xbox Live token.
+     * @return A future completed with the XSTS token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<XboxToken> authenticateXSTSTokenAsync(@NotNull String xblToken) {
+        return this.authenticateXSTSTokenAsync(xblToken, null);
     }
-    //endregion
 
-    //region Xbox Live
-    private record XboxLiveProperties(@SerializedName("AuthMethod") String authMethod,
-                                      @SerializedName("SiteName") String siteName,
-                                      @SerializedName("RpsTicket") String rpsTicket) {
+    /**
+     * Authenticates with Xbox Secure Token Service (XSTS) asynchronously, retaining the token's expiry.
+     *
+     * @param xblToken The Xbox Live token.
+     * @param account An identifier of the account shared by the login chain, reported hashed, or {@code null} if unknown.
+     * @return A future completed with the XSTS token.
+     * @since 1.2.0
+     */
+    public @NotNull CompletableFuture<XboxToken> authenticateXSTSTokenAsync(@NotNull String xblToken, @Nullable String account) {
+        return this.transport.sendAsync(AuthStage.XSTS, account, this.createXSTSRequest(xblToken),
+                HttpResponse.BodyHandlers.ofByteArray(), OAuthMicrosoftClient::parseXSTSToken);
     }
 
-    private record XboxLiveXui(@SerializedName("uhs") String uhs) {
+    //region Requests
+    private @NotNull HttpRequest createAuthorizationCodeRequest(@NotNull String oAuthCode, @NotNull String redirectUri) {
+        String formBody = new FormBuilder()
+                .add("client_id", this.options.clientId())
+                .add("code", oAuthCode)
+                .add("grant_type", "authorization_code")
+                .add("redirect_uri", redirectUri)
+                .add("scope", "XboxLive.signin XboxLive.offline_access")
+                .build();
 
+        return HttpRequest.newBuilder()
+                .uri(this.tokenUri)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(formBody))
+                .build();
     }
-    private record XboxLiveDisplayClaims(@SerializedName("xui") XboxLiveXui[] xuis) {
 
+    private @NotNull HttpRequest createRefreshTokenRequest(@NotNull String refreshToken, @NotNull String redirectUri) {
+        String formBody = new FormBuilder()
+                .add("client_id", this.options.clientId())
+                .add("refresh_token", refreshToken)
+                .add("grant_type", "refresh_token")
+                .add("redirect_uri", redirectUri)
+                .add("scope", "XboxLive.signin XboxLive.offline_access")
+                .build();
+
+        return HttpRequest.newBuilder()
+                .uri(this.tokenUri)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(formBody))
+                .build();
     }
 
-    private record XboxLiveAuthenticationRequest(@SerializedName("Properties") XboxLiveProperties properties,
-                                                 @SerializedName("RelyingParty") String relyingParty,
-                                                 @SerializedName("TokenType") String tokenType) {
+    private @NotNull HttpRequest createXboxLiveRequest(@NotNull String authToken) {
+        String body = JsonBodies.write(writer -> writer.beginObject()
+                .name("Properties").beginObject()
+                    .name("AuthMethod").value("RPS")
+                    .name("SiteName").value("user.auth.xboxlive.com")
+                    .name("RpsTicket").value("d=" + authToken)
+                .endObject()
+                .name("RelyingParty").value("http://auth.xboxlive.com")
+                .name("TokenType").value("JWT")
+                .endObject());
+
+        return HttpRequest.newBuilder()
+                .uri(this.xblAuthUri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
     }
 
-    private record XboxLiveAuthentication(@SerializedName("IssueInstant") String issueInstant,
-                                          @SerializedName("NotAfter") String notAfter,
-                                          @SerializedName("Token") String token,
-                                          @SerializedName("DisplayClaims") XboxLiveDisplayClaims displayClaims) {
+    private @NotNull HttpRequest createXSTSRequest(@NotNull String xblToken) {
+        String body = JsonBodies.write(writer -> writer.beginObject()
+                .name("Properties").beginObject()
+                    .name("UserTokens").beginArray().value(xblToken).endArray()
+                    .name("SandboxId").value("RETAIL")
+                .endObject()
+                .name("RelyingParty").value("rp://api.minecraftservices.com/")
+                .name("TokenType").value("JWT")
+                .endObject());
+
+        return HttpRequest.newBuilder()
+                .uri(this.xstsAuthUri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
     }
     //endregion
 
-    //region Xbox Secure Token Service (XSTS) - integrated with Xbox Live
-    private record XboxSecureTokenServiceProperties(@SerializedName("UserTokens") String[] userTokens,
-                                                    @SerializedName("SandboxId") String sandboxId) {
+    //region Responses
+    private static @NotNull OAuthTokens parseOAuthTokens(@NotNull HttpResponse<byte[]> response, @NotNull String failureMessage) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.MICROSOFT_TOKEN, response, failureMessage + ": " + JsonBodies.asString(response));
+        }
+        return JsonBodies.decode(response, OAuthTokens.class);
+    }
+
+    private static @NotNull XboxToken parseXboxLiveToken(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.XBOX_LIVE, response, "Failed to authenticate Xbox Live: " + JsonBodies.asString(response));
+        }
+        return JsonBodies.decode(response, XboxToken.class);
     }
 
-    private record XboxSecureTokenServiceRequest(@SerializedName("Properties") XboxSecureTokenServiceProperties properties,
-                                                 @SerializedName("RelyingParty") String relyingParty,
-                                                 @SerializedName("TokenType") String tokenType) {
+    private static @NotNull XboxToken parseXSTSToken(@NotNull HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new AuthenticationException(AuthStage.XSTS, response, "Failed to authenticate XSTS: " + JsonBodies.asString(response));
+        }
+        return JsonBodies.decode(response, XboxToken.class);
     }
+    //endregion
 
-    private record XboxSecureTokenServiceAuthentication(@SerializedName("IssueInstant") String issueInstant,
-                                                        @SerializedName("NotAfter") String notAfter,
-                                                        @SerializedName("Token") String token,
-                                                        @SerializedName("DisplayClaims") XboxLiveDisplayClaims displayClaims) {
+    //region Records
+    //region OAuth2
+    public record OAuthTokens(@SerializedName("token_type") String tokenType,
+                              @SerializedName("expires_in") int expiresIn,
+                              @SerializedName("scope") String scope,
+                              @SerializedName("access_token") String accessToken,
+                              @SerializedName("refresh_token") String refreshToken,
+                              @SerializedName("user_id") String userId) {
     }
     //endregion
     //endregion
@@ -2,6 +2,7 @@ package me.darragh.msauth.oauth2;
 
 import me.darragh.msauth.oauth2.server.OAuthPageHandler;
 import me.darragh.msauth.oauth2.server.SimpleOAuthPageHandler;
+import me.darragh.msauth.util.ExecutorProvider;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -13,11 +14,31 @@ import org.jetbrains.annotations.NotNull;
  * @param clientId The client ID for the OAuth2 application.
  * @param port The port to run the OAuth2 pageHandler on.
  * @param pageHandler The pageHandler to handle the OAuth2 authentication.
+ * @param executorProvider The provider of the executors handling OAuth2 redirects, and so executing the login chain.
  */
-public record OAuthOptions(@NotNull String clientId, int port, @NotNull OAuthPageHandler pageHandler) {
+public record OAuthOptions(@NotNull String clientId, int port, @NotNull OAuthPageHandler pageHandler, @NotNull ExecutorProvider executorProvider) {
     public static final OAuthOptions DEFAULT = new OAuthOptions(
             "54fd49e4-2103-4044-9603-2b028c814ec3", // In-Game Account Switcher Client ID
             59125,
             new SimpleOAuthPageHandler()
     );
+
+    /**
+     * Creates options which handle each redirect on its own virtual thread, where supported.
+     *
+     * @see ExecutorProvider#virtualThreadPerTask()
+     */
+    public OAuthOptions(@NotNull String clientId, int port, @NotNull OAuthPageHandler pageHandler) {
+        this(clientId, port, pageHandler, ExecutorProvider.virtualThreadPerTask());
+    }
+
+    /**
+     * Returns a copy of these options using the given executor provider.
+     *
+     * @param executorProvider The executor provider.
+     * @return The options.
+     */
+    public @NotNull OAuthOptions withExecutorProvider(@NotNull ExecutorProvider executorProvider) {
+        return new OAuthOptions(this.clientId, this.port, this.pageHandler, executorProvider);
+    }
 }
@@ -0,0 +1,21 @@
+package me.darragh.msauth.oauth2;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pending interactive login, created by an {@link OAuthSessionManager}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param state The OAuth2 state parameter identifying the session.
+ * @param url The URL the user must visit to log in.
+ * @param result A future completed with the authentication result. It fails with a {@link java.util.concurrent.TimeoutException} if the session expires,
+ *               and cancelling it abandons the session.
+ */
+public record OAuthSession(@NotNull String state, @NotNull String url, @NotNull CompletableFuture<AuthenticationResult<AuthenticationRecord>> result) {
+}
@@ -0,0 +1,123 @@
+package me.darragh.msauth.oauth2;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.oauth2.server.OAuthCallbackServer;
+import me.darragh.msauth.oauth2.server.OAuthResponseState;
+import me.darragh.msauth.util.FutureUtil;
+import me.darragh.msauth.util.QueryUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handles many concurrent interactive logins on a single port, such as for a login portal.
+ * <p>
+ * Each login is a {@link OAuthSession} with its own URL, carrying an unguessable OAuth2 {@code state}.
+ * A single long-lived {@link OAuthCallbackServer} routes each redirect to its session, and remains bound between logins.
+ * <p>
+ * Logins are completed by the authenticator, so they share its transport, pipeline and token cache.
+ * The manager binds the authenticator's port, and so replaces its single-session interactive login.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class OAuthSessionManager implements AutoCloseable {
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final @NotNull OAuthAuthenticator authenticator;
+    private final @NotNull OAuthCallbackServer server;
+
+    /**
+     * Creates a session manager. The callback server is started with the first session.
+     *
+     * @param authenticator The authenticator used to complete logins.
+     */
+    public OAuthSessionManager(@NotNull OAuthAuthenticator authenticator) {
+        this.authenticator = authenticator;
+        this.server = new OAuthCallbackServer(authenticator.options());
+    }
+
+    /**
+     * Creates a session which expires after {@link #DEFAULT_TIME_TO_LIVE}.
+     *
+     * @return The session.
+     */
+    public @NotNull OAuthSession createSession() {
+        return this.createSession(DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates a session.
+     *
+     * @param timeToLive The time after which the session expires, if the user has not logged in.
+     * @return The session.
+     */
+    public @NotNull OAuthSession createSession(@NotNull Duration timeToLive) {
+        try {
+            this.server.start();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start server", e);
+        }
+
+        String state = generateState();
+        CompletableFuture<AuthenticationResult<AuthenticationRecord>> result = new CompletableFuture<>();
+        this.server.register(state, timeToLive, exchange -> {
+            String code = QueryUtil.getQuery(exchange.getRequestURI().getQuery(), "code");
+            if (code == null) {
+                result.completeExceptionally(new RuntimeException("No code in query"));
+                return OAuthResponseState.FAILURE;
+            }
+
+            try {
+                // Blocks the server thread, so that the page reflects the outcome of the login
+                result.complete(this.authenticator.completeLoginAsync(code).join());
+                return OAuthResponseState.SUCCESS;
+            } catch (CompletionException | CancellationException e) {
+                result.completeExceptionally(FutureUtil.unwrap(e));
+                return OAuthResponseState.FAILURE;
+            }
+        }, () -> result.completeExceptionally(new TimeoutException("Session expired")));
+        result.whenComplete((ignored, throwable) -> {
+            if (result.isCancelled()) {
+                this.server.unregister(state);
+            }
+        });
+
+        return new OAuthSession(state, this.authenticator.generateUrl(state), result);
+    }
+
+    /**
+     * The number of sessions awaiting a login.
+     *
+     * @return The number of pending sessions.
+     */
+    public int pendingSessions() {
+        return this.server.pendingSessions();
+    }
+
+    /**
+     * Stops the callback server, expiring every pending session.
+     */
+    @Override
+    public void close() {
+        this.server.stop();
+    }
+
+    private static @NotNull String generateState() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
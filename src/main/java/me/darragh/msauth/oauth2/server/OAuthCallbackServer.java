@@ -0,0 +1,184 @@
+package me.darragh.msauth.oauth2.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import me.darragh.msauth.oauth2.OAuthOptions;
+import me.darragh.msauth.util.ExecutorProvider;
+import me.darragh.msauth.util.QueryUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A long-lived OAuth2 callback server, which handles many concurrent logins on a single port.
+ * <p>
+ * Each login registers a session under its OAuth2 {@code state} parameter, and each redirect is routed to the session whose state it carries.
+ * Sessions are single-use, and are evicted once their time-to-live elapses. The server remains bound between logins, until it is stopped.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class OAuthCallbackServer implements HttpHandler {
+    private static final Logger LOGGER = Logger.getLogger(OAuthCallbackServer.class.getName());
+
+    private final @NotNull OAuthPageHandler pageHandler;
+    private final int port;
+    private final @NotNull ExecutorProvider executorProvider;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public OAuthCallbackServer(@NotNull OAuthOptions options) {
+        this.pageHandler = options.pageHandler();
+        this.port = options.port();
+        this.executorProvider = options.executorProvider();
+    }
+
+    /**
+     * Starts the server, if it is not already running.
+     *
+     * @throws IOException If the server cannot be bound.
+     */
+    public synchronized void start() throws IOException {
+        if (this.server != null) {
+            return;
+        }
+
+        this.executor = this.executorProvider.create("msauth-oauth-callback");
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", this.port), 0);
+        } catch (IOException e) {
+            this.executor.shutdown();
+            throw e;
+        }
+        this.server.createContext("/", this);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    /**
+     * Stops the server, expiring every pending session.
+     */
+    public synchronized void stop() {
+        if (this.server == null) {
+            return;
+        }
+
+        this.server.stop(0);
+        this.executor.shutdown();
+        this.server = null;
+        this.executor = null;
+
+        this.sessions.forEach((state, session) -> this.expire(state, session));
+    }
+
+    /**
+     * Checks if the server is running.
+     *
+     * @return True if the server is running, false otherwise.
+     */
+    public synchronized boolean isRunning() {
+        return this.server != null;
+    }
+
+    /**
+     * Registers a session, to which the redirect carrying its state is routed.
+     *
+     * @param state The OAuth2 state parameter of the session, which must be unguessable.
+     * @param timeToLive The time after which the session is evicted, if no redirect has been received.
+     * @param responseHandler The handler of the redirect.
+     * @param expiryHandler Called if the session is evicted (or the server is stopped) before a redirect is received.
+     */
+    public void register(@NotNull String state, @NotNull Duration timeToLive, @NotNull OAuthResponseHandler responseHandler, @NotNull Runnable expiryHandler) {
+        Session session = new Session(responseHandler, expiryHandler, Instant.now().plus(timeToLive));
+        if (this.sessions.putIfAbsent(state, session) != null) {
+            throw new IllegalStateException("A session is already registered with this state");
+        }
+        CompletableFuture.delayedExecutor(timeToLive.toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> this.expire(state, session));
+    }
+
+    /**
+     * Removes a session without notifying it.
+     *
+     * @param state The OAuth2 state parameter of the session.
+     */
+    public void unregister(@NotNull String state) {
+        this.sessions.remove(state);
+    }
+
+    /**
+     * The number of sessions awaiting a redirect.
+     *
+     * @return The number of pending sessions.
+     */
+    public int pendingSessions() {
+        return this.sessions.size();
+    }
+
+    @Override
+    public void handle(@NotNull HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+
+        String query = exchange.getRequestURI().getQuery();
+        String state = query == null ? null : QueryUtil.getQuery(query, "state");
+        Session session = state == null ? null : this.sessions.remove(state); // single-use
+
+        OAuthResponseState responseState;
+        if (session == null) {
+            responseState = OAuthResponseState.INVALID;
+        } else if (Instant.now().isAfter(session.expiresAt())) {
+            session.expiryHandler().run();
+            responseState = OAuthResponseState.INVALID;
+        } else {
+            try {
+                responseState = session.responseHandler().handleResponse(exchange);
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "An error occurred while handling the OAuth response.", e);
+                responseState = OAuthResponseState.FAILURE;
+            }
+        }
+
+        byte[] bytes = this.pageHandler.generatePage(this.pageHandler.getMessage(responseState)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private void expire(@NotNull String state, @NotNull Session session) {
+        if (!this.sessions.remove(state, session)) { // already handled
+            return;
+        }
+        try {
+            session.expiryHandler().run();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "An error occurred while expiring an OAuth session.", e);
+        }
+    }
+
+    private record Session(@NotNull OAuthResponseHandler responseHandler, @NotNull Runnable expiryHandler, @NotNull Instant expiresAt) {
+    }
+}
@@ -3,104 +3,221 @@ package me.darragh.msauth.oauth2.server;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
-import lombok.RequiredArgsConstructor;
 import me.darragh.msauth.oauth2.OAuthOptions;
+import me.darragh.msauth.util.ExecutorProvider;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Handles the HTTP requests to the OAuth pageHandler.
+ * <p>
+ * The server's lifecycle is an explicit state machine ({@link OAuthServerState}). A stop is deferred until every response in flight
+ * has been flushed, and then releases the port immediately, so that the next login may bind it straight away.
  *
  * @author darraghd493
  * @since 1.0.0
  */
-@RequiredArgsConstructor
 public class OAuthServerHandler implements HttpHandler {
-    private static final Executor EXECUTOR_SERVICE = Executors.newSingleThreadExecutor();
     private static final Logger LOGGER = Logger.getLogger(OAuthServerHandler.class.getName());
 
     private final @NotNull OAuthPageHandler pageHandler;
     private final @NotNull OAuthResponseHandler responseHandler;
 
     private final int port;
+    private final @NotNull ExecutorProvider executorProvider;
 
+    // Guarded by this
     private HttpServer server;
+    private ExecutorService executor;
+    private OAuthServerState state = OAuthServerState.STOPPED;
+    private int activeExchanges;
+    private CompletableFuture<Void> stopped = CompletableFuture.completedFuture(null);
 
-    public OAuthServerHandler(@NotNull OAuthOptions options, @NotNull OAuthResponseHandler responseHandler) {
-        this.pageHandler = options.pageHandler();
-        this.port = options.port();
+    public OAuthServerHandler(@NotNull OAuthPageHandler pageHandler, @NotNull OAuthResponseHandler responseHandler, int port) {
+        this(pageHandler, responseHandler, port, ExecutorProvider.virtualThreadPerTask());
+    }
+
+    /**
+     * Creates a server handler whose redirects are handled by executors from the given provider.
+     *
+     * @param pageHandler The page handler.
+     * @param responseHandler The response handler.
+     * @param port The port to run the server on.
+     * @param executorProvider The provider of the executor handling redirects, created each time the server is started.
+     */
+    public OAuthServerHandler(@NotNull OAuthPageHandler pageHandler, @NotNull OAuthResponseHandler responseHandler, int port, @NotNull ExecutorProvider executorProvider) {
+        this.pageHandler = pageHandler;
         this.responseHandler = responseHandler;
+        this.port = port;
+        this.executorProvider = executorProvider;
+    }
+
+    public OAuthServerHandler(@NotNull OAuthOptions options, @NotNull OAuthResponseHandler responseHandler) {
+        this(options.pageHandler(), responseHandler, options.port(), options.executorProvider());
     }
 
     @Override
     public void handle(@NotNull HttpExchange exchange) throws IOException {
-        if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
-            exchange.sendResponseHeaders(405, -1);
-            exchange.close();
-            return;
+        synchronized (this) {
+            if (this.state != OAuthServerState.RUNNING) { // stopping
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            this.activeExchanges++;
         }
 
-        OAuthResponseState responseState;
         try {
-            // Attempt to handle the response, this might throw an exception
-            responseState = this.responseHandler.handleResponse(exchange);
-        } catch (Exception e) {
-            // If an exception occurs, log it and set the state to FAILURE
-            LOGGER.log(Level.SEVERE, "An error occurred while handling the OAuth response.", e);
-            responseState = OAuthResponseState.FAILURE;
-        }
-
-        // Based on the response state, generate the appropriate page
-        String pageMessage = this.pageHandler.getMessage(responseState);
-        String page = this.pageHandler.generatePage(pageMessage);
-
-        // Always write a response, even on failure
-        this.standardWrite(exchange, page);
-
-        // Stop the server only on successful authentication
-        if (responseState == OAuthResponseState.SUCCESS) {
-            // Use the executor to stop the server asynchronously to avoid race conditions
-            // and ensure the response is fully sent.
-            EXECUTOR_SERVICE.execute(this::stop);
+            if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+
+            OAuthResponseState responseState;
+            try {
+                // Attempt to handle the response, this might throw an exception
+                responseState = this.responseHandler.handleResponse(exchange);
+            } catch (Exception e) {
+                // If an exception occurs, log it and set the state to FAILURE
+                LOGGER.log(Level.SEVERE, "An error occurred while handling the OAuth response.", e);
+                responseState = OAuthResponseState.FAILURE;
+            }
+
+            // Based on the response state, generate the appropriate page
+            String pageMessage = this.pageHandler.getMessage(responseState);
+            String page = this.pageHandler.generatePage(pageMessage);
+
+            // Always write a response, even on failure
+            this.standardWrite(exchange, page);
+        } finally {
+            // The response has been flushed, so a pending stop may now complete
+            CompletableFuture<Void> stopped = null;
+            synchronized (this) {
+                if (--this.activeExchanges == 0 && this.state == OAuthServerState.STOPPING) {
+                    stopped = this.unbind();
+                }
+            }
+            if (stopped != null) {
+                stopped.complete(null);
+            }
         }
     }
 
     /**
-     * Starts the server.
+     * Starts the server, if it is not already running.
+     * <p>
+     * If the server is stopping, this waits for it to stop (i.e. for its in-flight responses to be flushed) before binding the port again.
      */
     public void start() throws IOException {
-        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
-        this.server.createContext("/", this);
-        this.server.setExecutor(EXECUTOR_SERVICE);
-        this.server.start();
+        while (true) {
+            CompletableFuture<Void> stopped;
+            synchronized (this) {
+                switch (this.state) {
+                    case RUNNING -> {
+                        return;
+                    }
+                    case STOPPED -> {
+                        // The port is only bound once everything else is set up, as a server which never started does not release it when stopped
+                        ExecutorService executor = this.executorProvider.create("msauth-oauth-server");
+                        HttpServer server = null;
+                        try {
+                            server = HttpServer.create();
+                            server.createContext("/", this);
+                            server.setExecutor(executor);
+                            server.bind(new InetSocketAddress("localhost", this.port), 0);
+                            server.start();
+                        } catch (IOException | RuntimeException e) {
+                            if (server != null) {
+                                server.stop(0);
+                            }
+                            executor.shutdown();
+                            throw e;
+                        }
+                        this.server = server;
+                        this.executor = executor;
+                        this.state = OAuthServerState.RUNNING;
+                        this.stopped = new CompletableFuture<>();
+                        return;
+                    }
+                    default -> stopped = this.stopped;
+                }
+            }
+            stopped.join();
+        }
     }
 
     /**
      * Stops the server.
+     * <p>
+     * The server stops as soon as every response in flight has been flushed, so this may be safely called from a response handler.
+     *
+     * @return A future completed once the server has stopped, and its port has been released.
      */
-    public void stop() {
-        if (this.server == null) {
-            return;
+    public @NotNull CompletableFuture<Void> stop() {
+        CompletableFuture<Void> stopped;
+        synchronized (this) {
+            if (this.state != OAuthServerState.RUNNING) {
+                return this.stopped;
+            }
+
+            this.state = OAuthServerState.STOPPING;
+            if (this.activeExchanges > 0) { // stopped by the last exchange to complete
+                return this.stopped;
+            }
+            stopped = this.unbind();
         }
-        this.server.stop(0);
-        this.server = null;
+        stopped.complete(null);
+        return stopped;
+    }
+
+    /**
+     * Returns a future completed once the server is next stopped, or an already completed future if it is stopped.
+     *
+     * @return The future.
+     */
+    public synchronized @NotNull CompletableFuture<Void> awaitStop() {
+        return this.stopped;
+    }
+
+    /**
+     * The lifecycle state of the server.
+     *
+     * @return The state.
+     */
+    public synchronized @NotNull OAuthServerState getState() {
+        return this.state;
     }
 
     /**
      * Checks if the server is running.
      *
-     * @return True if the server is running, false otherwise.
+     * @return True if the server is running (or stopping), false otherwise.
      */
-    public boolean isRunning() {
-        return this.server != null && this.server.getAddress() != null;
+    public synchronized boolean isRunning() {
+        return this.state != OAuthServerState.STOPPED;
+    }
+
+    /**
+     * Unbinds the server. Must be called whilst holding the lock, and the returned future completed once it has been released.
+     *
+     * @return The future to complete.
+     */
+    private @NotNull CompletableFuture<Void> unbind() {
+        this.server.stop(0);
+        this.executor.shutdown();
+        this.server = null;
+        this.executor = null;
+        this.state = OAuthServerState.STOPPED;
+        return this.stopped;
     }
 
     /**
@@ -0,0 +1,22 @@
+package me.darragh.msauth.oauth2.server;
+
+/**
+ * The lifecycle state of an {@link OAuthServerHandler}'s server.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public enum OAuthServerState {
+    /**
+     * The server is not bound.
+     */
+    STOPPED,
+    /**
+     * The server is bound, and accepting redirects.
+     */
+    RUNNING,
+    /**
+     * A stop has been requested, and the server is finishing the responses in flight. New redirects are rejected.
+     */
+    STOPPING
+}
@@ -0,0 +1,221 @@
+package me.darragh.msauth.refresh;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timing wheel, executing tasks after a delay with O(1) scheduling and cancellation cost.
+ * <p>
+ * Time is divided into ticks, and each task is placed in the bucket its deadline hashes to, along with the number of whole rotations remaining.
+ * A single worker thread advances the wheel, expiring one bucket per tick. Tasks are therefore executed up to one tick late.
+ * <p>
+ * Tasks are executed on the worker thread, and so must not block.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+final class HashedTimingWheel {
+    private static final Logger LOGGER = Logger.getLogger(HashedTimingWheel.class.getName());
+
+    private static final int STATE_INIT = 0, STATE_STARTED = 1, STATE_STOPPED = 2;
+
+    /**
+     * The maximum number of tasks moved from the queue into the wheel per tick, so that a burst of scheduling cannot stall the wheel.
+     */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+
+    private volatile int state = STATE_INIT;
+    private volatile long startTime;
+    private long tick; // accessed only by the worker
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tickDuration The duration of each tick, in the given unit.
+     * @param unit The unit of the tick duration.
+     * @param wheelSize The number of buckets, rounded up to a power of two.
+     * @param threadFactory The factory creating the worker thread.
+     */
+    HashedTimingWheel(long tickDuration, @NotNull TimeUnit unit, int wheelSize, @NotNull ThreadFactory threadFactory) {
+        if (tickDuration <= 0L) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30");
+        }
+
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.buckets = new Bucket[Math.max(size, 1)];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new Bucket();
+        }
+        this.mask = this.buckets.length - 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.worker = threadFactory.newThread(this::run);
+    }
+
+    /**
+     * Schedules a task, starting the worker if needed.
+     *
+     * @param task The task to execute.
+     * @param delay The delay before executing the task.
+     * @param unit The unit of the delay.
+     * @return The handle of the scheduled task.
+     */
+    @NotNull Timeout schedule(@NotNull Runnable task, long delay, @NotNull TimeUnit unit) {
+        this.start();
+        if (this.state == STATE_STOPPED) {
+            throw new IllegalStateException("Timing wheel has been stopped");
+        }
+
+        Timeout timeout = new Timeout(task, System.nanoTime() - this.startTime + Math.max(unit.toNanos(delay), 0L));
+        this.pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the worker. Any remaining tasks are discarded.
+     */
+    synchronized void stop() {
+        if (this.state == STATE_STARTED) {
+            this.state = STATE_STOPPED;
+            LockSupport.unpark(this.worker);
+        } else {
+            this.state = STATE_STOPPED;
+        }
+        this.pending.clear();
+    }
+
+    private void start() {
+        if (this.state != STATE_INIT) {
+            return;
+        }
+        synchronized (this) {
+            if (this.state == STATE_INIT) {
+                this.startTime = System.nanoTime();
+                this.state = STATE_STARTED;
+                this.worker.start();
+            }
+        }
+    }
+
+    private void run() {
+        while (this.state == STATE_STARTED) {
+            long sleep = this.tickNanos * (this.tick + 1) - (System.nanoTime() - this.startTime);
+            if (sleep > 0L) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+
+            this.transferPending();
+            this.buckets[(int) (this.tick & this.mask)].expire();
+            this.tick++;
+        }
+    }
+
+    private void transferPending() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = this.pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.cancelled) {
+                continue;
+            }
+
+            long deadlineTick = timeout.deadline / this.tickNanos;
+            timeout.remainingRounds = (deadlineTick - this.tick) / this.buckets.length;
+            this.buckets[(int) (Math.max(deadlineTick, this.tick) & this.mask)].add(timeout); // deadlines already passed are expired this tick
+        }
+    }
+
+    /**
+     * The handle of a scheduled task.
+     */
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadline; // relative to the start time
+
+        private volatile boolean cancelled;
+        private long remainingRounds;
+        private Timeout previous, next;
+
+        private Timeout(@NotNull Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task. It is removed from the wheel lazily, when its bucket is next expired.
+         */
+        void cancel() {
+            this.cancelled = true;
+        }
+    }
+
+    /**
+     * A doubly-linked list of timeouts, accessed only by the worker.
+     */
+    private static final class Bucket {
+        private Timeout head, tail;
+
+        private void add(@NotNull Timeout timeout) {
+            if (this.tail == null) {
+                this.head = this.tail = timeout;
+            } else {
+                this.tail.next = timeout;
+                timeout.previous = this.tail;
+                this.tail = timeout;
+            }
+        }
+
+        private void expire() {
+            Timeout timeout = this.head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.cancelled) {
+                    this.remove(timeout);
+                } else if (timeout.remainingRounds <= 0L) {
+                    this.remove(timeout);
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.SEVERE, "An error occurred whilst executing a scheduled task.", e);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(@NotNull Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                this.head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                this.tail = timeout.previous;
+            }
+            timeout.previous = timeout.next = null;
+        }
+    }
+}
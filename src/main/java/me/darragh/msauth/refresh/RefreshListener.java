@@ -0,0 +1,38 @@
+package me.darragh.msauth.refresh;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.minecraft.MinecraftProfile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the records refreshed in the background by a {@link RefreshScheduler}.
+ *
+ * @apiNote Implementations must be thread-safe, as refreshes are delivered from the threads completing them.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ */
+@FunctionalInterface
+public interface RefreshListener<T extends AuthenticationRecord> {
+    /**
+     * Called when a record has been refreshed. The new record replaces the previous one in the scheduler.
+     *
+     * @param record The refreshed record.
+     * @param profile The Minecraft profile of the account.
+     */
+    void onRefresh(@NotNull T record, @NotNull MinecraftProfile profile);
+
+    /**
+     * Called when a record could not be refreshed.
+     * <p>
+     * The refresh is retried whilst the record's access token has yet to expire, after which the record is no longer scheduled.
+     *
+     * @param record The record which could not be refreshed.
+     * @param throwable The cause of the failure.
+     */
+    default void onFailure(@NotNull T record, @NotNull Throwable throwable) {
+        // no-op
+    }
+}
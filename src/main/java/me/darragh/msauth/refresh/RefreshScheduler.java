@@ -0,0 +1,263 @@
+package me.darragh.msauth.refresh;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.AuthenticationResult;
+import me.darragh.msauth.Authenticator;
+import me.darragh.msauth.util.FutureUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Refreshes held records in the background, ahead of their access token expiring.
+ * <p>
+ * Each record is refreshed at a random point within the jitter window before the lead time, so that accounts issued together
+ * are not refreshed together. Refreshes are scheduled on a hashed timing wheel driven by a single daemon thread, so scheduling
+ * and cancellation are O(1) regardless of the number of held records. The refreshes themselves are performed asynchronously by the authenticator.
+ * <p>
+ * Records without a known expiry are refreshed immediately (within the jitter window), so that their expiry becomes known.
+ *
+ * @apiNote This class is thread-safe. The authenticator must support concurrent refreshes, such as {@link me.darragh.msauth.oauth2.OAuthAuthenticator}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <T> The type of authentication record used to store authentication data.
+ */
+public class RefreshScheduler<T extends AuthenticationRecord> implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(RefreshScheduler.class.getName());
+
+    private static final Duration TICK_DURATION = Duration.ofSeconds(1);
+    private static final int WHEEL_SIZE = 4096;
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final @NotNull Authenticator<T> authenticator;
+    private final @NotNull Duration lead;
+    private final @NotNull Duration jitter;
+
+    private final HashedTimingWheel wheel;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final List<RefreshListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a refresh scheduler.
+     *
+     * @param authenticator The authenticator used to refresh records.
+     * @param lead The time before expiry at which records are refreshed.
+     * @param jitter The window before the lead time within which each refresh is randomly spread.
+     */
+    public RefreshScheduler(@NotNull Authenticator<T> authenticator, @NotNull Duration lead, @NotNull Duration jitter) {
+        if (lead.isNegative() || jitter.isNegative()) {
+            throw new IllegalArgumentException("Lead and jitter must not be negative");
+        }
+        this.authenticator = authenticator;
+        this.lead = lead;
+        this.jitter = jitter;
+        this.wheel = new HashedTimingWheel(TICK_DURATION.toNanos(), TimeUnit.NANOSECONDS, WHEEL_SIZE, runnable -> {
+            Thread thread = new Thread(runnable, "msauth-refresh-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a listener, notified of every refresh.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(@NotNull RefreshListener<T> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(@NotNull RefreshListener<T> listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Holds a record, refreshing it ahead of its expiry, and then continuing to refresh each refreshed record.
+     * <p>
+     * Any record already held for the same account is replaced.
+     *
+     * @param record The record.
+     */
+    public void schedule(@NotNull T record) {
+        Entry entry = new Entry(record);
+        Entry previous = this.entries.put(record.uuid(), entry);
+        if (previous != null) {
+            previous.cancel();
+        }
+        this.scheduleEntry(entry, this.delayOf(record));
+    }
+
+    /**
+     * Stops holding the record of an account. A refresh already in progress is completed, but not delivered.
+     *
+     * @param uuid The UUID of the account.
+     */
+    public void cancel(@NotNull UUID uuid) {
+        Entry entry = this.entries.remove(uuid);
+        if (entry != null) {
+            entry.cancel();
+        }
+    }
+
+    /**
+     * Returns the record currently held for an account.
+     *
+     * @param uuid The UUID of the account.
+     * @return The latest record, or {@code null} if the account is not held.
+     */
+    public @Nullable T getRecord(@NotNull UUID uuid) {
+        Entry entry = this.entries.get(uuid);
+        return entry == null ? null : entry.record;
+    }
+
+    /**
+     * The number of records held.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Stops the scheduler, discarding every held record.
+     */
+    @Override
+    public void close() {
+        this.wheel.stop();
+        this.entries.clear();
+    }
+
+    private void scheduleEntry(@NotNull Entry entry, @NotNull Duration delay) {
+        HashedTimingWheel.Timeout timeout = this.wheel.schedule(() -> this.refresh(entry), delay.toNanos(), TimeUnit.NANOSECONDS);
+        entry.timeout = timeout;
+        if (entry.cancelled) { // cancelled whilst being scheduled
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Refreshes the entry, if it is still held. Executed on the wheel's worker thread, and so only starts the refresh.
+     *
+     * @param entry The entry.
+     */
+    private void refresh(@NotNull Entry entry) {
+        if (!this.isHeld(entry)) {
+            return;
+        }
+
+        CompletableFuture<AuthenticationResult<T>> future;
+        try {
+            future = this.authenticator.performAuthenticationAsync(entry.record);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, throwable) -> {
+            if (!this.isHeld(entry)) { // cancelled or replaced in the meantime
+                return;
+            }
+
+            if (throwable != null) {
+                this.handleFailure(entry, FutureUtil.unwrap(throwable));
+                return;
+            }
+
+            Entry next = new Entry(result.record());
+            if (!this.entries.replace(entry.record.uuid(), entry, next)) {
+                return;
+            }
+            this.scheduleEntry(next, this.delayOf(result.record()));
+
+            for (RefreshListener<T> listener : this.listeners) {
+                try {
+                    listener.onRefresh(result.record(), result.profile());
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "An error occurred whilst notifying a refresh listener.", e);
+                }
+            }
+        });
+    }
+
+    private void handleFailure(@NotNull Entry entry, @NotNull Throwable throwable) {
+        Instant expiresAt = entry.record.expiresAt();
+        if (expiresAt != null && Instant.now().plus(RETRY_DELAY).isBefore(expiresAt)) {
+            this.scheduleEntry(entry, RETRY_DELAY.plus(this.randomJitter()));
+        } else {
+            this.entries.remove(entry.record.uuid(), entry);
+        }
+
+        for (RefreshListener<T> listener : this.listeners) {
+            try {
+                listener.onFailure(entry.record, throwable);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "An error occurred whilst notifying a refresh listener.", e);
+            }
+        }
+    }
+
+    private boolean isHeld(@NotNull Entry entry) {
+        return this.entries.get(entry.record.uuid()) == entry;
+    }
+
+    /**
+     * Calculates the delay before the record should be refreshed.
+     *
+     * @param record The record.
+     * @return The delay, which may be zero.
+     */
+    private @NotNull Duration delayOf(@NotNull T record) {
+        Instant expiresAt = record.expiresAt();
+        if (expiresAt == null) {
+            return this.randomJitter();
+        }
+
+        Duration delay = Duration.between(Instant.now(), expiresAt.minus(this.lead)).minus(this.randomJitter());
+        return delay.isNegative() ? Duration.ZERO : delay;
+    }
+
+    private @NotNull Duration randomJitter() {
+        long jitterNanos = this.jitter.toNanos();
+        return jitterNanos == 0L ? Duration.ZERO : Duration.ofNanos(ThreadLocalRandom.current().nextLong(jitterNanos + 1L));
+    }
+
+    /**
+     * A held record, along with its pending refresh.
+     */
+    private final class Entry {
+        private final T record;
+        private volatile HashedTimingWheel.Timeout timeout;
+        private volatile boolean cancelled;
+
+        private Entry(@NotNull T record) {
+            this.record = record;
+        }
+
+        private void cancel() {
+            this.cancelled = true;
+            HashedTimingWheel.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
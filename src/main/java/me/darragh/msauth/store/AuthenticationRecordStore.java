@@ -0,0 +1,72 @@
+package me.darragh.msauth.store;
+
+import me.darragh.msauth.AuthenticationRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Persists authentication records between runs, keyed by the UUID of their account.
+ * <p>
+ * Saving a record for an account replaces any record previously saved for it. Once {@link #save(AuthenticationRecord)} returns,
+ * the record must survive a crash, as refresh tokens are rotated and the previous one may no longer be usable.
+ *
+ * @apiNote Implementations must be thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public interface AuthenticationRecordStore extends AutoCloseable {
+    /**
+     * Loads the record of an account.
+     *
+     * @param uuid The UUID of the account.
+     * @return The record, or {@code null} if none is stored.
+     */
+    @Nullable AuthenticationRecord load(@NotNull UUID uuid);
+
+    /**
+     * Loads every stored record.
+     *
+     * @return The records.
+     */
+    @NotNull Collection<AuthenticationRecord> loadAll();
+
+    /**
+     * Saves a record, replacing any record stored for the same account.
+     *
+     * @param record The record.
+     */
+    void save(@NotNull AuthenticationRecord record);
+
+    /**
+     * Saves several records.
+     *
+     * @param records The records.
+     */
+    default void saveAll(@NotNull Collection<? extends AuthenticationRecord> records) {
+        records.forEach(this::save);
+    }
+
+    /**
+     * Deletes the record of an account.
+     *
+     * @param uuid The UUID of the account.
+     */
+    void delete(@NotNull UUID uuid);
+
+    /**
+     * The number of stored records.
+     *
+     * @return The number of records.
+     */
+    int size();
+
+    /**
+     * Closes the store, releasing any underlying resources.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,230 @@
+package me.darragh.msauth.store;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link AuthenticationRecordStore} decorator which encrypts each record's access and refresh tokens at rest.
+ * <p>
+ * Tokens are encrypted with the {@link KeyRing} before being saved to the delegate, and bound to their account and field,
+ * so an encrypted token cannot be moved to another record. Loaded records are decrypted lazily, when their tokens are first read,
+ * so loading a large store costs no more than loading the delegate.
+ * <p>
+ * Plaintext records already in the delegate are read as-is, and are encrypted by the next {@link #rotateKey()}.
+ *
+ * @apiNote This class is thread-safe, provided the delegate is.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class EncryptedAuthenticationRecordStore implements AuthenticationRecordStore {
+    private static final int ROTATION_BATCH_SIZE = 256;
+    private static final byte ACCESS_TOKEN = 1, REFRESH_TOKEN = 2;
+
+    private final @NotNull AuthenticationRecordStore delegate;
+    private final @NotNull KeyRing keyRing;
+
+    // Serialises writes with re-encryption, so that a re-encrypted record never replaces a newer one
+    private final Object writeLock = new Object();
+    private CompletableFuture<Void> rotation; // guarded by the write lock
+
+    /**
+     * Creates an encrypted store.
+     *
+     * @param delegate The store holding the encrypted records.
+     * @param keyRing The keys used to encrypt the records.
+     */
+    public EncryptedAuthenticationRecordStore(@NotNull AuthenticationRecordStore delegate, @NotNull KeyRing keyRing) {
+        this.delegate = delegate;
+        this.keyRing = keyRing;
+    }
+
+    @Override
+    public @Nullable AuthenticationRecord load(@NotNull UUID uuid) {
+        AuthenticationRecord storedRecord = this.delegate.load(uuid);
+        return storedRecord == null ? null : new EncryptedRecord(storedRecord, this.keyRing);
+    }
+
+    @Override
+    public @NotNull Collection<AuthenticationRecord> loadAll() {
+        Collection<AuthenticationRecord> storedRecords = this.delegate.loadAll();
+        List<AuthenticationRecord> records = new ArrayList<>(storedRecords.size());
+        storedRecords.forEach(storedRecord -> records.add(new EncryptedRecord(storedRecord, this.keyRing)));
+        return records;
+    }
+
+    @Override
+    public void save(@NotNull AuthenticationRecord record) {
+        synchronized (this.writeLock) {
+            this.delegate.save(this.encrypt(record));
+        }
+    }
+
+    @Override
+    public void saveAll(@NotNull Collection<? extends AuthenticationRecord> records) {
+        List<AuthenticationRecord> encryptedRecords = new ArrayList<>(records.size());
+        synchronized (this.writeLock) {
+            records.forEach(record -> encryptedRecords.add(this.encrypt(record)));
+            this.delegate.saveAll(encryptedRecords);
+        }
+    }
+
+    @Override
+    public void delete(@NotNull UUID uuid) {
+        synchronized (this.writeLock) {
+            this.delegate.delete(uuid);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.delegate.size();
+    }
+
+    @Override
+    public void close() {
+        this.delegate.close();
+    }
+
+    /**
+     * Rotates to a new key, re-encrypting every record with it in the background and then retiring the previous keys.
+     * <p>
+     * The store remains usable throughout. Records are re-encrypted in small batches, so writes are only briefly delayed.
+     *
+     * @return A future completed once every record has been re-encrypted. If a rotation is already in progress, its future is returned.
+     */
+    public @NotNull CompletableFuture<Void> rotateKey() {
+        synchronized (this.writeLock) {
+            if (this.rotation != null && !this.rotation.isDone()) {
+                return this.rotation;
+            }
+
+            // Rotated whilst holding the write lock, so every record saved afterwards is encrypted with the new key
+            this.keyRing.rotate();
+            this.rotation = CompletableFuture.runAsync(this::reEncrypt, runnable -> {
+                Thread thread = new Thread(runnable, "msauth-key-rotation");
+                thread.setDaemon(true);
+                thread.start();
+            });
+            return this.rotation;
+        }
+    }
+
+    private void reEncrypt() {
+        List<UUID> uuids = new ArrayList<>();
+        this.delegate.loadAll().forEach(record -> uuids.add(record.uuid()));
+
+        for (int start = 0; start < uuids.size(); start += ROTATION_BATCH_SIZE) {
+            synchronized (this.writeLock) {
+                List<AuthenticationRecord> batch = new ArrayList<>();
+                for (UUID uuid : uuids.subList(start, Math.min(start + ROTATION_BATCH_SIZE, uuids.size()))) {
+                    AuthenticationRecord storedRecord = this.delegate.load(uuid); // reloaded, as it may have been replaced or deleted
+                    if (storedRecord != null && this.requiresReEncryption(storedRecord)) {
+                        batch.add(this.encrypt(new EncryptedRecord(storedRecord, this.keyRing)));
+                    }
+                }
+                this.delegate.saveAll(batch);
+            }
+        }
+        this.keyRing.retire();
+    }
+
+    private boolean requiresReEncryption(@NotNull AuthenticationRecord storedRecord) {
+        return this.requiresReEncryption(storedRecord.accessToken())
+                || storedRecord.refreshToken() != null && this.requiresReEncryption(storedRecord.refreshToken());
+    }
+
+    private boolean requiresReEncryption(@NotNull String value) {
+        return !KeyRing.isEncrypted(value) || KeyRing.generationOf(value) != this.keyRing.activeGeneration();
+    }
+
+    private @NotNull AuthenticationRecord encrypt(@NotNull AuthenticationRecord record) {
+        return new SimpleAuthenticationRecord(
+                record.username(),
+                record.uuid(),
+                this.keyRing.encrypt(record.accessToken(), associatedData(record.uuid(), ACCESS_TOKEN)),
+                record.refreshToken() == null ? null : this.keyRing.encrypt(record.refreshToken(), associatedData(record.uuid(), REFRESH_TOKEN)),
+                record.issuedAt(),
+                record.expiresAt()
+        );
+    }
+
+    private static byte @NotNull [] associatedData(@NotNull UUID uuid, byte field) {
+        return ByteBuffer.allocate(17).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).put(field).array();
+    }
+
+    /**
+     * A record whose tokens are decrypted when first read.
+     */
+    private static final class EncryptedRecord implements AuthenticationRecord {
+        private final @NotNull AuthenticationRecord storedRecord;
+        private final @NotNull KeyRing keyRing;
+
+        private volatile String accessToken, refreshToken;
+
+        private EncryptedRecord(@NotNull AuthenticationRecord storedRecord, @NotNull KeyRing keyRing) {
+            this.storedRecord = storedRecord;
+            this.keyRing = keyRing;
+        }
+
+        @Override
+        public @NotNull String username() {
+            return this.storedRecord.username();
+        }
+
+        @Override
+        public @NotNull UUID uuid() {
+            return this.storedRecord.uuid();
+        }
+
+        @Override
+        public @NotNull String accessToken() {
+            String accessToken = this.accessToken;
+            if (accessToken == null) {
+                accessToken = this.accessToken = this.decrypt(this.storedRecord.accessToken(), ACCESS_TOKEN);
+            }
+            return accessToken;
+        }
+
+        @Override
+        public @Nullable String refreshToken() {
+            if (this.storedRecord.refreshToken() == null) {
+                return null;
+            }
+            String refreshToken = this.refreshToken;
+            if (refreshToken == null) {
+                refreshToken = this.refreshToken = this.decrypt(this.storedRecord.refreshToken(), REFRESH_TOKEN);
+            }
+            return refreshToken;
+        }
+
+        @Override
+        public @Nullable Instant issuedAt() {
+            return this.storedRecord.issuedAt();
+        }
+
+        @Override
+        public @Nullable Instant expiresAt() {
+            return this.storedRecord.expiresAt();
+        }
+
+        @Override
+        public String toString() {
+            return "EncryptedRecord[username=" + this.username() + ", uuid=" + this.uuid() + "]";
+        }
+
+        private @NotNull String decrypt(@NotNull String value, byte field) {
+            return KeyRing.isEncrypted(value) ? this.keyRing.decrypt(value, associatedData(this.uuid(), field)) : value;
+        }
+    }
+}
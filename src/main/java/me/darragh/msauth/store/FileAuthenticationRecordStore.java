@@ -0,0 +1,565 @@
+package me.darragh.msauth.store;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * A file-backed {@link AuthenticationRecordStore}, persisting records to an append-only log.
+ * <p>
+ * Every save or delete appends a single checksummed binary entry, and the log is replayed into memory when the store is opened.
+ * An entry torn by a crash fails its checksum and, as entries are only appended, can only be the last, so is discarded. Should any other
+ * entry be corrupt, the store refuses to open rather than discard the valid entries after it.
+ * <p>
+ * Writes are durable once {@link #save(AuthenticationRecord)} returns. Concurrent writers share a single {@code fsync} (group commit),
+ * so the cost of durability is amortised under load. Once more than half of the log consists of superseded entries, it is compacted
+ * by writing the live records to a temporary file, which atomically replaces the log.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public class FileAuthenticationRecordStore implements AuthenticationRecordStore {
+    private static final Logger LOGGER = Logger.getLogger(FileAuthenticationRecordStore.class.getName());
+
+    private static final int MAGIC = 0x4D534152; // "MSAR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8; // magic + version
+    private static final int FRAME_HEADER_SIZE = 8; // length + checksum
+
+    private static final byte TYPE_SAVE = 1, TYPE_DELETE = 2;
+    private static final long NULL_INSTANT = Long.MIN_VALUE;
+
+    private static final long MINIMUM_COMPACTION_SIZE = 1L << 20; // 1 MiB
+
+    private final @NotNull Path path;
+    private final Map<UUID, StoredRecord> records = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object(); // acquired before the write lock, never after
+
+    // Guarded by the write lock
+    private FileChannel channel;
+    private long size;
+    private long garbage;
+    private long writtenSequence;
+
+    private volatile long syncedSequence;
+    private volatile boolean closed;
+
+    /**
+     * Opens the store at the given path, creating it if it does not exist.
+     *
+     * @param path The path of the log file.
+     */
+    public FileAuthenticationRecordStore(@NotNull Path path) {
+        this.path = path;
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = this.replay();
+            this.channel.position(this.size);
+        } catch (IOException | RuntimeException e) {
+            this.closeQuietly();
+            throw new RuntimeException("Failed to open record store", e);
+        }
+    }
+
+    @Override
+    public @Nullable AuthenticationRecord load(@NotNull UUID uuid) {
+        StoredRecord storedRecord = this.records.get(uuid);
+        return storedRecord == null ? null : storedRecord.record();
+    }
+
+    @Override
+    public @NotNull Collection<AuthenticationRecord> loadAll() {
+        List<AuthenticationRecord> records = new ArrayList<>(this.records.size());
+        this.records.values().forEach(storedRecord -> records.add(storedRecord.record()));
+        return records;
+    }
+
+    @Override
+    public void save(@NotNull AuthenticationRecord record) {
+        this.saveAll(List.of(record));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote The records are appended together, and made durable with a single {@code fsync}.
+     */
+    @Override
+    public void saveAll(@NotNull Collection<? extends AuthenticationRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        long sequence;
+        synchronized (this.writeLock) {
+            this.ensureOpen();
+            for (AuthenticationRecord record : records) {
+                byte[] entry = encode(TYPE_SAVE, record.uuid(), record);
+                this.append(entry);
+                this.replace(record.uuid(), new StoredRecord(record, entry.length));
+            }
+            sequence = ++this.writtenSequence;
+        }
+        this.sync(sequence);
+        this.compactIfNeeded();
+    }
+
+    @Override
+    public void delete(@NotNull UUID uuid) {
+        long sequence;
+        synchronized (this.writeLock) {
+            this.ensureOpen();
+            if (!this.records.containsKey(uuid)) {
+                return;
+            }
+
+            byte[] entry = encode(TYPE_DELETE, uuid, null);
+            this.append(entry);
+            this.replace(uuid, null);
+            this.garbage += entry.length;
+            sequence = ++this.writtenSequence;
+        }
+        this.sync(sequence);
+        this.compactIfNeeded();
+    }
+
+    @Override
+    public int size() {
+        return this.records.size();
+    }
+
+    /**
+     * Rewrites the log so that it only contains the live records.
+     */
+    public void compact() {
+        synchronized (this.syncLock) {
+            synchronized (this.writeLock) {
+                this.ensureOpen();
+
+                Path temporaryPath = this.path.resolveSibling(this.path.getFileName() + ".compact");
+                long compactedSize = HEADER_SIZE;
+                try {
+                    try (FileChannel temporaryChannel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                        OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(temporaryChannel), 1 << 16);
+                        outputStream.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array());
+                        for (StoredRecord storedRecord : this.records.values()) {
+                            byte[] entry = encode(TYPE_SAVE, storedRecord.record().uuid(), storedRecord.record());
+                            outputStream.write(entry);
+                            compactedSize += entry.length;
+                        }
+                        outputStream.flush();
+                        temporaryChannel.force(true);
+                    }
+
+                    this.channel.close();
+                    Files.move(temporaryPath, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    this.syncDirectory();
+
+                    this.size = compactedSize;
+                    this.garbage = 0L;
+                    this.syncedSequence = this.writtenSequence;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to compact record store", e);
+                } finally {
+                    if (!this.channel.isOpen()) { // reopen either the compacted log, or the original if it was not replaced
+                        try {
+                            this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                            this.channel.position(this.size);
+                        } catch (IOException e) {
+                            this.closed = true;
+                            throw new RuntimeException("Failed to reopen record store", e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this.syncLock) {
+            synchronized (this.writeLock) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+
+                try {
+                    this.channel.force(false);
+                    this.channel.close();
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to close record store", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the log into memory, discarding a torn or corrupt last entry.
+     *
+     * @return The size of the valid log.
+     * @throws IOException If the log cannot be read, is not a record store, or has a corrupt entry before its last.
+     */
+    private long replay() throws IOException {
+        long fileSize = this.channel.size();
+        if (fileSize < HEADER_SIZE) { // new, or torn whilst being created
+            this.channel.truncate(0L);
+            this.channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip(), 0L);
+            this.channel.force(true);
+            return HEADER_SIZE;
+        }
+
+        long position = HEADER_SIZE;
+        try (InputStream inputStream = Files.newInputStream(this.path)) {
+            DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream, 1 << 16));
+            if (dataInputStream.readInt() != MAGIC) {
+                throw new IOException("Not a record store: " + this.path);
+            }
+            int version = dataInputStream.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported record store version: " + version);
+            }
+
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[4096];
+            while (position + FRAME_HEADER_SIZE <= fileSize) {
+                int length = dataInputStream.readInt();
+                int checksum = dataInputStream.readInt();
+                if (length <= 0 || position + FRAME_HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+
+                if (buffer.length < length) {
+                    buffer = new byte[Math.max(length, buffer.length * 2)];
+                }
+                dataInputStream.readFully(buffer, 0, length);
+                crc.reset();
+                crc.update(buffer, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                try {
+                    this.apply(ByteBuffer.wrap(buffer, 0, length), FRAME_HEADER_SIZE + length);
+                } catch (IOException | RuntimeException e) { // malformed despite its checksum, so handled as any other corrupt entry
+                    LOGGER.log(Level.WARNING, "An error occurred whilst decoding the entry at offset " + position + " of the record store " + this.path + ".", e);
+                    break;
+                }
+                position += FRAME_HEADER_SIZE + length;
+            }
+        } catch (EOFException e) {
+            // torn entry, handled below
+        }
+
+        if (position < fileSize) {
+            if (!this.isLastEntry(position, fileSize)) {
+                throw new IOException("Corrupt entry at offset " + position + " of the record store " + this.path + ", followed by further entries");
+            }
+            LOGGER.log(Level.WARNING, "Discarding {0} bytes of torn or corrupt entries from the record store {1}.", new Object[]{fileSize - position, this.path});
+            this.channel.truncate(position);
+            this.channel.force(true);
+        }
+        return position;
+    }
+
+    /**
+     * Checks whether the entry at the given position is the last in the log, i.e. whether it could have been torn by a crash whilst being appended.
+     * <p>
+     * This is the case if its frame extends to the end of the log, or if the rest of the log is zeroed (as some file systems extend files
+     * before writing their contents).
+     *
+     * @param position The position of the entry.
+     * @param fileSize The size of the log.
+     * @return True if the entry is the last.
+     * @throws IOException If the log cannot be read.
+     */
+    private boolean isLastEntry(long position, long fileSize) throws IOException {
+        if (position + FRAME_HEADER_SIZE >= fileSize) {
+            return true;
+        }
+        ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        while (frameHeader.hasRemaining()) { // within the log, as checked above
+            this.channel.read(frameHeader, position + frameHeader.position());
+        }
+        int length = frameHeader.getInt(0);
+        if (length > 0 && position + FRAME_HEADER_SIZE + length >= fileSize) {
+            return true;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (long offset = position; offset < fileSize; ) {
+            buffer.clear();
+            int read = this.channel.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    /**
+     * Applies a replayed entry to the in-memory records.
+     *
+     * @param buffer The entry's payload.
+     * @param entrySize The size of the entry, including its frame.
+     * @throws IOException If the entry is of an unknown type.
+     */
+    private void apply(@NotNull ByteBuffer buffer, int entrySize) throws IOException {
+        byte type = buffer.get();
+        UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+        switch (type) {
+            case TYPE_SAVE -> this.replace(uuid, new StoredRecord(decodeRecord(uuid, buffer), entrySize));
+            case TYPE_DELETE -> {
+                this.replace(uuid, null);
+                this.garbage += entrySize;
+            }
+            default -> throw new IOException("Unknown record store entry type: " + type);
+        }
+    }
+
+    /**
+     * Replaces the in-memory record of an account, accounting for the entry it supersedes.
+     *
+     * @param uuid The UUID of the account.
+     * @param storedRecord The new record, or {@code null} to remove it.
+     */
+    private void replace(@NotNull UUID uuid, @Nullable StoredRecord storedRecord) {
+        StoredRecord previous = storedRecord == null ? this.records.remove(uuid) : this.records.put(uuid, storedRecord);
+        if (previous != null) {
+            this.garbage += previous.size();
+        }
+    }
+
+    /**
+     * Appends an entry to the log. Must be called whilst holding the write lock.
+     *
+     * @param entry The entry.
+     */
+    private void append(byte @NotNull [] entry) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(entry);
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            this.size += entry.length;
+        } catch (IOException e) {
+            try { // remove any partially written entry, so that later entries are not discarded on replay
+                this.channel.truncate(this.size);
+                this.channel.position(this.size);
+            } catch (IOException truncateException) {
+                e.addSuppressed(truncateException);
+            }
+            throw new RuntimeException("Failed to write to record store", e);
+        }
+    }
+
+    /**
+     * Waits until the write with the given sequence number is durable, forcing the log to disk if no other writer is already doing so.
+     * <p>
+     * A single force makes every write appended before it durable, so writers arriving during a force are committed together by the next.
+     *
+     * @param sequence The sequence number of the write.
+     */
+    private void sync(long sequence) {
+        if (this.syncedSequence >= sequence) {
+            return;
+        }
+
+        synchronized (this.syncLock) {
+            if (this.syncedSequence >= sequence) { // committed by another writer
+                return;
+            }
+
+            long targetSequence;
+            FileChannel channel;
+            synchronized (this.writeLock) {
+                this.ensureOpen();
+                targetSequence = this.writtenSequence;
+                channel = this.channel;
+            }
+
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to sync record store", e);
+            }
+            this.syncedSequence = targetSequence;
+        }
+    }
+
+    private void compactIfNeeded() {
+        boolean compact;
+        synchronized (this.writeLock) {
+            compact = !this.closed && this.size >= MINIMUM_COMPACTION_SIZE && this.garbage * 2 > this.size;
+        }
+        if (compact) {
+            this.compact();
+        }
+    }
+
+    /**
+     * Forces the directory containing the log to disk, so that the replacement of the log is itself durable.
+     */
+    private void syncDirectory() {
+        Path parent = this.path.toAbsolutePath().getParent();
+        if (parent == null) {
+            return;
+        }
+        try (FileChannel directoryChannel = FileChannel.open(parent, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // not supported on every platform (i.e. Windows)
+        }
+    }
+
+    private void ensureOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Record store is closed");
+        }
+    }
+
+    private void closeQuietly() {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    //region Encoding
+    /**
+     * Encodes a framed entry.
+     * <p>
+     * An entry consists of its payload length and CRC-32 checksum, followed by the payload: the entry type, the account UUID and,
+     * for saves, the record's fields. Strings are length-prefixed UTF-8, and instants are encoded as epoch seconds and nanoseconds.
+     *
+     * @param type The entry type.
+     * @param uuid The UUID of the account.
+     * @param record The record to save, or {@code null} for a delete.
+     * @return The framed entry.
+     */
+    private static byte @NotNull [] encode(byte type, @NotNull UUID uuid, @Nullable AuthenticationRecord record) {
+        byte[] username = null, accessToken = null, refreshToken = null;
+        int length = 1 + 16;
+        if (record != null) {
+            username = record.username().getBytes(StandardCharsets.UTF_8);
+            accessToken = record.accessToken().getBytes(StandardCharsets.UTF_8);
+            refreshToken = record.refreshToken() == null ? null : record.refreshToken().getBytes(StandardCharsets.UTF_8);
+            length += 4 + username.length + 4 + accessToken.length + 4 + (refreshToken == null ? 0 : refreshToken.length) + 12 + 12;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_HEADER_SIZE + length);
+        buffer.putInt(length).putInt(0); // checksum is filled in below
+        buffer.put(type).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        if (record != null) {
+            putBytes(buffer, username);
+            putBytes(buffer, accessToken);
+            putBytes(buffer, refreshToken);
+            putInstant(buffer, record.issuedAt());
+            putInstant(buffer, record.expiresAt());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), FRAME_HEADER_SIZE, length);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static @NotNull AuthenticationRecord decodeRecord(@NotNull UUID uuid, @NotNull ByteBuffer buffer) {
+        String username = getString(buffer);
+        String accessToken = getString(buffer);
+        String refreshToken = getString(buffer);
+        Instant issuedAt = getInstant(buffer);
+        Instant expiresAt = getInstant(buffer);
+        if (username == null || accessToken == null) {
+            throw new IllegalStateException("Record is missing its username or access token");
+        }
+        return new SimpleAuthenticationRecord(username, uuid, accessToken, refreshToken, issuedAt, expiresAt);
+    }
+
+    private static void putBytes(@NotNull ByteBuffer buffer, byte @Nullable [] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static void putInstant(@NotNull ByteBuffer buffer, @Nullable Instant instant) {
+        if (instant == null) {
+            buffer.putLong(NULL_INSTANT).putInt(0);
+        } else {
+            buffer.putLong(instant.getEpochSecond()).putInt(instant.getNano());
+        }
+    }
+
+    private static @Nullable String getString(@NotNull ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    private static @Nullable Instant getInstant(@NotNull ByteBuffer buffer) {
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        return epochSecond == NULL_INSTANT ? null : Instant.ofEpochSecond(epochSecond, nano);
+    }
+    //endregion
+
+    /**
+     * A record held in memory, along with the size of its entry in the log.
+     *
+     * @param record The record.
+     * @param size The size of its entry.
+     */
+    private record StoredRecord(@NotNull AuthenticationRecord record, int size) {
+    }
+}
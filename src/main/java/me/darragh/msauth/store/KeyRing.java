@@ -0,0 +1,330 @@
+package me.darragh.msauth.store;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The keys used to encrypt records at rest, stored in a local key file.
+ * <p>
+ * Records are encrypted with AES-GCM under a data encryption key (DEK), and each DEK is itself stored encrypted (wrapped)
+ * under the key encryption key (KEK). Rotating creates a new DEK, which is used for every subsequent encryption; older DEKs
+ * are kept until every record encrypted under them has been re-encrypted, and are then retired from the key file.
+ * <p>
+ * The KEK is never written to the key file, which only holds the wrapped DEKs. It is supplied by the caller (i.e. from a
+ * {@link java.security.KeyStore} or a secrets manager), or read from a separate file, which may be kept on another volume or mount.
+ * <p>
+ * {@link Cipher} instances are reused per thread, so encrypting and decrypting only costs the cipher's initialisation and the operation itself.
+ *
+ * @apiNote This class is thread-safe. The key files must be kept private, i.e. they are created readable by their owner only where supported.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+public final class KeyRing {
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int KEY_SIZE = 256;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final String PREFIX = "enc:";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to create cipher", e);
+        }
+    });
+
+    private final @NotNull Path keyFile;
+    private final @NotNull SecretKey keyEncryptionKey;
+    private final Map<Integer, SecretKey> dataEncryptionKeys = new ConcurrentHashMap<>();
+    private final Set<Integer> retiredGenerations = ConcurrentHashMap.newKeySet();
+    private volatile int activeGeneration;
+
+    private KeyRing(@NotNull Path keyFile, @NotNull SecretKey keyEncryptionKey) {
+        this.keyFile = keyFile;
+        this.keyEncryptionKey = keyEncryptionKey;
+    }
+
+    /**
+     * Opens the key ring stored in the key file, reading the key encryption key from a separate file.
+     * <p>
+     * If neither file exists, both are created with new keys.
+     *
+     * @param keyFile The path of the key file.
+     * @param keyEncryptionKeyFile The path of the file holding the key encryption key.
+     * @return The key ring.
+     */
+    public static @NotNull KeyRing open(@NotNull Path keyFile, @NotNull Path keyEncryptionKeyFile) {
+        SecretKey keyEncryptionKey;
+        try {
+            if (Files.exists(keyEncryptionKeyFile)) {
+                keyEncryptionKey = new SecretKeySpec(Base64.getDecoder().decode(Files.readString(keyEncryptionKeyFile, StandardCharsets.US_ASCII).trim()), "AES");
+            } else if (Files.notExists(keyFile)) {
+                keyEncryptionKey = generateKey();
+                writePrivately(keyEncryptionKeyFile, Base64.getEncoder().encode(keyEncryptionKey.getEncoded()));
+            } else {
+                throw new IllegalStateException("Key encryption key file does not exist: " + keyEncryptionKeyFile);
+            }
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            throw new RuntimeException("Failed to open key encryption key file", e);
+        }
+        return open(keyFile, keyEncryptionKey);
+    }
+
+    /**
+     * Opens the key ring stored in the key file, creating it with new keys if it does not exist.
+     *
+     * @param keyFile The path of the key file.
+     * @param keyEncryptionKey The AES key encryption key, which the keys in the key file are wrapped with.
+     * @return The key ring.
+     */
+    public static @NotNull KeyRing open(@NotNull Path keyFile, @NotNull SecretKey keyEncryptionKey) {
+        try {
+            if (Files.notExists(keyFile)) {
+                KeyRing keyRing = new KeyRing(keyFile, keyEncryptionKey);
+                keyRing.dataEncryptionKeys.put(1, generateKey());
+                keyRing.activeGeneration = 1;
+                keyRing.save();
+                return keyRing;
+            }
+
+            Properties properties = new Properties();
+            try (InputStream inputStream = Files.newInputStream(keyFile)) {
+                properties.load(inputStream);
+            }
+
+            String activeGeneration = properties.getProperty("active");
+            if (activeGeneration == null) {
+                throw new IllegalStateException("Key file is missing its active generation");
+            }
+
+            KeyRing keyRing = new KeyRing(keyFile, keyEncryptionKey);
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith("dek.")) {
+                    int generation = Integer.parseInt(name.substring(4));
+                    keyRing.dataEncryptionKeys.put(generation, keyRing.unwrap(generation, properties.getProperty(name)));
+                }
+            }
+            keyRing.activeGeneration = Integer.parseInt(activeGeneration);
+            if (!keyRing.dataEncryptionKeys.containsKey(keyRing.activeGeneration)) {
+                throw new IllegalStateException("Key file is missing its active key");
+            }
+            return keyRing;
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            throw new RuntimeException("Failed to open key file", e);
+        }
+    }
+
+    /**
+     * The generation of the key currently used for encryption.
+     *
+     * @return The active generation.
+     */
+    public int activeGeneration() {
+        return this.activeGeneration;
+    }
+
+    /**
+     * Encrypts a value under the active key.
+     *
+     * @param plaintext The value.
+     * @param associatedData Data authenticated alongside the value, which must be supplied again to decrypt it.
+     * @return The encrypted value.
+     */
+    public @NotNull String encrypt(@NotNull String plaintext, byte @NotNull [] associatedData) {
+        int generation = this.activeGeneration;
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        try {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, this.dataEncryptionKeys.get(generation), new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(associatedData);
+            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            byte[] payload = ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+            return PREFIX + generation + ":" + Base64.getEncoder().encodeToString(payload);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to encrypt value", e);
+        }
+    }
+
+    /**
+     * Decrypts a value.
+     *
+     * @param encrypted The encrypted value.
+     * @param associatedData The data authenticated alongside the value.
+     * @return The value.
+     */
+    public @NotNull String decrypt(@NotNull String encrypted, byte @NotNull [] associatedData) {
+        int generation = generationOf(encrypted);
+        SecretKey key = this.dataEncryptionKeys.get(generation);
+        if (key == null) {
+            throw new IllegalStateException("Value was encrypted with a retired key: " + generation);
+        }
+
+        byte[] payload = Base64.getDecoder().decode(encrypted.substring(encrypted.indexOf(':', PREFIX.length()) + 1));
+        try {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, payload, 0, IV_LENGTH));
+            cipher.updateAAD(associatedData);
+            return new String(cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Failed to decrypt value", e);
+        }
+    }
+
+    /**
+     * Returns whether a value is encrypted, rather than plaintext.
+     *
+     * @param value The value.
+     * @return Whether the value is encrypted.
+     */
+    public static boolean isEncrypted(@NotNull String value) {
+        return value.startsWith(PREFIX);
+    }
+
+    /**
+     * Returns the generation of the key a value was encrypted with.
+     *
+     * @param encrypted The encrypted value.
+     * @return The generation.
+     */
+    public static int generationOf(@NotNull String encrypted) {
+        int separator = encrypted.indexOf(':', PREFIX.length());
+        if (!encrypted.startsWith(PREFIX) || separator < 0) {
+            throw new IllegalArgumentException("Value is not encrypted");
+        }
+        return Integer.parseInt(encrypted, PREFIX.length(), separator, 10);
+    }
+
+    /**
+     * Creates a new key, which is used for every subsequent encryption.
+     *
+     * @return The generation of the new key.
+     */
+    public synchronized int rotate() {
+        int generation = this.dataEncryptionKeys.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+        try {
+            this.dataEncryptionKeys.put(generation, generateKey());
+            int previousGeneration = this.activeGeneration;
+            this.activeGeneration = generation;
+            try {
+                this.save();
+            } catch (IOException | GeneralSecurityException e) {
+                this.activeGeneration = previousGeneration;
+                this.dataEncryptionKeys.remove(generation);
+                throw e;
+            }
+        } catch (IOException | GeneralSecurityException e) {
+            throw new RuntimeException("Failed to rotate key", e);
+        }
+        return generation;
+    }
+
+    /**
+     * Removes every key other than the active key from the key file.
+     * <p>
+     * Retired keys are kept in memory, so that values read before they were re-encrypted remain readable, but are lost once the key ring is reopened.
+     */
+    public synchronized void retire() {
+        Set<Integer> retiredGenerations = new HashSet<>(this.dataEncryptionKeys.keySet());
+        retiredGenerations.remove(this.activeGeneration);
+        this.retiredGenerations.addAll(retiredGenerations);
+        try {
+            this.save();
+        } catch (IOException | GeneralSecurityException e) {
+            this.retiredGenerations.removeAll(retiredGenerations);
+            throw new RuntimeException("Failed to retire keys", e);
+        }
+    }
+
+    /**
+     * Writes the key file, atomically replacing the previous one.
+     */
+    private void save() throws IOException, GeneralSecurityException {
+        Map<String, String> entries = new TreeMap<>();
+        entries.put("active", Integer.toString(this.activeGeneration));
+        for (Map.Entry<Integer, SecretKey> entry : this.dataEncryptionKeys.entrySet()) {
+            if (this.retiredGenerations.contains(entry.getKey())) {
+                continue;
+            }
+            entries.put("dek." + entry.getKey(), this.wrap(entry.getKey(), entry.getValue()));
+        }
+
+        Properties properties = new Properties();
+        properties.putAll(entries);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        properties.store(outputStream, "msauth key file - keep private");
+        writePrivately(this.keyFile, outputStream.toByteArray());
+    }
+
+    /**
+     * Writes a file readable by its owner only where supported, atomically replacing any previous one.
+     *
+     * @param file The path of the file.
+     * @param contents The contents.
+     */
+    private static void writePrivately(@NotNull Path file, byte @NotNull [] contents) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporaryFile = parent.resolve(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temporaryFile);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-------");
+            Files.createFile(temporaryFile, PosixFilePermissions.asFileAttribute(permissions));
+        }
+        Files.write(temporaryFile, contents);
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private @NotNull String wrap(int generation, @NotNull SecretKey key) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, this.keyEncryptionKey, new GCMParameterSpec(TAG_LENGTH, iv));
+        cipher.updateAAD(("dek." + generation).getBytes(StandardCharsets.UTF_8));
+        byte[] wrapped = cipher.doFinal(key.getEncoded());
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + wrapped.length).put(iv).put(wrapped).array());
+    }
+
+    private @NotNull SecretKey unwrap(int generation, @NotNull String wrapped) throws GeneralSecurityException {
+        byte[] payload = Base64.getDecoder().decode(wrapped);
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, this.keyEncryptionKey, new GCMParameterSpec(TAG_LENGTH, payload, 0, IV_LENGTH));
+        cipher.updateAAD(("dek." + generation).getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH), "AES");
+    }
+
+    private static @NotNull SecretKey generateKey() throws GeneralSecurityException {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(KEY_SIZE, RANDOM);
+        return keyGenerator.generateKey();
+    }
+}
@@ -0,0 +1,86 @@
+package me.darragh.msauth.stub;
+
+import me.darragh.msauth.util.ExecutorProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * Represents the behaviour of a {@link StubServer}: how slowly, and how unreliably, it responds.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param latency The minimum time taken to respond to each request.
+ * @param latencyJitter The maximum additional time taken to respond to each request, chosen uniformly at random.
+ * @param errorRate The fraction of requests answered with a 503 Service Unavailable, from 0 to 1.
+ * @param throttleRate The fraction of requests answered with a 429 Too Many Requests, from 0 to 1.
+ * @param retryAfter The delay advertised in the Retry-After header of throttled responses.
+ * @param executorProvider The provider of the executor handling requests. Requests sleep for their latency, so this should not be bounded.
+ */
+public record StubOptions(@NotNull Duration latency,
+                          @NotNull Duration latencyJitter,
+                          double errorRate,
+                          double throttleRate,
+                          @NotNull Duration retryAfter,
+                          @NotNull ExecutorProvider executorProvider) {
+    public static final StubOptions DEFAULT = new StubOptions(
+            Duration.ZERO,
+            Duration.ZERO,
+            0.0,
+            0.0,
+            Duration.ofSeconds(1),
+            ExecutorProvider.virtualThreadPerTask()
+    );
+
+    public StubOptions {
+        if (latency.isNegative() || latencyJitter.isNegative() || retryAfter.isNegative()) {
+            throw new IllegalArgumentException("Durations must not be negative");
+        }
+        if (errorRate < 0.0 || throttleRate < 0.0 || errorRate + throttleRate > 1.0) {
+            throw new IllegalArgumentException("The error and throttle rates must be non-negative, and sum to at most 1");
+        }
+    }
+
+    /**
+     * Returns a copy of these options responding after the given latency.
+     *
+     * @param latency The minimum time taken to respond to each request.
+     * @param latencyJitter The maximum additional time taken to respond to each request.
+     * @return The options.
+     */
+    public @NotNull StubOptions withLatency(@NotNull Duration latency, @NotNull Duration latencyJitter) {
+        return new StubOptions(latency, latencyJitter, this.errorRate, this.throttleRate, this.retryAfter, this.executorProvider);
+    }
+
+    /**
+     * Returns a copy of these options failing the given fraction of requests.
+     *
+     * @param errorRate The fraction of requests answered with a 503 Service Unavailable.
+     * @return The options.
+     */
+    public @NotNull StubOptions withErrorRate(double errorRate) {
+        return new StubOptions(this.latency, this.latencyJitter, errorRate, this.throttleRate, this.retryAfter, this.executorProvider);
+    }
+
+    /**
+     * Returns a copy of these options throttling the given fraction of requests.
+     *
+     * @param throttleRate The fraction of requests answered with a 429 Too Many Requests.
+     * @param retryAfter The delay advertised in the Retry-After header.
+     * @return The options.
+     */
+    public @NotNull StubOptions withThrottleRate(double throttleRate, @NotNull Duration retryAfter) {
+        return new StubOptions(this.latency, this.latencyJitter, this.errorRate, throttleRate, retryAfter, this.executorProvider);
+    }
+
+    /**
+     * Returns a copy of these options using the given executor provider.
+     *
+     * @param executorProvider The executor provider.
+     * @return The options.
+     */
+    public @NotNull StubOptions withExecutorProvider(@NotNull ExecutorProvider executorProvider) {
+        return new StubOptions(this.latency, this.latencyJitter, this.errorRate, this.throttleRate, this.retryAfter, executorProvider);
+    }
+}
@@ -0,0 +1,427 @@
+package me.darragh.msauth.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import me.darragh.msauth.gson.JsonBodies;
+import me.darragh.msauth.http.ServiceEndpoints;
+import me.darragh.msauth.util.QueryUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An in-process stub of the Microsoft, Xbox Live and Minecraft services, so that logins may be load tested without a network.
+ * <p>
+ * Every service is served from the same loopback origin, so logins are directed at the stub by {@link #getEndpoints()}. The stub
+ * emulates each endpoint used by the library, and each login flow:
+ * <ul>
+ *     <li>OAuth2 logins, and refreshes, at {@code /oauth20_authorize.srf} and {@code /oauth20_token.srf};</li>
+ *     <li>device code logins at {@code /consumers/oauth2/v2.0/devicecode} and {@code /consumers/oauth2/v2.0/token}, which are authorised immediately;</li>
+ *     <li>cookie logins, whose redirects lead from {@code /connect/XboxLive/} through {@code /oauth20_authorize.srf} to the access token;</li>
+ *     <li>Xbox Live and XSTS authentication, and the Xbox profile checkout;</li>
+ *     <li>the Minecraft login and profile.</li>
+ * </ul>
+ * Requests are validated as the real services would (i.e. method, credentials and grant), but any credential is accepted.
+ * Each response may be delayed, failed with a 503, or throttled with a 429, as per the {@link StubOptions}.
+ * <p>
+ * The JDK's HTTP server writes the headers and body of each response separately, which delayed ACKs stall by ~40ms on a kept-alive
+ * connection. Load tests should therefore be run with {@code -Dsun.net.httpserver.nodelay=true}. The stub does not set it itself, as the
+ * property applies to every HTTP server in the JVM, including the OAuth2 redirect servers.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public class StubServer implements HttpHandler, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(StubServer.class.getName());
+
+    private static final Duration XBOX_LIVE_TOKEN_LIFETIME = Duration.ofDays(14);
+    private static final Duration XSTS_TOKEN_LIFETIME = Duration.ofHours(16);
+
+    private static final String USER_HASH = "1234567890123456789";
+    private static final String MINECRAFT_LOGIN_URL = "https://www.minecraft.net/en-us/login";
+
+    private static final byte[] OAUTH_TOKENS = ("{\"token_type\":\"bearer\",\"expires_in\":86400,\"scope\":\"XboxLive.signin XboxLive.offline_access\","
+            + "\"access_token\":\"EwAYA+pvBAAUKods63Ys1fGlwiccIFJ+qE1hANsAAZ" + "A".repeat(1200) + "\","
+            + "\"refresh_token\":\"M.C507_BAY.0.U.-Cn" + "B".repeat(400) + "\",\"user_id\":\"0123456789abcdef\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DEVICE_CODE = ("{\"user_code\":\"STUBCODE\",\"device_code\":\"DAQABAAEAAAD" + "C".repeat(160) + "\","
+            + "\"verification_uri\":\"https://www.microsoft.com/link\",\"expires_in\":900,\"interval\":1,"
+            + "\"message\":\"To sign in, use a web browser to open the page https://www.microsoft.com/link and enter the code STUBCODE to authenticate.\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] XBOX_PROFILE = ("{\"profileUsers\":[{\"id\":\"2535400000000000\",\"hostId\":\"2535400000000000\","
+            + "\"settings\":[{\"id\":\"Gamertag\",\"value\":\"StubPlayer\"}],\"isSponsoredUser\":false}]}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MINECRAFT_AUTHENTICATION = ("{\"username\":\"01234567-89ab-cdef-0123-456789abcdef\",\"roles\":[],"
+            + "\"metadata\":{},\"access_token\":\"eyJraWQiOiJhYzg0YSIsImFsZyI6IkhTMjU2In0." + "D".repeat(600) + "\","
+            + "\"token_type\":\"Bearer\",\"expires_in\":86400}")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MINECRAFT_PROFILE = ("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"StubPlayer\",\"skins\":["
+            + "{\"id\":\"6a6e65e5-76dd-4c3c-a625-162924514568\",\"state\":\"ACTIVE\","
+            + "\"url\":\"http://textures.minecraft.net/texture/292009a4925b58f02c77dadc3ecef07ea4c7472f64e0fdc32ce5522489362680\",\"variant\":\"CLASSIC\"}],"
+            + "\"capes\":[],\"profileActions\":{}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final @NotNull StubOptions options;
+    private final @NotNull HttpServer server;
+    private final @NotNull ExecutorService executor;
+    private final @NotNull String origin;
+    private final @NotNull ServiceEndpoints endpoints;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private StubServer(@NotNull StubOptions options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = options.executorProvider().create("msauth-stub-server");
+        this.server.createContext("/", this);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+
+        this.origin = "http://" + this.server.getAddress().getHostString() + ":" + this.server.getAddress().getPort();
+        this.endpoints = ServiceEndpoints.at(URI.create(this.origin));
+    }
+
+    /**
+     * Starts a stub on an ephemeral loopback port, which responds immediately and reliably.
+     *
+     * @return The running stub.
+     * @throws IOException If the server could not be bound.
+     */
+    public static @NotNull StubServer start() throws IOException {
+        return start(StubOptions.DEFAULT);
+    }
+
+    /**
+     * Starts a stub on an ephemeral loopback port.
+     *
+     * @param options The stub's behaviour.
+     * @return The running stub.
+     * @throws IOException If the server could not be bound.
+     */
+    public static @NotNull StubServer start(@NotNull StubOptions options) throws IOException {
+        return new StubServer(options);
+    }
+
+    /**
+     * The endpoints to direct logins at the stub, i.e. for {@link me.darragh.msauth.client.AuthenticationPipeline}.
+     *
+     * @return The endpoints.
+     */
+    public @NotNull ServiceEndpoints getEndpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * The port the stub is listening on, on the loopback address.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * The number of requests received so far.
+     *
+     * @return The number of requests.
+     */
+    public long getRequestCount() {
+        return this.requests.sum();
+    }
+
+    /**
+     * The number of requests failed with a 503 so far, as per the error rate.
+     *
+     * @return The number of failed requests.
+     */
+    public long getFailedCount() {
+        return this.failed.sum();
+    }
+
+    /**
+     * The number of requests throttled with a 429 so far, as per the throttle rate.
+     *
+     * @return The number of throttled requests.
+     */
+    public long getThrottledCount() {
+        return this.throttled.sum();
+    }
+
+    @Override
+    public void handle(@NotNull HttpExchange exchange) throws IOException {
+        try {
+            this.requests.increment();
+            String body;
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            this.delay();
+
+            // Failures are decided before routing, as the real services shed load before validating requests
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < this.options.throttleRate()) {
+                this.throttled.increment();
+                exchange.getResponseHeaders().add("Retry-After", Long.toString(Math.max(1L, this.options.retryAfter().toSeconds())));
+                writeError(exchange, 429, "TooManyRequestsException");
+                return;
+            }
+            if (roll < this.options.throttleRate() + this.options.errorRate()) {
+                this.failed.increment();
+                writeError(exchange, 503, "ServiceUnavailable");
+                return;
+            }
+
+            this.route(exchange, body);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "An error occurred whilst handling a stub request.", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdown();
+    }
+
+    //region Routing
+    private void route(@NotNull HttpExchange exchange, @NotNull String body) throws IOException {
+        String method = exchange.getRequestMethod();
+        @Nullable String query = exchange.getRequestURI().getRawQuery();
+        switch (exchange.getRequestURI().getPath()) {
+            // Microsoft: OAuth2
+            case "/oauth20_authorize.srf" -> {
+                if (requireMethod(exchange, method, "GET")) {
+                    this.authorize(exchange, query);
+                }
+            }
+            case "/oauth20_token.srf" -> {
+                if (requireMethod(exchange, method, "POST")) {
+                    redeemGrant(exchange, body, "authorization_code", "code");
+                }
+            }
+            // Microsoft: device authorization grant
+            case "/consumers/oauth2/v2.0/devicecode" -> {
+                if (requireMethod(exchange, method, "POST")) {
+                    if (formValue(body, "client_id") == null) {
+                        writeJson(exchange, 400, error("invalid_request", "The request body must contain the following parameter: 'client_id'."));
+                    } else {
+                        writeJson(exchange, 200, DEVICE_CODE);
+                    }
+                }
+            }
+            case "/consumers/oauth2/v2.0/token" -> {
+                if (requireMethod(exchange, method, "POST")) {
+                    redeemGrant(exchange, body, "urn:ietf:params:oauth:grant-type:device_code", "device_code");
+                }
+            }
+            // Xbox Live
+            case "/user/authenticate" -> {
+                if (requireMethod(exchange, method, "POST") && requireJson(exchange, body, "RpsTicket")) {
+                    writeJson(exchange, 200, xboxToken(XBOX_LIVE_TOKEN_LIFETIME));
+                }
+            }
+            case "/xsts/authorize" -> {
+                if (requireMethod(exchange, method, "POST") && requireJson(exchange, body, "UserTokens")) {
+                    writeJson(exchange, 200, xboxToken(XSTS_TOKEN_LIFETIME));
+                }
+            }
+            case "/users/me/profile/settings" -> {
+                if (requireMethod(exchange, method, "GET") && requireAuthorization(exchange, "XBL3.0 ")) {
+                    writeJson(exchange, 200, XBOX_PROFILE);
+                }
+            }
+            case "/connect/XboxLive/" -> {
+                if (requireMethod(exchange, method, "GET")) {
+                    redirect(exchange, this.origin + "/oauth20_authorize.srf?client_id=000000004C12AE6F&response_type=code&scope=service::user.auth.xboxlive.com::MBI_SSL"
+                            + "&redirect_uri=" + this.origin + "/connect/oauth/XboxLive&state=login");
+                }
+            }
+            case "/connect/oauth/XboxLive" -> {
+                if (requireMethod(exchange, method, "GET")) {
+                    redirect(exchange, MINECRAFT_LOGIN_URL + "?state=login&accessToken=" + sisuPayload());
+                }
+            }
+            // Minecraft
+            case "/authentication/login_with_xbox" -> {
+                if (requireMethod(exchange, method, "POST") && requireJson(exchange, body, "identityToken")) {
+                    writeJson(exchange, 200, MINECRAFT_AUTHENTICATION);
+                }
+            }
+            case "/minecraft/profile" -> {
+                if (requireMethod(exchange, method, "GET") && requireAuthorization(exchange, "Bearer ")) {
+                    writeJson(exchange, 200, MINECRAFT_PROFILE);
+                }
+            }
+            default -> writeError(exchange, 404, "NOT_FOUND");
+        }
+    }
+
+    /**
+     * Authorises immediately, redirecting to the redirect URI with a code (and the state, if any).
+     */
+    private void authorize(@NotNull HttpExchange exchange, @Nullable String query) throws IOException {
+        @Nullable String redirectUri = query == null ? null : QueryUtil.getQuery(query, "redirect_uri");
+        if (redirectUri == null) {
+            writeJson(exchange, 400, error("invalid_request", "The provided value for the input parameter 'redirect_uri' is not valid."));
+            return;
+        }
+
+        @Nullable String state = QueryUtil.getQuery(query, "state");
+        redirectUri = URLDecoder.decode(redirectUri, StandardCharsets.UTF_8);
+        redirect(exchange, redirectUri + (redirectUri.indexOf('?') < 0 ? '?' : '&') + "code=M.C507_BAY.2.U.stub"
+                + (state == null ? "" : "&state=" + state));
+    }
+
+    /**
+     * Redeems the given grant, or a refresh token, for OAuth tokens.
+     */
+    private static void redeemGrant(@NotNull HttpExchange exchange, @NotNull String body, @NotNull String grantType, @NotNull String grantParameter) throws IOException {
+        @Nullable String requestedGrantType = formValue(body, "grant_type");
+        @Nullable String grant;
+        if (grantType.equals(requestedGrantType)) {
+            grant = formValue(body, grantParameter);
+        } else if ("refresh_token".equals(requestedGrantType)) {
+            grant = formValue(body, "refresh_token");
+        } else {
+            writeJson(exchange, 400, error("unsupported_grant_type", "The provided value for the input parameter 'grant_type' is not valid."));
+            return;
+        }
+
+        if (grant == null || grant.isEmpty()) {
+            writeJson(exchange, 400, error("invalid_grant", "The provided value for the input parameter '" + grantParameter + "' is not valid."));
+        } else {
+            writeJson(exchange, 200, OAUTH_TOKENS);
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        long latencyNanos = this.options.latency().toNanos(),
+                jitterNanos = this.options.latencyJitter().toNanos();
+        long delayNanos = latencyNanos + (jitterNanos == 0L ? 0L : ThreadLocalRandom.current().nextLong(jitterNanos + 1L));
+        if (delayNanos > 0L) {
+            Thread.sleep(delayNanos / 1_000_000L, (int) (delayNanos % 1_000_000L));
+        }
+    }
+    //endregion
+
+    //region Validation
+    private static boolean requireMethod(@NotNull HttpExchange exchange, @NotNull String method, @NotNull String expectedMethod) throws IOException {
+        if (!method.equalsIgnoreCase(expectedMethod)) {
+            exchange.getResponseHeaders().add("Allow", expectedMethod);
+            writeError(exchange, 405, "MethodNotAllowed");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean requireAuthorization(@NotNull HttpExchange exchange, @NotNull String scheme) throws IOException {
+        @Nullable String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith(scheme)) {
+            exchange.getResponseHeaders().add("WWW-Authenticate", scheme.trim());
+            writeError(exchange, 401, "Unauthorized");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean requireJson(@NotNull HttpExchange exchange, @NotNull String body, @NotNull String property) throws IOException {
+        if (!body.contains("\"" + property + "\"")) {
+            writeError(exchange, 400, "BadRequest");
+            return false;
+        }
+        return true;
+    }
+
+    private static @Nullable String formValue(@NotNull String body, @NotNull String key) {
+        @Nullable String value = QueryUtil.getQuery(body, key);
+        return value == null ? null : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+    //endregion
+
+    //region Responses
+    private static byte @NotNull [] xboxToken(@NotNull Duration lifetime) {
+        Instant issuedAt = Instant.now();
+        return JsonBodies.write(writer -> writer.beginObject()
+                .name("IssueInstant").value(issuedAt.toString())
+                .name("NotAfter").value(issuedAt.plus(lifetime).toString())
+                .name("Token").value("eyJlbmMiOiJBMTI4Q0JDK0hTMjU2IiwiYWxnIjoiUlNBLU9BRVAifQ." + "E".repeat(1200))
+                .name("DisplayClaims").beginObject()
+                    .name("xui").beginArray().beginObject().name("uhs").value(USER_HASH).endObject().endArray()
+                .endObject()
+                .endObject()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The base64 encoded SISU payload, carrying the XSTS token for Minecraft's relying party.
+     */
+    private static @NotNull String sisuPayload() {
+        Instant issuedAt = Instant.now();
+        String payload = JsonBodies.write(writer -> writer.beginArray()
+                .beginObject()
+                    .name("Item1").value("rp://api.minecraftservices.com/")
+                    .name("Item2").beginObject()
+                        .name("IssueInstant").value(issuedAt.toString())
+                        .name("NotAfter").value(issuedAt.plus(XSTS_TOKEN_LIFETIME).toString())
+                        .name("Token").value("eyJlbmMiOiJBMTI4Q0JDK0hTMjU2IiwiYWxnIjoiUlNBLU9BRVAifQ." + "F".repeat(1200))
+                        .name("DisplayClaims").beginObject()
+                            .name("xui").beginArray().beginObject().name("uhs").value(USER_HASH).endObject().endArray()
+                        .endObject()
+                    .endObject()
+                .endObject()
+                .endArray());
+        return Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte @NotNull [] error(@NotNull String error, @NotNull String description) {
+        return JsonBodies.write(writer -> writer.beginObject()
+                .name("error").value(error)
+                .name("error_description").value(description)
+                .endObject()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeError(@NotNull HttpExchange exchange, int statusCode, @NotNull String error) throws IOException {
+        writeJson(exchange, statusCode, JsonBodies.write(writer -> writer.beginObject()
+                .name("path").value(exchange.getRequestURI().getPath())
+                .name("error").value(error)
+                .endObject()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeJson(@NotNull HttpExchange exchange, int statusCode, byte @NotNull [] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static void redirect(@NotNull HttpExchange exchange, @NotNull String location) throws IOException {
+        exchange.getResponseHeaders().add("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+    //endregion
+}
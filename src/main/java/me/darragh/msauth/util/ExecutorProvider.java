@@ -0,0 +1,77 @@
+package me.darragh.msauth.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors used for background work, such as handling OAuth2 redirects.
+ * <p>
+ * Every executor created by the built-in providers uses daemon threads, so it can never prevent the JVM from exiting.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@FunctionalInterface
+public interface ExecutorProvider {
+    /**
+     * Creates an executor. The caller is responsible for shutting it down.
+     *
+     * @param name The name of the executor, used to name its threads.
+     * @return The executor.
+     */
+    @NotNull ExecutorService create(@NotNull String name);
+
+    /**
+     * Executes every task on a single thread, in submission order.
+     *
+     * @return The provider.
+     */
+    static @NotNull ExecutorProvider singleThread() {
+        return name -> Executors.newSingleThreadExecutor(daemonThreadFactory(name));
+    }
+
+    /**
+     * Executes each task on a new or idle platform thread, so tasks never queue behind each other.
+     *
+     * @return The provider.
+     */
+    static @NotNull ExecutorProvider threadPerTask() {
+        return name -> Executors.newCachedThreadPool(daemonThreadFactory(name));
+    }
+
+    /**
+     * Executes each task on a new virtual thread, so blocking tasks never occupy a platform thread.
+     * <p>
+     * Virtual threads are only available on Java 21 and later. On earlier versions, this falls back to {@link #threadPerTask()}.
+     *
+     * @return The provider.
+     */
+    static @NotNull ExecutorProvider virtualThreadPerTask() {
+        return name -> {
+            try { // resolved reflectively, as the library targets Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) { // unavailable, or a preview feature which has not been enabled
+                return threadPerTask().create(name);
+            }
+        };
+    }
+
+    /**
+     * Creates a thread factory producing named daemon threads.
+     *
+     * @param name The name prefix of the threads.
+     * @return The thread factory.
+     */
+    static @NotNull ThreadFactory daemonThreadFactory(@NotNull String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package me.darragh.msauth.util;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A utility class for working with {@link java.util.concurrent.CompletableFuture}s.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@UtilityClass
+public class FutureUtil {
+    /**
+     * Unwraps the cause of a failed future, removing any {@link CompletionException}/{@link ExecutionException} wrappers.
+     *
+     * @param throwable The throwable the future failed with.
+     * @return The underlying cause.
+     */
+    public static @NotNull Throwable unwrap(@NotNull Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
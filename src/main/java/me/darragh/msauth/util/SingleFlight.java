@@ -0,0 +1,80 @@
+package me.darragh.msauth.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent asynchronous operations by key.
+ * <p>
+ * Whilst an operation is in flight, further calls for the same key join it rather than starting another, and all callers receive its outcome.
+ * Once it completes, the next call for that key starts a new operation.
+ *
+ * @apiNote This class is thread-safe.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ *
+ * @param <K> The type of key.
+ * @param <V> The type of result.
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the operation, or joins the operation already in flight for the key.
+     * <p>
+     * Each caller receives its own future, so cancelling it does not affect the shared operation or any other caller.
+     *
+     * @param key The key identifying the operation.
+     * @param operation The operation, only invoked if none is in flight for the key.
+     * @return A future completed with the outcome of the operation.
+     */
+    public @NotNull CompletableFuture<V> execute(@NotNull K key, @NotNull Supplier<CompletableFuture<V>> operation) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        CompletableFuture<V> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((result, throwable) -> {
+            // Remove before completing, so that callers notified of the outcome may start a new operation
+            this.inFlight.remove(key, shared);
+            if (throwable != null) {
+                shared.completeExceptionally(FutureUtil.unwrap(throwable));
+            } else {
+                shared.complete(result);
+            }
+        });
+        return shared.copy();
+    }
+
+    /**
+     * Returns whether an operation is in flight for the key.
+     *
+     * @param key The key.
+     * @return Whether an operation is in flight.
+     */
+    public boolean isInFlight(@NotNull K key) {
+        return this.inFlight.containsKey(key);
+    }
+
+    /**
+     * The number of operations currently in flight.
+     *
+     * @return The number of operations.
+     */
+    public int size() {
+        return this.inFlight.size();
+    }
+}
@@ -0,0 +1,66 @@
+package me.darragh.msauth.util;
+
+import lombok.experimental.UtilityClass;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A utility class for parsing the UUIDs used by Minecraft's services, which omit the dashes.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+@UtilityClass
+public class UUIDUtil {
+    /**
+     * Parses a UUID, with or without dashes.
+     * <p>
+     * An undashed UUID is decoded directly into its two halves, without reformatting it first.
+     *
+     * @param id The UUID, i.e. {@code 069a79f444e94726a5befca90e38aaf5}.
+     * @return The UUID.
+     * @throws IllegalArgumentException If the UUID is malformed.
+     */
+    public static @NotNull UUID fromUndashed(@NotNull String id) {
+        if (id.length() == 36) {
+            return UUID.fromString(id);
+        }
+        if (id.length() != 32) {
+            throw new IllegalArgumentException("Invalid UUID: " + id);
+        }
+        return new UUID(parseHex(id, 0), parseHex(id, 16));
+    }
+
+    /**
+     * Formats a UUID without dashes, as used by Minecraft's services.
+     *
+     * @param uuid The UUID.
+     * @return The undashed UUID.
+     */
+    public static @NotNull String toUndashed(@NotNull UUID uuid) {
+        char[] chars = new char[32];
+        writeHex(chars, 0, uuid.getMostSignificantBits());
+        writeHex(chars, 16, uuid.getLeastSignificantBits());
+        return new String(chars);
+    }
+
+    private static long parseHex(@NotNull String id, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 16; i++) {
+            int digit = Character.digit(id.charAt(i), 16);
+            if (digit == -1) {
+                throw new IllegalArgumentException("Invalid UUID: " + id);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static void writeHex(char @NotNull [] chars, int offset, long value) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = Character.forDigit((int) (value & 0xF), 16);
+            value >>>= 4;
+        }
+    }
+}
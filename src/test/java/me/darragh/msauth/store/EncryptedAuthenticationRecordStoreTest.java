@@ -0,0 +1,174 @@
+package me.darragh.msauth.store;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the encryption of records at rest by {@link EncryptedAuthenticationRecordStore}, and the rotation of its key.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+class EncryptedAuthenticationRecordStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void encryptsTokensAtRest() throws GeneralSecurityException {
+        Path path = this.directory.resolve("records.log");
+        Path keyFile = this.directory.resolve("records.key");
+        SecretKey keyEncryptionKey = generateKey();
+        AuthenticationRecord record = record(1);
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path), KeyRing.open(keyFile, keyEncryptionKey))) {
+            store.save(record);
+        }
+
+        try (FileAuthenticationRecordStore delegate = new FileAuthenticationRecordStore(path)) {
+            AuthenticationRecord storedRecord = delegate.load(record.uuid());
+            assertNotNull(storedRecord);
+            assertTrue(KeyRing.isEncrypted(storedRecord.accessToken()));
+            assertTrue(KeyRing.isEncrypted(storedRecord.refreshToken()));
+            assertEquals(record.username(), storedRecord.username());
+        }
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path), KeyRing.open(keyFile, keyEncryptionKey))) {
+            assertRecordEquals(record, store.load(record.uuid()));
+        }
+    }
+
+    @Test
+    void rejectsTokensMovedToAnotherRecord() throws GeneralSecurityException {
+        Path path = this.directory.resolve("records.log");
+        KeyRing keyRing = KeyRing.open(this.directory.resolve("records.key"), generateKey());
+        AuthenticationRecord victim = record(1), attacker = record(2);
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path), keyRing)) {
+            store.saveAll(List.of(victim, attacker));
+        }
+
+        try (FileAuthenticationRecordStore delegate = new FileAuthenticationRecordStore(path)) {
+            AuthenticationRecord storedVictim = delegate.load(victim.uuid());
+            assertNotNull(storedVictim);
+            delegate.save(new SimpleAuthenticationRecord(attacker.username(), attacker.uuid(), storedVictim.accessToken(), storedVictim.refreshToken()));
+        }
+
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path), keyRing)) {
+            AuthenticationRecord tampered = store.load(attacker.uuid());
+            assertNotNull(tampered);
+            RuntimeException exception = assertThrows(RuntimeException.class, tampered::accessToken);
+            assertInstanceOf(AEADBadTagException.class, exception.getCause());
+            assertRecordEquals(victim, store.load(victim.uuid()));
+        }
+    }
+
+    @Test
+    void rejectsWrongKeyEncryptionKey() throws GeneralSecurityException {
+        Path keyFile = this.directory.resolve("records.key");
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(this.directory.resolve("records.log")),
+                KeyRing.open(keyFile, generateKey()))) {
+            store.save(record(1));
+        }
+
+        SecretKey wrongKeyEncryptionKey = generateKey();
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> KeyRing.open(keyFile, wrongKeyEncryptionKey));
+        assertInstanceOf(AEADBadTagException.class, exception.getCause());
+    }
+
+    @Test
+    void rotatesKeyAndReopensWithOnlyNewKey() throws Exception {
+        Path path = this.directory.resolve("records.log");
+        Path keyFile = this.directory.resolve("records.key");
+        SecretKey keyEncryptionKey = generateKey();
+        List<AuthenticationRecord> records = new ArrayList<>();
+        for (int i = 0; i < 600; i++) { // more than a single re-encryption batch
+            records.add(record(i));
+        }
+
+        KeyRing keyRing = KeyRing.open(keyFile, keyEncryptionKey);
+        int previousGeneration = keyRing.activeGeneration();
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path), keyRing)) {
+            store.saveAll(records);
+            store.rotateKey().join();
+        }
+        int generation = keyRing.activeGeneration();
+        assertTrue(generation > previousGeneration);
+
+        String keyFileContents = Files.readString(keyFile);
+        assertTrue(keyFileContents.contains("dek." + generation + "="));
+        assertFalse(keyFileContents.contains("dek." + previousGeneration + "="));
+
+        try (FileAuthenticationRecordStore delegate = new FileAuthenticationRecordStore(path)) {
+            for (AuthenticationRecord storedRecord : delegate.loadAll()) {
+                assertEquals(generation, KeyRing.generationOf(storedRecord.accessToken()));
+                assertEquals(generation, KeyRing.generationOf(storedRecord.refreshToken()));
+            }
+        }
+
+        KeyRing reopenedKeyRing = KeyRing.open(keyFile, keyEncryptionKey);
+        assertEquals(generation, reopenedKeyRing.activeGeneration());
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path), reopenedKeyRing)) {
+            assertEquals(records.size(), store.size());
+            for (AuthenticationRecord record : records) {
+                assertRecordEquals(record, store.load(record.uuid()));
+            }
+        }
+    }
+
+    @Test
+    void encryptsPlaintextRecordsOnRotation() throws GeneralSecurityException {
+        Path path = this.directory.resolve("records.log");
+        AuthenticationRecord record = record(1);
+        try (FileAuthenticationRecordStore delegate = new FileAuthenticationRecordStore(path)) {
+            delegate.save(record);
+        }
+
+        try (EncryptedAuthenticationRecordStore store = new EncryptedAuthenticationRecordStore(new FileAuthenticationRecordStore(path),
+                KeyRing.open(this.directory.resolve("records.key"), generateKey()))) {
+            assertRecordEquals(record, store.load(record.uuid())); // read as-is
+            store.rotateKey().join();
+            assertRecordEquals(record, store.load(record.uuid()));
+        }
+        try (FileAuthenticationRecordStore delegate = new FileAuthenticationRecordStore(path)) {
+            AuthenticationRecord storedRecord = delegate.load(record.uuid());
+            assertNotNull(storedRecord);
+            assertTrue(KeyRing.isEncrypted(storedRecord.accessToken()));
+        }
+    }
+
+    private static void assertRecordEquals(AuthenticationRecord expected, AuthenticationRecord actual) {
+        assertNotNull(actual);
+        assertEquals(expected.username(), actual.username());
+        assertEquals(expected.uuid(), actual.uuid());
+        assertEquals(expected.accessToken(), actual.accessToken());
+        assertEquals(expected.refreshToken(), actual.refreshToken());
+        assertEquals(expected.issuedAt(), actual.issuedAt());
+        assertEquals(expected.expiresAt(), actual.expiresAt());
+    }
+
+    private static AuthenticationRecord record(int index) {
+        return new SimpleAuthenticationRecord("Player" + index, new UUID(0L, index), "access-" + index, "refresh-" + index);
+    }
+
+    private static SecretKey generateKey() throws GeneralSecurityException {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        return keyGenerator.generateKey();
+    }
+}
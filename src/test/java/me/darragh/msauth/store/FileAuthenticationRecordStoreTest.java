@@ -0,0 +1,181 @@
+package me.darragh.msauth.store;
+
+import me.darragh.msauth.AuthenticationRecord;
+import me.darragh.msauth.SimpleAuthenticationRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the replay, recovery and compaction of {@link FileAuthenticationRecordStore}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+class FileAuthenticationRecordStoreTest {
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensSavedAndDeletedRecords() {
+        Path path = this.directory.resolve("records.log");
+        AuthenticationRecord kept = record(1), replaced = record(2), deleted = record(3);
+        AuthenticationRecord replacement = new SimpleAuthenticationRecord("Replaced", replaced.uuid(), "access-2b", "refresh-2b");
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            store.saveAll(List.of(kept, replaced, deleted));
+            store.save(replacement);
+            store.delete(deleted.uuid());
+        }
+
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            assertEquals(2, store.size());
+            assertEquals(kept, store.load(kept.uuid()));
+            assertEquals(replacement, store.load(replaced.uuid()));
+            assertNull(store.load(deleted.uuid()));
+        }
+    }
+
+    @Test
+    void discardsTornLastEntry() throws IOException {
+        Path path = this.directory.resolve("records.log");
+        AuthenticationRecord first = record(1), second = record(2), torn = record(3);
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            store.save(first);
+            store.save(second);
+        }
+        long validSize = Files.size(path);
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            store.save(torn);
+        }
+        truncate(path, Files.size(path) - 5); // as if the process crashed whilst appending
+
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            assertEquals(2, store.size());
+            assertEquals(first, store.load(first.uuid()));
+            assertEquals(second, store.load(second.uuid()));
+            assertNull(store.load(torn.uuid()));
+            assertEquals(validSize, Files.size(path));
+
+            store.save(torn); // appended after the valid entries, rather than the torn one
+        }
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            assertEquals(3, store.size());
+            assertEquals(torn, store.load(torn.uuid()));
+        }
+    }
+
+    @Test
+    void discardsZeroedTail() throws IOException {
+        Path path = this.directory.resolve("records.log");
+        AuthenticationRecord record = record(1);
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            store.save(record);
+        }
+        long validSize = Files.size(path);
+        Files.write(path, new byte[4096], StandardOpenOption.APPEND); // as if the file was extended before the entry was written
+
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            assertEquals(1, store.size());
+            assertEquals(record, store.load(record.uuid()));
+            assertEquals(validSize, Files.size(path));
+        }
+    }
+
+    @Test
+    void failsOnChecksumMismatchBeforeLastEntry() throws IOException {
+        Path path = this.directory.resolve("records.log");
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            store.save(record(1));
+            store.save(record(2));
+            store.save(record(3));
+        }
+        byte[] contents = Files.readAllBytes(path);
+        contents[HEADER_SIZE + FRAME_HEADER_SIZE + 20] ^= 0x01; // within the payload of the first entry
+        Files.write(path, contents);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> new FileAuthenticationRecordStore(path));
+        IOException cause = assertInstanceOf(IOException.class, exception.getCause());
+        assertTrue(cause.getMessage().contains("offset " + HEADER_SIZE), cause.getMessage());
+        assertEquals(contents.length, Files.size(path)); // nothing was truncated
+    }
+
+    @Test
+    void compactsAndReopens() throws IOException {
+        Path path = this.directory.resolve("records.log");
+        List<AuthenticationRecord> expected = new ArrayList<>();
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            for (int i = 0; i < 100; i++) {
+                store.save(record(i));
+            }
+            for (int i = 0; i < 100; i++) {
+                if (i % 3 == 0) {
+                    store.delete(uuid(i));
+                } else {
+                    AuthenticationRecord replacement = new SimpleAuthenticationRecord("Player" + i, uuid(i), "access-" + i + "b", "refresh-" + i + "b",
+                            Instant.ofEpochSecond(1_700_000_000L + i), null);
+                    store.save(replacement);
+                    expected.add(replacement);
+                }
+            }
+            long sizeBefore = Files.size(path);
+
+            store.compact();
+            assertTrue(Files.size(path) < sizeBefore);
+            assertEquals(expected.size(), store.size());
+
+            AuthenticationRecord afterCompaction = record(1000); // appended to the compacted log
+            store.save(afterCompaction);
+            expected.add(afterCompaction);
+        }
+        assertTrue(Files.notExists(path.resolveSibling("records.log.compact")));
+
+        try (FileAuthenticationRecordStore store = new FileAuthenticationRecordStore(path)) {
+            assertEquals(expected.size(), store.size());
+            for (AuthenticationRecord record : expected) {
+                assertEquals(record, store.load(record.uuid()));
+            }
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path path = this.directory.resolve("records.log");
+        Files.writeString(path, "not a record store");
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> new FileAuthenticationRecordStore(path));
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static UUID uuid(int index) {
+        return new UUID(0L, index);
+    }
+
+    private static AuthenticationRecord record(int index) {
+        return new SimpleAuthenticationRecord("Player" + index, uuid(index), "access-" + index, "refresh-" + index,
+                Instant.ofEpochSecond(1_700_000_000L), Instant.ofEpochSecond(1_700_086_400L));
+    }
+}
@@ -0,0 +1,126 @@
+package me.darragh.msauth.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the encryption, storage and rotation of the keys in a {@link KeyRing}.
+ *
+ * @author darraghd493
+ * @since 1.2.0
+ */
+class KeyRingTest {
+    private static final byte[] ASSOCIATED_DATA = "account".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void decryptsAfterReopening() throws GeneralSecurityException {
+        Path keyFile = this.directory.resolve("records.key");
+        SecretKey keyEncryptionKey = generateKey();
+        String encrypted = KeyRing.open(keyFile, keyEncryptionKey).encrypt("token", ASSOCIATED_DATA);
+
+        assertTrue(KeyRing.isEncrypted(encrypted));
+        assertFalse(encrypted.contains("token"));
+        assertEquals("token", KeyRing.open(keyFile, keyEncryptionKey).decrypt(encrypted, ASSOCIATED_DATA));
+    }
+
+    @Test
+    void rejectsWrongKeyEncryptionKey() throws GeneralSecurityException {
+        Path keyFile = this.directory.resolve("records.key");
+        KeyRing.open(keyFile, generateKey());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> KeyRing.open(keyFile, generateKey()));
+        assertInstanceOf(AEADBadTagException.class, exception.getCause());
+    }
+
+    @Test
+    void rejectsTamperedCiphertext() throws GeneralSecurityException {
+        KeyRing keyRing = KeyRing.open(this.directory.resolve("records.key"), generateKey());
+        String encrypted = keyRing.encrypt("token", ASSOCIATED_DATA);
+
+        String prefix = encrypted.substring(0, encrypted.lastIndexOf(':') + 1);
+        byte[] payload = Base64.getDecoder().decode(encrypted.substring(prefix.length()));
+        payload[payload.length - 1] ^= 0x01;
+        String tampered = prefix + Base64.getEncoder().encodeToString(payload);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> keyRing.decrypt(tampered, ASSOCIATED_DATA));
+        assertInstanceOf(AEADBadTagException.class, exception.getCause());
+    }
+
+    @Test
+    void rejectsOtherAssociatedData() throws GeneralSecurityException {
+        KeyRing keyRing = KeyRing.open(this.directory.resolve("records.key"), generateKey());
+        String encrypted = keyRing.encrypt("token", ASSOCIATED_DATA);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> keyRing.decrypt(encrypted, "another account".getBytes(StandardCharsets.UTF_8)));
+        assertInstanceOf(AEADBadTagException.class, exception.getCause());
+    }
+
+    @Test
+    void keepsKeyEncryptionKeyOutOfKeyFile() throws Exception {
+        Path keyFile = this.directory.resolve("records.key");
+        Path keyEncryptionKeyFile = this.directory.resolve("secrets").resolve("records.kek");
+        String encrypted = KeyRing.open(keyFile, keyEncryptionKeyFile).encrypt("token", ASSOCIATED_DATA);
+
+        String keyEncryptionKey = Files.readString(keyEncryptionKeyFile, StandardCharsets.US_ASCII).trim();
+        assertFalse(Files.readString(keyFile, StandardCharsets.ISO_8859_1).contains(keyEncryptionKey));
+        assertEquals("token", KeyRing.open(keyFile, keyEncryptionKeyFile).decrypt(encrypted, ASSOCIATED_DATA));
+    }
+
+    @Test
+    void refusesToCreateKeyEncryptionKeyForExistingKeyFile() throws GeneralSecurityException {
+        Path keyFile = this.directory.resolve("records.key");
+        Path keyEncryptionKeyFile = this.directory.resolve("records.kek");
+        KeyRing.open(keyFile, generateKey());
+
+        assertThrows(IllegalStateException.class, () -> KeyRing.open(keyFile, keyEncryptionKeyFile));
+        assertTrue(Files.notExists(keyEncryptionKeyFile));
+    }
+
+    @Test
+    void retiresPreviousKeysFromKeyFile() throws GeneralSecurityException {
+        Path keyFile = this.directory.resolve("records.key");
+        SecretKey keyEncryptionKey = generateKey();
+        KeyRing keyRing = KeyRing.open(keyFile, keyEncryptionKey);
+        String previous = keyRing.encrypt("previous", ASSOCIATED_DATA);
+
+        int generation = keyRing.rotate();
+        assertNotEquals(KeyRing.generationOf(previous), generation);
+        String current = keyRing.encrypt("current", ASSOCIATED_DATA);
+        assertEquals(generation, KeyRing.generationOf(current));
+        assertEquals("previous", keyRing.decrypt(previous, ASSOCIATED_DATA)); // still held until retired
+
+        keyRing.retire();
+        assertEquals("previous", keyRing.decrypt(previous, ASSOCIATED_DATA)); // retired keys stay in memory
+
+        KeyRing reopened = KeyRing.open(keyFile, keyEncryptionKey);
+        assertEquals(generation, reopened.activeGeneration());
+        assertEquals("current", reopened.decrypt(current, ASSOCIATED_DATA));
+        assertThrows(IllegalStateException.class, () -> reopened.decrypt(previous, ASSOCIATED_DATA));
+    }
+
+    private static SecretKey generateKey() throws GeneralSecurityException {
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        return keyGenerator.generateKey();
+    }
+}